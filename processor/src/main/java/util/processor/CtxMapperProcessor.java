@@ -0,0 +1,278 @@
+package util.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CtxMapperProcessor: {@code @util.CtxMapped}가 붙은 레코드마다 같은 패키지에 {@code <레코드 이름>_CtxMapper}
+ * 소스를 생성하는 애너테이션 프로세서. 생성된 클래스는 컴포넌트마다 CtxMap의 타입별 접근자를 직접 호출하므로,
+ * 런타임에 리플렉션이나 MethodHandle 조립 없이 첫 호출부터 손으로 작성한 코드와 같은 경로로 실행됩니다.
+ *
+ * <p>읽기/쓰기 규칙은 util 모듈의 런타임 경로(CtxRecordBinder, MapUtils의 레코드 경로)와 같게 유지해야 합니다.
+ * toMap은 결과가 Jackson과 같다고 보장할 수 있는 레코드에만 생성합니다.
+ */
+@SupportedAnnotationTypes(CtxMapperProcessor.ANNOTATION)
+public final class CtxMapperProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "util.CtxMapped";
+
+    private static final String SUFFIX = "_CtxMapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.RECORD) {
+                    error(element, "@CtxMapped는 레코드에만 사용할 수 있습니다.");
+                } else if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                    error(element, "@CtxMapped 레코드는 private일 수 없습니다. 같은 패키지의 변환기가 접근할 수 있어야 합니다.");
+                } else if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+                    error(element, "@CtxMapped는 제네릭 레코드를 지원하지 않습니다.");
+                } else {
+                    generate((TypeElement) element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement record) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(record);
+        String packageName = pkg.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(record).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + SUFFIX;
+        String recordType = record.getQualifiedName().toString();
+        List<? extends RecordComponentElement> components = record.getRecordComponents();
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("/**\n")
+                .append(" * {@link ").append(recordType).append("}와 CtxMap 사이의 변환기.\n")
+                .append(" * CtxMapperProcessor가 생성한 코드이므로 직접 수정하지 마세요.\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements util.CtxMapper<").append(recordType).append("> {\n\n");
+
+        // toCtxMap: 원시 타입은 박싱 없이, 참조 타입은 null이 아닐 때만 저장
+        src.append("    @Override\n")
+                .append("    public util.CtxMap toCtxMap(").append(recordType).append(" record) {\n")
+                .append("        util.CtxMap ctx = new util.CtxMap();\n");
+        for (RecordComponentElement component : components) {
+            String name = component.getSimpleName().toString();
+            TypeMirror type = component.asType();
+            String read = "record." + name + "()";
+            switch (type.getKind()) {
+                case INT, SHORT, BYTE -> src.append("        ctx.putInt(\"").append(name).append("\", ").append(read).append(");\n");
+                case LONG -> src.append("        ctx.putLong(\"").append(name).append("\", ").append(read).append(");\n");
+                case DOUBLE, FLOAT -> src.append("        ctx.putDouble(\"").append(name).append("\", ").append(read).append(");\n");
+                case BOOLEAN -> src.append("        ctx.putBoolean(\"").append(name).append("\", ").append(read).append(");\n");
+                case CHAR -> src.append("        ctx.put(\"").append(name).append("\", ").append(read).append(");\n");
+                default -> src.append("        if (").append(read).append(" != null) {\n")
+                        .append("            ctx.put(\"").append(name).append("\", ").append(read).append(");\n")
+                        .append("        }\n");
+            }
+        }
+        src.append("        return ctx;\n")
+                .append("    }\n\n");
+
+        // fromCtxMap: CtxRecordBinder와 같은 규칙으로 컴포넌트를 읽어 정규 생성자 호출
+        src.append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public ").append(recordType).append(" fromCtxMap(util.CtxMap ctx) {\n")
+                .append("        return new ").append(recordType).append("(");
+        for (int i = 0; i < components.size(); i++) {
+            RecordComponentElement component = components.get(i);
+            src.append((i == 0) ? "\n                " : ",\n                ")
+                    .append(reader(component.getSimpleName().toString(), component.asType()));
+        }
+        src.append(");\n")
+                .append("    }\n");
+
+        // toMap: MapUtils의 레코드 경로와 같은 프로퍼티(컴포넌트 + getX/isX)를 같은 값으로
+        Map<String, String> properties = mapProperties(record);
+        if (properties != null) {
+            src.append("\n")
+                    .append("    @Override\n")
+                    .append("    public java.util.Map<String, Object> toMap(").append(recordType).append(" record) {\n")
+                    .append("        java.util.Map<String, Object> map = java.util.LinkedHashMap.newLinkedHashMap(")
+                    .append(properties.size()).append(");\n");
+            properties.forEach((name, value) ->
+                    src.append("        map.put(\"").append(name).append("\", ").append(value).append(");\n"));
+            src.append("        return map;\n")
+                    .append("    }\n");
+        }
+        src.append("}\n");
+
+        String qualified = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualified, record).openWriter()) {
+            out.write(src.toString());
+        } catch (IOException e) {
+            error(record, "변환기를 생성할 수 없습니다: " + e.getMessage());
+        }
+    }
+
+    /** 컴포넌트 하나를 CtxMap에서 읽는 식. (CtxRecordBinder.reader와 같은 규칙) */
+    private String reader(String name, TypeMirror type) {
+        String key = "\"" + name + "\"";
+        return switch (type.getKind()) {
+            case INT -> "ctx.getInt(" + key + ", 0)";
+            case SHORT -> "(short) ctx.getInt(" + key + ", 0)";
+            case BYTE -> "(byte) ctx.getInt(" + key + ", 0)";
+            case LONG -> "ctx.getLong(" + key + ", 0L)";
+            case DOUBLE -> "ctx.getDouble(" + key + ", 0.0)";
+            case FLOAT -> "(float) ctx.getDouble(" + key + ", 0.0)";
+            case BOOLEAN -> "ctx.getBoolean(" + key + ")";
+            case CHAR -> "ctx.getObject(" + key + ", Character.class)";
+            default -> {
+                if (isType(type, "java.lang.String")) {
+                    yield "ctx.getString(" + key + ", null)";
+                }
+                String erased = processingEnv.getTypeUtils().erasure(type).toString();
+                String read = "ctx.getObject(" + key + ", " + erased + ".class)";
+                // 제네릭 타입(List<String> 등)은 CtxMap에 저장된 값을 그대로 믿고 캐스팅
+                yield erased.equals(type.toString()) ? read : "(" + type + ") " + read;
+            }
+        };
+    }
+
+    /**
+     * MapUtils.toMap과 같은 결과를 내는 프로퍼티 이름 -> 값 식을 반환합니다. Jackson 애너테이션이 있거나,
+     * 단순 값(원시 타입, 문자열, 박싱 타입, BigDecimal/BigInteger)이 아닌 프로퍼티가 있거나,
+     * getter와 컴포넌트 이름이 겹치면 null을 반환하여 런타임 경로에 맡깁니다.
+     */
+    private Map<String, String> mapProperties(TypeElement record) {
+        if (hasJacksonAnnotation(record)) {
+            return null;
+        }
+        Map<String, String> properties = new LinkedHashMap<>();
+        Set<ExecutableElement> accessors = new HashSet<>();
+        for (RecordComponentElement component : record.getRecordComponents()) {
+            ExecutableElement accessor = component.getAccessor();
+            accessors.add(accessor);
+            if (hasJacksonAnnotation(component) || hasJacksonAnnotation(accessor)) {
+                return null;
+            }
+            String value = mapValue("record." + component.getSimpleName() + "()", component.asType());
+            if (value == null) {
+                return null;
+            }
+            properties.put(component.getSimpleName().toString(), value);
+        }
+        List<ExecutableElement> getters = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(record))) {
+            if (!accessors.contains(method) && getterProperty(method) != null) {
+                getters.add(method);
+            }
+        }
+        for (ExecutableElement getter : getters) {
+            String property = getterProperty(getter);
+            String value = mapValue("record." + getter.getSimpleName() + "()", getter.getReturnType());
+            if (hasJacksonAnnotation(getter) || value == null || properties.containsKey(property)) {
+                return null;
+            }
+            properties.put(property, value);
+        }
+        return properties;
+    }
+
+    /** MapUtils.convertValue와 같은 변환을 하는 식. 단순 값이 아니면 null. */
+    private String mapValue(String read, TypeMirror type) {
+        return switch (type.getKind()) {
+            case INT, LONG, DOUBLE, FLOAT, SHORT, BOOLEAN -> read;
+            // Jackson은 byte를 int 숫자로, char를 한 글자 문자열로 기록함
+            case BYTE -> "(int) " + read;
+            case CHAR -> "String.valueOf(" + read + ")";
+            default -> {
+                if (isType(type, "java.lang.String") || isType(type, "java.lang.Integer")
+                        || isType(type, "java.lang.Long") || isType(type, "java.lang.Double")
+                        || isType(type, "java.lang.Boolean") || isType(type, "java.lang.Short")
+                        || isType(type, "java.lang.Float") || isType(type, "java.math.BigDecimal")
+                        || isType(type, "java.math.BigInteger")) {
+                    yield read;
+                }
+                yield null;
+            }
+        };
+    }
+
+    /** Jackson 기본 규칙의 getter이면 프로퍼티 이름, 아니면 null. (MapUtils.RecordMapper.getterProperty와 같은 규칙) */
+    private String getterProperty(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        String owner = ((TypeElement) method.getEnclosingElement()).getQualifiedName().toString();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)
+                || !method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID
+                || owner.equals("java.lang.Object") || owner.equals("java.lang.Record")) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        if (name.startsWith("get") && name.length() > 3) {
+            return decapitalize(name.substring(3));
+        }
+        TypeMirror returnType = method.getReturnType();
+        if (name.startsWith("is") && name.length() > 2
+                && (returnType.getKind() == TypeKind.BOOLEAN || isType(returnType, "java.lang.Boolean"))) {
+            return decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    private static String decapitalize(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char lower = Character.toLowerCase(chars[i]);
+            if (lower == chars[i]) {
+                break;
+            }
+            chars[i] = lower;
+        }
+        return new String(chars);
+    }
+
+    private static boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED && type.toString().equals(qualifiedName);
+    }
+
+    private static boolean hasJacksonAnnotation(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().toString().startsWith("com.fasterxml.jackson.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
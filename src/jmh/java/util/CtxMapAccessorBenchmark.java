@@ -0,0 +1,141 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CtxMap 타입-안전 접근자의 처리 시간과 할당량을 측정하는 벤치마크.
+ * build.gradle의 jmh 설정에서 gc 프로파일러를 사용하므로, 결과의 gc.alloc.rate.norm 값이
+ * 각 접근자의 호출당 할당 바이트(B/op)입니다. 정상 상태에서는 모두 0 B/op(≈0)이어야 합니다.
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CtxMapAccessorBenchmark {
+
+    private static final CtxKey<Integer> TIMEOUT = CtxKey.of("timeoutSeconds", Integer.class);
+    private static final CtxKey<String> APP_NAME = CtxKey.of("applicationName", String.class);
+
+    private CtxMap ctx;
+
+    @Setup
+    public void setUp() {
+        ctx = new CtxMap()
+                .put("applicationName", "RecordExampleApp_V2")
+                .putInt("timeoutSeconds", 30)
+                .putDouble("rateLimit", 10.5)
+                .putBoolean("debugMode", true)
+                .put("requestCount", 100_000L)
+                .put("intText", " 12345 ")
+                .put("longText", "9876543210")
+                .put("doubleText", " 10.25 ")
+                .put("boolText", " Yes ")
+                .put("blankText", "   ")
+                .put("junkText", "N/A")
+                .put("featureFlags", List.of("FEATURE_A", "FEATURE_B", "FEATURE_C"))
+                .put("userInfo", new CtxMap().put("id", "user_001").asReadOnlyMap());
+    }
+
+    @Benchmark
+    public String getString() {
+        return ctx.getString("applicationName");
+    }
+
+    @Benchmark
+    public int getIntSlot() {
+        return ctx.getInt("timeoutSeconds");
+    }
+
+    @Benchmark
+    public int getIntString() {
+        return ctx.getInt("intText");
+    }
+
+    @Benchmark
+    public int getIntInvalidString() {
+        // 파싱 실패 시에도 예외 없이 기본값을 반환하므로 성공 경로와 비용이 같아야 함
+        return ctx.getInt("junkText", -1);
+    }
+
+    @Benchmark
+    public long getLongNumber() {
+        return ctx.getLong("requestCount");
+    }
+
+    @Benchmark
+    public long getLongString() {
+        return ctx.getLong("longText");
+    }
+
+    @Benchmark
+    public double getDoubleSlot() {
+        return ctx.getDouble("rateLimit");
+    }
+
+    @Benchmark
+    public double getDoubleString() {
+        return ctx.getDouble("doubleText");
+    }
+
+    @Benchmark
+    public boolean getBooleanSlot() {
+        return ctx.getBoolean("debugMode");
+    }
+
+    @Benchmark
+    public boolean getBooleanString() {
+        return ctx.getBoolean("boolText");
+    }
+
+    @Benchmark
+    public Double getObjectSlot() {
+        return ctx.getObject("rateLimit", Double.class);
+    }
+
+    @Benchmark
+    public Optional<String> getOptional() {
+        return ctx.getOptional("applicationName", String.class);
+    }
+
+    @Benchmark
+    public Optional<Integer> getOptionalMissing() {
+        return ctx.getOptional("nonExistentKey", Integer.class);
+    }
+
+    @Benchmark
+    public boolean hasText() {
+        return ctx.hasText("blankText");
+    }
+
+    @Benchmark
+    public List<String> getList() {
+        return ctx.getList("featureFlags", String.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> getMap() {
+        return ctx.getMap("userInfo");
+    }
+
+    @Benchmark
+    public int getIntByKey() {
+        return ctx.getInt(TIMEOUT, 0);
+    }
+
+    @Benchmark
+    public String getByKey() {
+        return ctx.get(APP_NAME);
+    }
+}
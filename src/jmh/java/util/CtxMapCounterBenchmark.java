@@ -0,0 +1,43 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 공유 CtxMap의 같은 카운터를 갱신할 때의 처리량을 비교하는 벤치마크.
+ * merge(Long::sum)는 증가마다 Long을 박싱하고 같은 버킷에서 CAS를 반복하는 반면,
+ * increment는 LongAdder의 스트라이프 셀에 누적하므로 스레드 수에 비례해 처리량이 늘어나야 합니다.
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class CtxMapCounterBenchmark {
+
+    private CtxMap ctx;
+
+    @Setup
+    public void setUp() {
+        ctx = new CtxMap().put("requestCount", 0L).put("mergedCount", 0L);
+    }
+
+    @Benchmark
+    public CtxMap increment() {
+        return ctx.increment("requestCount");
+    }
+
+    @Benchmark
+    public Object mergeSum() {
+        return ctx.merge("mergedCount", 1L, (a, b) -> (Long) a + (Long) b);
+    }
+}
@@ -0,0 +1,89 @@
+package util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CtxMap.writeJson의 직접 기록 경로를 asReadOnlyMap 스냅샷 + ObjectMapper 경로와 비교하고,
+ * CtxMap.parseJson의 지연 디코딩 경로를 ObjectMapper.readValue + 복사 생성자 경로와 비교하는 벤치마크.
+ * 같은 출력 스트림을 재사용하므로 기록 쪽에서 측정되는 할당은 스냅샷과 직렬화 과정의 할당뿐입니다.
+ * 읽기 쪽은 요청 본문의 일부 필드만 읽는 일반적인 경우를 가정하여 최상위 필드 두 개만 조회합니다.
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CtxMapJsonBenchmark {
+
+    public record Item(String sku, int quantity, double price) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+    private CtxMap ctx;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        ctx = new CtxMap()
+                .put("applicationName", "RecordExampleApp_V2")
+                .put("currentUser", "홍길동")
+                .put("transactionId", "TXN12345")
+                .putInt("timeoutSeconds", 30)
+                .putBoolean("debugMode", true)
+                .putDouble("rateLimit", 10.5)
+                .put("tags", List.of("a", "b", "c"))
+                .put("headers", Map.of("accept", "application/json"))
+                .put("item", new Item("SKU-1", 2, 9.99));
+        body = ("{\"requestId\":\"REQ-1\",\"userId\":42,\"debug\":false,"
+                + "\"profile\":{\"name\":\"홍길동\",\"email\":\"hong@example.com\",\"roles\":[\"admin\",\"user\"]},"
+                + "\"items\":[{\"sku\":\"SKU-1\",\"quantity\":2,\"price\":9.99},"
+                + "{\"sku\":\"SKU-2\",\"quantity\":1,\"price\":19.99}],"
+                + "\"metadata\":{\"source\":\"web\",\"locale\":\"ko-KR\",\"tags\":[\"a\",\"b\",\"c\"]}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int writeJson() throws IOException {
+        out.reset();
+        ctx.writeJson(out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int snapshotAndObjectMapper() throws IOException {
+        out.reset();
+        MAPPER.writeValue(out, ctx.asReadOnlyMap());
+        return out.size();
+    }
+
+    @Benchmark
+    public int parseJson() {
+        CtxMap parsed = CtxMap.parseJson(body);
+        return parsed.getInt("userId") + parsed.getString("requestId").length();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int objectMapperAndCopy() throws IOException {
+        CtxMap parsed = new CtxMap(MAPPER.readValue(body, Map.class));
+        return parsed.getInt("userId") + parsed.getString("requestId").length();
+    }
+}
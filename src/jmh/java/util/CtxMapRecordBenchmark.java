@@ -0,0 +1,58 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CtxMap.toRecord의 바인딩 비용을 같은 접근자를 직접 호출하는 코드와 비교하는 벤치마크.
+ * 워밍업 이후 두 결과가 같은 수준이어야 합니다.
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CtxMapRecordBenchmark {
+
+    public record Settings(String applicationName, String version, String currentUser, String transactionId,
+            int timeoutSeconds, boolean debugMode, double rateLimit) {
+    }
+
+    private CtxMap ctx;
+
+    @Setup
+    public void setUp() {
+        ctx = new CtxMap()
+                .put("applicationName", "RecordExampleApp_V2")
+                .put("version", "1.0.1")
+                .put("currentUser", "홍길동")
+                .put("transactionId", "TXN12345")
+                .putInt("timeoutSeconds", 30)
+                .putBoolean("debugMode", true)
+                .putDouble("rateLimit", 10.5);
+    }
+
+    @Benchmark
+    public Settings handwritten() {
+        return new Settings(
+                ctx.getString("applicationName", null),
+                ctx.getString("version", null),
+                ctx.getString("currentUser", null),
+                ctx.getString("transactionId", null),
+                ctx.getInt("timeoutSeconds", 0),
+                ctx.getBoolean("debugMode"),
+                ctx.getDouble("rateLimit", 0.0));
+    }
+
+    @Benchmark
+    public Settings toRecord() {
+        return ctx.toRecord(Settings.class);
+    }
+}
@@ -0,0 +1,56 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * asReadOnlyMap 스냅샷 비용을 기본(ConcurrentHashMap) 모드와 persistent(HashTrie) 모드로 비교하는 벤치마크.
+ * 기본 모드는 키 수에 비례하는 복사 비용이 들고, persistent 모드는 키 수와 무관해야 합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CtxMapSnapshotBenchmark {
+
+    @Param({ "16", "500" })
+    public int keys;
+
+    private CtxMap concurrent;
+    private CtxMap persistent;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        concurrent = new CtxMap();
+        persistent = CtxMap.persistent();
+        for (int i = 0; i < keys; i++) {
+            concurrent.put("key" + i, "value" + i);
+            persistent.put("key" + i, "value" + i);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> snapshotConcurrent() {
+        return concurrent.asReadOnlyMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> snapshotPersistent() {
+        return persistent.asReadOnlyMap();
+    }
+
+    @Benchmark
+    public CtxMap putPersistent() {
+        // persistent 모드의 쓰기 비용 (경로 복사)
+        return persistent.putInt("key" + (counter++ % keys), counter);
+    }
+}
@@ -0,0 +1,68 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 저장소 전략({@link CtxStorage})별로 CtxMap의 조회/쓰기 비용을 비교하는 벤치마크.
+ * 단일 스레드 요청 컨텍스트는 UNSYNCHRONIZED, 주로 읽기만 하는 전역 컨텍스트는 READ_OPTIMIZED가 유리한지 확인합니다.
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CtxMapStorageBenchmark {
+
+    private static final CtxKey<Integer> TIMEOUT = CtxKey.of("timeoutSeconds", Integer.class);
+
+    @Param({"UNSYNCHRONIZED", "CONCURRENT", "READ_OPTIMIZED"})
+    private CtxStorage strategy;
+
+    private CtxMap ctx;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        ctx = CtxMap.create(strategy)
+                .put("applicationName", "RecordExampleApp_V2")
+                .putInt("timeoutSeconds", 30)
+                .putDouble("rateLimit", 10.5)
+                .putBoolean("debugMode", true);
+        for (int i = 0; i < 32; i++) {
+            ctx.putInt("key" + i, i);
+        }
+    }
+
+    @Benchmark
+    public String getString() {
+        return ctx.getString("applicationName");
+    }
+
+    @Benchmark
+    public int getIntKey() {
+        return ctx.get(TIMEOUT);
+    }
+
+    @Benchmark
+    public CtxMap putString() {
+        return ctx.put("requestId", "req-" + (counter++ & 7));
+    }
+
+    @Benchmark
+    public CtxMap childPutGet() {
+        // 요청마다 하위 스코프를 만들고 몇 개의 값을 쓴 뒤 읽는 패턴
+        CtxMap request = ctx.child();
+        request.put("requestId", "req-1").putInt("attempt", 1);
+        request.getString("applicationName");
+        return request;
+    }
+}
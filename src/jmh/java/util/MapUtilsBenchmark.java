@@ -0,0 +1,69 @@
+package util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapUtils.toMap/fromMap의 레코드 전용 경로를 Jackson convertValue와 비교하는 벤치마크.
+ * 두 결과는 같은 내용이어야 하며, 레코드 경로는 TokenBuffer를 거치지 않으므로 훨씬 빨라야 합니다.
+ * toCtxMap은 중간 맵을 만든 뒤 복사하는 {@code CtxMap.of(MapUtils.toMap(..))}보다 할당(B/op)이 적어야 합니다.
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapUtilsBenchmark {
+
+    public record Person(String name, int age) {
+        public String getDescription() {
+            return "이름: " + name + ", 나이: " + age;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Person person = new Person("홍길동", 30);
+
+    private final Map<String, Object> personMap = Map.of("name", "홍길동", "age", 30);
+
+    @Benchmark
+    public Map<String, Object> recordToMap() {
+        return MapUtils.toMap(person);
+    }
+
+    @Benchmark
+    public Map<String, Object> jacksonConvertValue() {
+        return MAPPER.convertValue(person, new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    @Benchmark
+    public Person mapToRecord() {
+        return MapUtils.fromMap(personMap, Person.class);
+    }
+
+    @Benchmark
+    public Person jacksonConvertValueToRecord() {
+        return MAPPER.convertValue(personMap, Person.class);
+    }
+
+    @Benchmark
+    public CtxMap recordToCtxMap() {
+        return MapUtils.toCtxMap(person);
+    }
+
+    @Benchmark
+    public CtxMap recordToMapThenCopy() {
+        return CtxMap.of(MapUtils.toMap(person));
+    }
+}
@@ -0,0 +1,62 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapUtils.toMaps/toMapStream의 병렬 변환을 원소마다 toMap을 호출하는 순차 반복과 비교하는 벤치마크.
+ * 코어 수에 비례하여 처리 시간이 줄어야 하며, 단일 코어 환경에서는 순차 반복과 같은 수준이어야 합니다.
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapUtilsBulkBenchmark {
+
+    public record Order(String orderId, String customer, int quantity, double amount, boolean paid) {
+    }
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order("ORD-" + i, "customer-" + (i % 100), i % 10, i * 1.5, (i & 1) == 0));
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sequentialLoop() {
+        List<Map<String, Object>> result = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            result.add(MapUtils.toMap(order));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> toMaps() {
+        return MapUtils.toMaps(orders);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> toMapStream() {
+        return MapUtils.toMapStream(orders.spliterator()).toList();
+    }
+}
@@ -1,17 +1,24 @@
 package com.example;
 
+import util.CtxKey;
 import util.CtxMap; // util.CtxMap 클래스 임포트
+import util.CtxMapped;
+import util.CtxScope;
 import util.MapUtils;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map; // Map 사용을 위해 추가
 import java.util.Optional; // Optional 사용을 위해 추가
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
 
 // 'Person'이라는 이름의 레코드 클래스를 정의합니다.
 // 레코드는 불변(immutable) 데이터를 위한 간결한 클래스 선언을 제공합니다.
 // 자동으로 final 필드, 접근자(accessor) 메서드, equals(), hashCode(), toString() 메서드를 생성합니다.
+// @CtxMapped: 컴파일 시점에 CtxMap/Map 변환기(Person_CtxMapper)를 생성합니다.
+@CtxMapped
 record Person(String name, int age) {
     // 레코드에 컴팩트 생성자를 추가할 수 있습니다.
     // 이는 암시적 생성자의 본문(body)에 코드를 추가하는 것과 같습니다.
@@ -40,6 +47,7 @@ record Person(String name, int age) {
 }
 
 // CtxMap에 저장된 설정 데이터를 표현하는 레코드 정의
+@CtxMapped
 record AppContext(
         String applicationName,
         String version,
@@ -51,6 +59,16 @@ record AppContext(
 }
 
 public class RecordExample {
+
+    // 매 요청마다 조회하는 키는 CtxKey로 미리 등록해 두면 해싱 없이 슬롯 캐시로 조회됩니다.
+    private static final CtxKey<String> APPLICATION_NAME = CtxKey.of("applicationName", String.class);
+    private static final CtxKey<String> VERSION = CtxKey.of("version", String.class);
+    private static final CtxKey<String> CURRENT_USER = CtxKey.of("currentUser", String.class);
+    private static final CtxKey<String> TRANSACTION_ID = CtxKey.of("transactionId", String.class);
+    private static final CtxKey<Integer> TIMEOUT_SECONDS = CtxKey.of("timeoutSeconds", Integer.class);
+    private static final CtxKey<Boolean> DEBUG_MODE = CtxKey.of("debugMode", Boolean.class);
+    private static final CtxKey<Double> RATE_LIMIT = CtxKey.of("rateLimit", Double.class);
+
     public static void main(String[] args) {
         // [리팩토링] 전역 컨텍스트(CtxMap) 생성 및 전달
         CtxMap context = new CtxMap();
@@ -59,6 +77,7 @@ public class RecordExample {
         demonstrateCtxMapFeatures(context);
         demonstrateLinkedBlockingQueue(context);
         demonstrateMapUtils(context);
+        demonstrateScopedContext(context);
     }
 
     /**
@@ -154,22 +173,20 @@ public class RecordExample {
                 .put("version", "1.0.1")
                 .put("currentUser", person.name())
                 .put("transactionId", "TXN12345")
-                .put("timeoutSeconds", 30) // int 값
-                .put("debugMode", true) // boolean 값
-                .put("rateLimit", 10.5); // double 값
+                .putInt("timeoutSeconds", 30) // int 값 (박싱 없이 저장)
+                .putBoolean("debugMode", true) // boolean 값
+                .putDouble("rateLimit", 10.5); // double 값
     }
 
     private static void demonstrateRecordConversion(CtxMap ctx) {
-        AppContext appContext = new AppContext(
-                ctx.getString("applicationName"),
-                ctx.getString("version"),
-                ctx.getString("currentUser"),
-                ctx.getString("transactionId"),
-                ctx.getInt("timeoutSeconds"),
-                ctx.getBoolean("debugMode"),
-                ctx.getDouble("rateLimit"));
+        // 컴포넌트 이름과 같은 키를 타입에 맞는 접근자로 읽어 생성 (등록된 CtxKey가 있으면 슬롯 캐시로 조회)
+        AppContext appContext = ctx.toRecord(AppContext.class);
         System.out.println("CtxMap으로 생성한 AppContext 레코드: " + appContext);
 
+        // 같은 바인더로 다른 레코드도 생성 (Person의 컴팩트 생성자 검증도 그대로 실행됨)
+        Person owner = ctx.child().put("name", appContext.currentUser()).putInt("age", 30).toRecord(Person.class);
+        System.out.println("CtxMap으로 생성한 Person 레코드: " + owner);
+
         processAppContext(appContext);
     }
 
@@ -255,8 +272,8 @@ public class RecordExample {
         System.out.println("\n--- [Private Method] 내부 로직 처리 ---");
 
         // CtxMap에서 데이터 조회
-        String user = ctx.getString("currentUser");
-        boolean debug = ctx.getBoolean("debugMode");
+        String user = ctx.get(CURRENT_USER, "");
+        boolean debug = ctx.getBoolean(DEBUG_MODE);
 
         System.out.println("  내부 로직에서 사용자 확인: " + user);
 
@@ -330,8 +347,15 @@ public class RecordExample {
         System.out.println("원본 Record: " + person);
         System.out.println("변환된 Map: " + personMap);
 
-        // 변환된 Map을 CtxMap으로 감싸서 활용 가능
-        CtxMap ctx = CtxMap.of(personMap);
+        // MapUtils.fromMap()으로 Map -> Record 복원 (컴팩트 생성자의 유효성 검사도 실행됨)
+        System.out.println("복원된 Record: " + MapUtils.fromMap(personMap, Person.class));
+
+        // MapUtils.toCtxMap()은 중간 Map 없이 CtxMap 저장소를 바로 채움 (CtxMap.of(MapUtils.toMap(person))의 이중 복사 제거)
+        CtxMap personCtx = MapUtils.toCtxMap(person);
+        System.out.println("변환된 CtxMap: " + personCtx);
+
+        // 변환된 Map을 전역 컨텍스트의 하위 스코프에 얹어서 활용 (전역 컨텍스트는 복사되지 않음)
+        CtxMap ctx = globalCtx.child().putAll(personMap);
         System.out.println("CtxMap에서 이름 조회: " + ctx.getString("name"));
 
         // [리팩토링] 변환된 CtxMap을 private 비즈니스 로직 메서드에 전달
@@ -340,4 +364,35 @@ public class RecordExample {
            .put("debugMode", true);
         handlePrivateLogic(ctx);
     }
+
+    /**
+     * CtxScope로 컨텍스트를 ScopedValue에 바인딩하고, 가상 스레드 서브태스크에서 인자 전달 없이 조회하는 예제입니다.
+     * 각 서브태스크는 전역 컨텍스트의 하위 스코프를 받으므로 서로의 쓰기가 섞이지 않습니다.
+     */
+    private static void demonstrateScopedContext(CtxMap globalCtx) {
+        System.out.println("\n--- CtxScope (ScopedValue) 활용 예제 ---");
+
+        List<Callable<String>> requests = List.of(
+                () -> handleScopedRequest("user_A"),
+                () -> handleScopedRequest("user_B"));
+        try {
+            List<String> results = CtxScope.call(globalCtx, () -> CtxScope.invokeAll(requests));
+            System.out.println("  요청 처리 결과: " + results);
+            System.out.println("  전역 컨텍스트의 사용자 (변경 없음): " + globalCtx.get(CURRENT_USER, ""));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("요청 처리 중 인터럽트 발생");
+        } catch (ExecutionException e) {
+            System.err.println("요청 처리 실패: " + e.getCause());
+        } catch (Exception e) {
+            System.err.println("요청 처리 실패: " + e);
+        }
+    }
+
+    private static String handleScopedRequest(String user) {
+        // 인자로 받지 않고 현재 바인딩된 (요청별 하위 스코프) 컨텍스트를 조회
+        CtxMap ctx = CtxScope.current();
+        ctx.put(CURRENT_USER, user);
+        return ctx.get(APPLICATION_NAME, "") + "/" + ctx.get(CURRENT_USER, "");
+    }
 }
@@ -0,0 +1,61 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CtxChangeLog: CtxMap의 키별 마지막 변경 버전을 기록하는 변경 로그.
+ * 키는 마지막으로 변경된 순서대로 연결되어 있어({@link LinkedHashMap}), 어떤 버전 이후의 변경을 찾을 때
+ * 끝에서부터 해당 버전까지만 거슬러 올라가면 되므로 비용이 맵 크기가 아니라 변경된 키 수에 비례합니다.
+ * CtxMap이 {@link CtxMap#version()} 또는 {@link CtxMap#changesSince(long)}로 처음 요청받을 때 생성되며,
+ * 그 전까지는 쓰기에 추가 비용이 없습니다.
+ */
+final class CtxChangeLog {
+
+    /** 키 -> 마지막 변경 버전. 반복 순서가 버전의 오름차순입니다. */
+    private final LinkedHashMap<String, Long> versions = new LinkedHashMap<>();
+
+    /** 마지막으로 기록된 버전. 이 값 이하의 변경은 모두 versions에 반영되어 있습니다. */
+    private volatile long clock;
+
+    long version() {
+        return clock;
+    }
+
+    /**
+     * 키의 변경을 기록하고 새 버전을 반환합니다. 버전 발급과 기록을 한 번에 수행하므로,
+     * {@link #version()}이 반환한 버전 이하의 변경은 항상 {@link #changesSince(long)}에 나타납니다.
+     */
+    synchronized long record(String key) {
+        long v = clock + 1;
+        // 다시 변경된 키는 제거 후 추가하여 끝(최신 위치)으로 옮김
+        versions.remove(key);
+        versions.put(key, v);
+        clock = v;
+        return v;
+    }
+
+    /** 키의 마지막 변경 버전. 추적 시작 이후 변경된 적이 없으면 0입니다. */
+    synchronized long versionOf(String key) {
+        Long v = versions.get(key);
+        return (v != null) ? v : 0L;
+    }
+
+    /** 지정한 버전 이후에 변경된 키를 변경 순서대로 반환합니다. */
+    synchronized Set<String> changesSince(long version) {
+        List<String> newest = new ArrayList<>();
+        for (Map.Entry<String, Long> e : versions.reversed().entrySet()) {
+            if (e.getValue() <= version) {
+                break;
+            }
+            newest.add(e.getKey());
+        }
+        Collections.reverse(newest);
+        return Collections.unmodifiableSet(new LinkedHashSet<>(newest));
+    }
+}
@@ -0,0 +1,992 @@
+package util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInput;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CtxCodec: CtxMap을 위한 간결한 버전 관리 바이너리 형식의 인코더/디코더.
+ *
+ * <p>형식: 헤더({@code 'C' 'X'} 매직, 버전 1바이트, 플래그 1바이트) 다음에 엔트리 목록이 옵니다.
+ * 엔트리 목록은 (키 참조, 값) 쌍의 나열이며 키 참조 0으로 끝납니다. 키 참조 1 뒤에는 새 키 문자열이 오고,
+ * 2 이상은 같은 스트림에서 이미 나온 키(중첩 맵의 키와 레코드 클래스 이름 포함)를 번호로 가리킵니다.
+ * 값은 1바이트 타입 태그로 시작하며, 정수는 zigzag 가변 길이로, double은 8바이트로 박싱 없이 기록합니다.
+ * List/Map/레코드/중첩 CtxMap을 지원하며, 그 밖의 Serializable 값은 Java 직렬화 바이트로 감싸서 기록합니다.
+ *
+ * <p>디코딩은 신뢰할 수 없는 입력에서 임의의 클래스를 불러오지 않습니다. 레코드 값은 {@link #registerRecord(Class)}로
+ * 등록한 클래스만 복원하며(중첩 레코드도 각각 등록), Java 직렬화 값은 {@link #setSerialFilter(ObjectInputFilter)}나
+ * JVM 전역 필터(jdk.serialFilter)가 지정된 경우에만 그 필터를 거쳐 복원합니다. 필터가 허용하지 않은 클래스는 거부됩니다.
+ * 값은 {@value #MAX_DEPTH}단계까지만 중첩할 수 있고, 길이 필드만 보고 실제 입력보다 큰 배열을 할당하지 않습니다.
+ * 인코딩은 제한하지 않으므로 다른 프로세스가 등록한 레코드도 기록할 수 있지만, {@link CtxStore}에 저장하는 값은
+ * 다시 읽을 수 있도록 쓰는 시점에 같은 규칙으로 검사합니다.
+ *
+ * <p>{@link CtxDelta}는 같은 형식으로 기록하되 헤더 매직이 {@code 'C' 'D'}이고, 갱신 엔트리 목록 뒤에
+ * 제거된 키 참조 목록(키 참조 0으로 끝남)이 이어집니다.
+ *
+ * <p>ByteBuffer 하나에 쓰고 읽는 방식과, 고정 크기 ByteBuffer를 채널에 흘려 보내는 스트리밍 방식을 제공합니다.
+ * CtxMap의 Java 직렬화(writeReplace)도 이 형식을 사용하되, 직렬화 가능한 레코드와 직렬화 값은 바깥 스트림에 기록하여
+ * 그 스트림의 필터를 따릅니다.
+ */
+public final class CtxCodec {
+
+    /** 현재 형식 버전. 디코더는 이 값 이하의 버전만 읽습니다. */
+    public static final int VERSION = 1;
+
+    private static final byte MAGIC_0 = 'C';
+    private static final byte MAGIC_1 = 'X';
+    /** 델타 메시지의 두 번째 매직 바이트 ({@code 'C' 'D'}) */
+    private static final byte DELTA_MAGIC_1 = 'D';
+
+    /** 헤더 플래그: persistent 모드 */
+    private static final int FLAG_PERSISTENT = 1;
+    /** 헤더 플래그: off-heap 모드 */
+    private static final int FLAG_OFF_HEAP = 2;
+    /** 헤더 플래그: 단일 스레드(UNSYNCHRONIZED) 저장소 */
+    private static final int FLAG_UNSYNCHRONIZED = 4;
+    /** 헤더 플래그: 읽기 최적화(READ_OPTIMIZED) 저장소 */
+    private static final int FLAG_READ_OPTIMIZED = 8;
+
+    // --- 값 타입 태그 ---
+    private static final byte END = 0;
+    private static final byte NULL = 1;
+    private static final byte FALSE = 2;
+    private static final byte TRUE = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte STRING = 7;
+    private static final byte LIST = 8;
+    private static final byte MAP = 9;
+    private static final byte RECORD = 10;
+    private static final byte CTXMAP = 11;
+    private static final byte BYTE = 12;
+    private static final byte SHORT = 13;
+    private static final byte FLOAT = 14;
+    private static final byte SERIALIZED = 15;
+    /** Java 직렬화 프록시 안에서만 쓰는 태그: 바깥 스트림에 따로 기록한 객체의 순번이 뒤따름 */
+    private static final byte EXTERNAL = 16;
+
+    /** 키 참조: 엔트리 목록의 끝 */
+    private static final int KEY_END = 0;
+    /** 키 참조: 새 키 문자열이 뒤따름 */
+    private static final int KEY_NEW = 1;
+
+    /** 스트리밍 인코딩/디코딩에 필요한 최소 버퍼 크기 (가변 길이 정수 하나 + 태그) */
+    private static final int MIN_BUFFER = 16;
+
+    /** 디코딩할 수 있는 List/Map/레코드/중첩 CtxMap의 최대 중첩 깊이 */
+    static final int MAX_DEPTH = 64;
+
+    /** 채널에서 길이가 앞선 바이트열을 읽을 때, 선언된 길이와 무관하게 처음 할당하는 최대 크기 */
+    private static final int READ_CHUNK = 64 << 10;
+
+    private static final ClassValue<RecordShape> RECORD_SHAPES = new ClassValue<>() {
+        @Override
+        protected RecordShape computeValue(Class<?> type) {
+            return new RecordShape(type);
+        }
+    };
+
+    /** 디코딩을 허용한 레코드 클래스 레지스트리 (바이너리 이름 -> 클래스) */
+    private static final ConcurrentHashMap<String, Class<?>> RECORD_TYPES = new ConcurrentHashMap<>();
+
+    /** Java 직렬화 값에 적용할 필터. null이면 JVM 전역 필터만 사용하고, 그것도 없으면 직렬화 값을 거부합니다. */
+    private static volatile ObjectInputFilter serialFilter;
+
+    private CtxCodec() {
+    }
+
+    /**
+     * 레코드 클래스의 디코딩을 허용합니다. 등록되지 않은 레코드 값은 클래스를 불러오지 않고 거부합니다.
+     * 레코드 안에 들어있는 다른 레코드 클래스도 각각 등록해야 합니다.
+     *
+     * @param type 허용할 레코드 클래스
+     * @throws IllegalArgumentException 레코드 클래스가 아니거나, 같은 이름의 다른 클래스(다른 클래스 로더)가 이미 등록된 경우
+     */
+    public static void registerRecord(Class<? extends Record> type) {
+        Objects.requireNonNull(type);
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException("레코드 클래스가 아닙니다: " + type.getName());
+        }
+        Class<?> registered = RECORD_TYPES.putIfAbsent(type.getName(), type);
+        if (registered != null && registered != type) {
+            throw new IllegalArgumentException("같은 이름의 다른 레코드 클래스가 이미 등록되어 있습니다: " + type.getName());
+        }
+    }
+
+    /**
+     * Java 직렬화로 기록된 값을 디코딩할 때 적용할 필터를 지정합니다. JVM 전역 필터가 있으면 함께 적용되며,
+     * 두 필터 모두 판단하지 않은(UNDECIDED) 클래스는 거부됩니다. 예: {@code ObjectInputFilter.Config.createFilter("java.time.*")}
+     *
+     * @param filter 허용 필터. null이면 지정을 해제합니다.
+     */
+    public static void setSerialFilter(ObjectInputFilter filter) {
+        serialFilter = filter;
+    }
+
+    /**
+     * CtxMap을 인코딩하여 읽기 준비가 된(flip된) 힙 ByteBuffer로 반환합니다.
+     *
+     * @param ctx 인코딩할 맵
+     * @return position 0부터 인코딩된 바이트를 담은 버퍼
+     * @throws IllegalArgumentException 인코딩할 수 없는 값이 들어있는 경우
+     */
+    public static ByteBuffer encode(CtxMap ctx) {
+        Encoder encoder = new Encoder(ByteBuffer.allocate(256), null, true);
+        try {
+            encoder.writeCtx(ctx);
+        } catch (IOException e) {
+            // 채널이 없으므로 발생하지 않음
+            throw new UncheckedIOException(e);
+        }
+        return encoder.buf.flip();
+    }
+
+    /**
+     * CtxMap을 주어진 버퍼의 현재 위치부터 인코딩합니다.
+     *
+     * @param ctx 인코딩할 맵
+     * @param out 기록할 버퍼
+     * @throws BufferOverflowException 버퍼의 남은 공간이 부족한 경우
+     * @throws IllegalArgumentException 인코딩할 수 없는 값이 들어있는 경우
+     */
+    public static void encode(CtxMap ctx, ByteBuffer out) {
+        try {
+            new Encoder(out, null, false).writeCtx(ctx);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * CtxMap을 채널로 스트리밍 인코딩합니다. 버퍼가 찰 때마다 채널로 내보내므로
+     * 맵 크기와 무관하게 버퍼 크기만큼의 메모리만 사용합니다.
+     *
+     * @param ctx    인코딩할 맵
+     * @param out    기록할 채널
+     * @param buffer 작업용 버퍼 (16바이트 이상)
+     * @throws IOException 채널 쓰기에 실패한 경우
+     */
+    public static void encode(CtxMap ctx, WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        requireWorkBuffer(buffer);
+        buffer.clear();
+        Encoder encoder = new Encoder(buffer, out, false);
+        encoder.writeCtx(ctx);
+        encoder.flush();
+    }
+
+    /**
+     * 버퍼의 현재 위치부터 CtxMap을 디코딩합니다. 디코딩이 끝나면 버퍼의 위치는 메시지 바로 뒤를 가리킵니다.
+     *
+     * @param in 읽을 버퍼
+     * @return 디코딩된 맵
+     * @throws IllegalArgumentException 형식이 잘못되었거나 데이터가 잘린 경우, 또는 허용되지 않은 레코드/직렬화 값이 있는 경우
+     */
+    public static CtxMap decode(ByteBuffer in) {
+        try {
+            return new Decoder(in, null).readCtx();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("CtxCodec 데이터가 잘렸습니다.", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 채널에서 CtxMap을 스트리밍 디코딩합니다. 버퍼를 채워 가며 읽으므로, 디코딩 후 버퍼에 남은 바이트
+     * (position부터 limit까지)는 채널의 다음 데이터입니다.
+     *
+     * @param in     읽을 채널
+     * @param buffer 작업용 버퍼 (16바이트 이상). 읽기 모드(flip된 상태)로 이전에 남은 바이트를 담고 있을 수 있습니다.
+     * @return 디코딩된 맵
+     * @throws IOException 채널 읽기에 실패했거나 메시지 중간에 채널이 끝난 경우
+     * @throws IllegalArgumentException 형식이 잘못되었거나 허용되지 않은 레코드/직렬화 값이 있는 경우
+     */
+    public static CtxMap decode(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        requireWorkBuffer(buffer);
+        return new Decoder(buffer, in).readCtx();
+    }
+
+    /**
+     * 델타를 인코딩하여 읽기 준비가 된(flip된) 힙 ByteBuffer로 반환합니다.
+     * 변경된 키와 값만 기록하므로 크기는 전체 맵이 아니라 변경분에 비례합니다.
+     *
+     * @param delta 인코딩할 델타
+     * @return position 0부터 인코딩된 바이트를 담은 버퍼
+     * @throws IllegalArgumentException 인코딩할 수 없는 값이 들어있는 경우
+     */
+    public static ByteBuffer encodeDelta(CtxDelta delta) {
+        Encoder encoder = new Encoder(ByteBuffer.allocate(64), null, true);
+        try {
+            encoder.writeDelta(delta);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return encoder.buf.flip();
+    }
+
+    /**
+     * 델타를 주어진 버퍼의 현재 위치부터 인코딩합니다. (로그 파일 등 미리 할당된 버퍼에 이어 쓰는 용도)
+     *
+     * @param delta 인코딩할 델타
+     * @param out   기록할 버퍼
+     * @throws BufferOverflowException 버퍼의 남은 공간이 부족한 경우
+     */
+    public static void encodeDelta(CtxDelta delta, ByteBuffer out) {
+        try {
+            new Encoder(out, null, false).writeDelta(delta);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 버퍼의 현재 위치부터 델타를 디코딩합니다. 디코딩이 끝나면 버퍼의 위치는 메시지 바로 뒤를 가리킵니다.
+     *
+     * @param in 읽을 버퍼
+     * @return 디코딩된 델타
+     * @throws IllegalArgumentException 형식이 잘못되었거나 데이터가 잘린 경우, 또는 허용되지 않은 레코드/직렬화 값이 있는 경우
+     */
+    public static CtxDelta decodeDelta(ByteBuffer in) {
+        try {
+            return new Decoder(in, null).readDelta();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("CtxCodec 데이터가 잘렸습니다.", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 값 하나를 헤더 없이 인코딩합니다. 키 중복 제거는 이 값 안에서만 적용됩니다. (CtxStore 레코드용)
+     * 저장한 값을 다시 읽을 수 있도록, 디코딩이 거부할 레코드/직렬화 값은 기록하지 않고 예외를 던집니다.
+     *
+     * @throws IllegalArgumentException 인코딩할 수 없거나 디코딩이 허용되지 않은 값인 경우
+     */
+    static byte[] encodeValue(Object value) {
+        Encoder encoder = new Encoder(ByteBuffer.allocate(32), null, true);
+        encoder.readable = true;
+        try {
+            encoder.writeValue(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer buf = encoder.buf.flip();
+        byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * {@link #encodeValue(Object)}로 인코딩된 값 하나를 버퍼의 현재 위치부터 디코딩합니다.
+     *
+     * @throws IllegalArgumentException 형식이 잘못되었거나 데이터가 잘린 경우
+     */
+    static Object decodeValue(ByteBuffer in) {
+        try {
+            Decoder decoder = new Decoder(in, null);
+            return decoder.readValue(decoder.readTag());
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("CtxCodec 데이터가 잘렸습니다.", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void requireWorkBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() < MIN_BUFFER) {
+            throw new IllegalArgumentException("작업용 버퍼는 " + MIN_BUFFER + "바이트 이상이어야 합니다.");
+        }
+    }
+
+    /**
+     * 인코더. 버퍼가 부족하면 채널로 내보내거나(스트리밍), 버퍼를 키우거나(growable), 예외를 던집니다.
+     */
+    private static final class Encoder {
+
+        private ByteBuffer buf;
+        private final WritableByteChannel channel;
+        private final boolean growable;
+        private final Map<String, Integer> keyIds = new HashMap<>();
+        /** true이면 이 JVM에서 디코딩할 수 없는 값(미등록 레코드, 필터 없는 직렬화 값)을 거부합니다. */
+        boolean readable;
+        /** null이 아니면 직렬화 가능한 레코드와 그 밖의 객체를 인코딩하지 않고 여기에 모아 순번만 기록합니다. (Proxy용) */
+        List<Object> externals;
+
+        Encoder(ByteBuffer buf, WritableByteChannel channel, boolean growable) {
+            this.buf = buf;
+            this.channel = channel;
+            this.growable = growable;
+        }
+
+        void writeCtx(CtxMap ctx) throws IOException {
+            ensure(4);
+            buf.put(MAGIC_0).put(MAGIC_1).put((byte) VERSION).put((byte) flags(ctx));
+            writeEntries(ctx);
+        }
+
+        void writeDelta(CtxDelta delta) throws IOException {
+            ensure(4);
+            buf.put(MAGIC_0).put(DELTA_MAGIC_1).put((byte) VERSION).put((byte) 0);
+            for (Map.Entry<String, Object> e : delta.upserts().entrySet()) {
+                writeKey(e.getKey());
+                writeValue(e.getValue());
+            }
+            writeVarLong(KEY_END);
+            for (String key : delta.removals()) {
+                writeKey(key);
+            }
+            writeVarLong(KEY_END);
+        }
+
+        private static int flags(CtxMap ctx) {
+            return switch (ctx.strategy()) {
+                case PERSISTENT -> FLAG_PERSISTENT;
+                case OFF_HEAP -> FLAG_OFF_HEAP;
+                case UNSYNCHRONIZED -> FLAG_UNSYNCHRONIZED;
+                case READ_OPTIMIZED -> FLAG_READ_OPTIMIZED;
+                case CONCURRENT -> 0;
+            };
+        }
+
+        private void writeEntries(CtxMap ctx) throws IOException {
+            IOException[] failure = new IOException[1];
+            ctx.forEachVisible((k, v) -> {
+                if (failure[0] == null) {
+                    try {
+                        writeKey(k);
+                        writeValue(v);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            writeVarLong(KEY_END);
+        }
+
+        private void writeKey(String key) throws IOException {
+            Integer id = keyIds.get(key);
+            if (id != null) {
+                writeVarLong(id + 2L);
+                return;
+            }
+            keyIds.put(key, keyIds.size());
+            writeVarLong(KEY_NEW);
+            writeString(key);
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value instanceof CtxSlot slot) {
+                switch (slot.kind) {
+                    case CtxSlot.INT -> writeTagged(INT, zigzag(slot.intValue()));
+                    case CtxSlot.LONG -> writeTagged(LONG, zigzag(slot.longValue()));
+                    case CtxSlot.DOUBLE -> writeDouble(DOUBLE, slot.doubleValue());
+                    case CtxSlot.BOOLEAN -> writeTag(slot.booleanValue() ? TRUE : FALSE);
+                    default -> writeValue(slot.ref);
+                }
+            } else if (value instanceof CtxParsed parsed) {
+                writeValue(parsed.text);
+            } else if (value instanceof CtxCounter counter) {
+                writeValue(counter.snapshot());
+            } else if (value instanceof CtxLazyJson lazy) {
+                writeValue(lazy.value());
+            } else if (value == null) {
+                writeTag(NULL);
+            } else if (value instanceof String s) {
+                writeTag(STRING);
+                writeString(s);
+            } else if (value instanceof Integer i) {
+                writeTagged(INT, zigzag(i));
+            } else if (value instanceof Long l) {
+                writeTagged(LONG, zigzag(l));
+            } else if (value instanceof Double d) {
+                writeDouble(DOUBLE, d);
+            } else if (value instanceof Boolean b) {
+                writeTag(b ? TRUE : FALSE);
+            } else if (value instanceof Byte b) {
+                writeTagged(BYTE, zigzag(b));
+            } else if (value instanceof Short s) {
+                writeTagged(SHORT, zigzag(s));
+            } else if (value instanceof Float f) {
+                ensure(5);
+                buf.put(FLOAT).putFloat(f);
+            } else if (value instanceof List<?> list) {
+                writeTag(LIST);
+                for (Object element : list) {
+                    writeValue(element);
+                }
+                writeTag(END);
+            } else if (value instanceof Map<?, ?> map && allStringKeys(map)) {
+                writeTag(MAP);
+                for (Map.Entry<?, ?> e : map.entrySet()) {
+                    writeKey((String) e.getKey());
+                    writeValue(e.getValue());
+                }
+                writeVarLong(KEY_END);
+            } else if (externals != null && value instanceof Serializable && !(value instanceof CtxMap)) {
+                writeTagged(EXTERNAL, externals.size());
+                externals.add(value);
+            } else if (value instanceof Record record) {
+                if (readable) {
+                    recordType(record.getClass().getName());
+                }
+                writeTag(RECORD);
+                writeKey(record.getClass().getName());
+                for (Method accessor : RECORD_SHAPES.get(record.getClass()).accessors) {
+                    writeValue(RecordShape.read(accessor, record));
+                }
+            } else if (value instanceof CtxMap nested) {
+                writeTag(CTXMAP);
+                writeEntries(nested);
+            } else {
+                if (readable) {
+                    inputFilter();
+                }
+                writeTag(SERIALIZED);
+                writeBytes(javaSerialize(value));
+            }
+        }
+
+        private static boolean allStringKeys(Map<?, ?> map) {
+            for (Object k : map.keySet()) {
+                if (!(k instanceof String)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void writeTag(byte tag) throws IOException {
+            ensure(1);
+            buf.put(tag);
+        }
+
+        private void writeTagged(byte tag, long zigzagged) throws IOException {
+            writeTag(tag);
+            writeVarLong(zigzagged);
+        }
+
+        private void writeDouble(byte tag, double value) throws IOException {
+            ensure(9);
+            buf.put(tag).putDouble(value);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buf.put((byte) value);
+        }
+
+        private void writeString(String s) throws IOException {
+            writeBytes(s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeVarLong(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int n = Math.min(buf.remaining(), bytes.length - offset);
+                buf.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) {
+                return;
+            }
+            if (channel != null) {
+                flush();
+            } else if (growable) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + bytes));
+                buf = grown.put(buf.flip());
+            } else {
+                throw new BufferOverflowException();
+            }
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            buf.clear();
+        }
+    }
+
+    /**
+     * 디코더. 채널이 있으면 버퍼가 비는 대로 채널에서 다시 채웁니다.
+     */
+    private static final class Decoder {
+
+        private final ByteBuffer buf;
+        private final ReadableByteChannel channel;
+        private final List<String> keys = new ArrayList<>();
+        /** EXTERNAL 태그가 가리키는 객체들. null이면 EXTERNAL 태그를 거부합니다. */
+        List<Object> externals;
+        /** 현재 읽고 있는 값의 중첩 깊이 */
+        private int depth;
+
+        Decoder(ByteBuffer buf, ReadableByteChannel channel) {
+            this.buf = buf;
+            this.channel = channel;
+        }
+
+        CtxMap readCtx() throws IOException {
+            CtxStorage strategy = strategy(readHeader(MAGIC_1));
+            if (strategy == CtxStorage.READ_OPTIMIZED) {
+                // copy-on-write 저장소에 엔트리마다 쓰면 O(n^2)이므로, 단일 스레드 맵에 읽은 뒤 테이블을 한 번만 구성
+                CtxMap staging = CtxMap.create(CtxStorage.UNSYNCHRONIZED);
+                readEntries(staging);
+                return staging.moveTo(strategy);
+            }
+            CtxMap ctx = CtxMap.create(strategy);
+            readEntries(ctx);
+            return ctx;
+        }
+
+        CtxDelta readDelta() throws IOException {
+            readHeader(DELTA_MAGIC_1);
+            Map<String, Object> upserts = new LinkedHashMap<>();
+            for (String k = readKey(); k != null; k = readKey()) {
+                Object value = readValue(readTag());
+                if (value == null) {
+                    throw new IllegalArgumentException("CtxDelta 엔트리의 값이 null입니다: " + k);
+                }
+                upserts.put(k, value);
+            }
+            Set<String> removals = new LinkedHashSet<>();
+            for (String k = readKey(); k != null; k = readKey()) {
+                removals.add(k);
+            }
+            return CtxDelta.of(upserts, removals);
+        }
+
+        /** 헤더를 검증하고 플래그 바이트를 반환합니다. */
+        private int readHeader(byte magic1) throws IOException {
+            require(4);
+            if (buf.get() != MAGIC_0 || buf.get() != magic1) {
+                throw new IllegalArgumentException("CtxCodec 형식이 아닙니다.");
+            }
+            int version = buf.get();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("지원하지 않는 CtxCodec 버전입니다: " + version);
+            }
+            return buf.get();
+        }
+
+        private static CtxStorage strategy(int flags) {
+            if ((flags & FLAG_PERSISTENT) != 0) {
+                return CtxStorage.PERSISTENT;
+            }
+            if ((flags & FLAG_OFF_HEAP) != 0) {
+                return CtxStorage.OFF_HEAP;
+            }
+            if ((flags & FLAG_UNSYNCHRONIZED) != 0) {
+                return CtxStorage.UNSYNCHRONIZED;
+            }
+            if ((flags & FLAG_READ_OPTIMIZED) != 0) {
+                return CtxStorage.READ_OPTIMIZED;
+            }
+            return CtxStorage.CONCURRENT;
+        }
+
+        private void readEntries(CtxMap ctx) throws IOException {
+            String key;
+            while ((key = readKey()) != null) {
+                byte tag = readTag();
+                // 원시 값은 박싱 없이 슬롯으로 저장
+                switch (tag) {
+                    case INT -> ctx.putInt(key, (int) unzigzag(readVarLong()));
+                    case LONG -> ctx.putLong(key, unzigzag(readVarLong()));
+                    case DOUBLE -> ctx.putDouble(key, readDouble());
+                    case TRUE, FALSE -> ctx.putBoolean(key, tag == TRUE);
+                    default -> {
+                        Object value = readValue(tag);
+                        if (value == null) {
+                            throw new IllegalArgumentException("CtxMap 엔트리의 값이 null입니다: " + key);
+                        }
+                        ctx.put(key, value);
+                    }
+                }
+            }
+        }
+
+        /** 키 참조를 읽습니다. 엔트리 목록의 끝이면 null을 반환합니다. */
+        private String readKey() throws IOException {
+            long ref = readVarLong();
+            if (ref == KEY_END) {
+                return null;
+            }
+            if (ref == KEY_NEW) {
+                String key = readString();
+                keys.add(key);
+                return key;
+            }
+            long id = ref - 2;
+            if (id >= keys.size()) {
+                throw new IllegalArgumentException("잘못된 키 참조입니다: " + id);
+            }
+            return keys.get((int) id);
+        }
+
+        private byte readTag() throws IOException {
+            require(1);
+            return buf.get();
+        }
+
+        private Object readValue(byte tag) throws IOException {
+            boolean container = tag == LIST || tag == MAP || tag == RECORD || tag == CTXMAP;
+            if (container && ++depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("값의 중첩 깊이가 " + MAX_DEPTH + "을(를) 넘었습니다.");
+            }
+            Object value = switch (tag) {
+                case NULL -> null;
+                case FALSE -> Boolean.FALSE;
+                case TRUE -> Boolean.TRUE;
+                case INT -> (int) unzigzag(readVarLong());
+                case LONG -> unzigzag(readVarLong());
+                case DOUBLE -> readDouble();
+                case BYTE -> (byte) unzigzag(readVarLong());
+                case SHORT -> (short) unzigzag(readVarLong());
+                case FLOAT -> {
+                    require(4);
+                    yield buf.getFloat();
+                }
+                case STRING -> readString();
+                case LIST -> {
+                    List<Object> list = new ArrayList<>();
+                    for (byte t = readTag(); t != END; t = readTag()) {
+                        list.add(readValue(t));
+                    }
+                    yield list;
+                }
+                case MAP -> {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    for (String k = readKey(); k != null; k = readKey()) {
+                        map.put(k, readValue(readTag()));
+                    }
+                    yield map;
+                }
+                case RECORD -> readRecord();
+                case CTXMAP -> {
+                    CtxMap nested = new CtxMap();
+                    readEntries(nested);
+                    yield nested;
+                }
+                case SERIALIZED -> javaDeserialize(readBytes());
+                case EXTERNAL -> external(readVarLong());
+                default -> throw new IllegalArgumentException("알 수 없는 CtxCodec 태그입니다: " + tag);
+            };
+            if (container) {
+                depth--;
+            }
+            return value;
+        }
+
+        private Object readRecord() throws IOException {
+            String className = readKey();
+            if (className == null) {
+                throw new IllegalArgumentException("레코드 클래스 이름이 없습니다.");
+            }
+            RecordShape shape = RECORD_SHAPES.get(recordType(className));
+            Object[] args = new Object[shape.accessors.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readValue(readTag());
+            }
+            return shape.construct(args);
+        }
+
+        private Object external(long index) {
+            if (externals == null || index >= externals.size()) {
+                throw new IllegalArgumentException("잘못된 외부 객체 참조입니다: " + index);
+            }
+            return externals.get((int) index);
+        }
+
+        private double readDouble() throws IOException {
+            require(8);
+            return buf.getDouble();
+        }
+
+        private long readVarLong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buf.get();
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("잘못된 가변 길이 정수입니다.");
+        }
+
+        private String readString() throws IOException {
+            return new String(readBytes(), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes() throws IOException {
+            long length = readVarLong();
+            if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("잘못된 길이입니다: " + length);
+            }
+            if (channel == null && length > buf.remaining()) {
+                throw new IllegalArgumentException("길이가 남은 데이터보다 깁니다: " + length);
+            }
+            // 채널에서는 선언된 길이를 믿지 않고, 실제로 읽은 만큼 배열을 두 배씩 키움
+            byte[] bytes = new byte[(int) Math.min(length, Math.max(buf.remaining(), READ_CHUNK))];
+            int offset = 0;
+            while (offset < length) {
+                require(1);
+                if (offset == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(length, bytes.length * 2L));
+                }
+                int n = Math.min(buf.remaining(), bytes.length - offset);
+                buf.get(bytes, offset, n);
+                offset += n;
+            }
+            return bytes;
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) {
+                return;
+            }
+            if (channel == null) {
+                throw new BufferUnderflowException();
+            }
+            buf.compact();
+            while (buf.position() < bytes) {
+                if (channel.read(buf) < 0) {
+                    buf.flip();
+                    throw new EOFException("CtxCodec 메시지 중간에 채널이 끝났습니다.");
+                }
+            }
+            buf.flip();
+        }
+    }
+
+    /**
+     * 레코드 클래스의 접근자와 정규 생성자. 클래스마다 한 번만 조회하여 ClassValue에 캐시합니다.
+     */
+    private static final class RecordShape {
+
+        final Method[] accessors;
+        private final Constructor<?> constructor;
+
+        RecordShape(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            if (components == null) {
+                throw new IllegalArgumentException("레코드 클래스가 아닙니다: " + type.getName());
+            }
+            accessors = new Method[components.length];
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                accessors[i] = components[i].getAccessor();
+                accessors[i].setAccessible(true);
+                parameterTypes[i] = components[i].getType();
+            }
+            try {
+                constructor = type.getDeclaredConstructor(parameterTypes);
+                constructor.setAccessible(true);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException("레코드 생성자에 접근할 수 없습니다: " + type.getName(), e);
+            }
+        }
+
+        static Object read(Method accessor, Record record) {
+            try {
+                return accessor.invoke(record);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("레코드 컴포넌트를 읽을 수 없습니다: " + accessor, e);
+            }
+        }
+
+        Object construct(Object[] args) {
+            try {
+                return constructor.newInstance(args);
+            } catch (ReflectiveOperationException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("레코드를 생성할 수 없습니다: " + constructor, e);
+            }
+        }
+    }
+
+    /** 등록된 레코드 클래스를 반환합니다. 클래스 로딩은 하지 않습니다. */
+    private static Class<?> recordType(String name) {
+        Class<?> type = RECORD_TYPES.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException("등록되지 않은 레코드 클래스입니다 (CtxCodec.registerRecord): " + name);
+        }
+        return type;
+    }
+
+    /**
+     * 직렬화 값에 적용할 필터. 지정한 필터와 JVM 전역 필터를 합치고, 판단하지 않은 클래스는 거부합니다.
+     *
+     * @throws IllegalArgumentException 어느 필터도 지정되지 않은 경우
+     */
+    private static ObjectInputFilter inputFilter() {
+        ObjectInputFilter filter = serialFilter;
+        ObjectInputFilter global = ObjectInputFilter.Config.getSerialFilter();
+        if (filter == null && global == null) {
+            throw new IllegalArgumentException("직렬화된 값은 허용 필터가 있어야 읽을 수 있습니다 (CtxCodec.setSerialFilter).");
+        }
+        if (filter == null) {
+            filter = global;
+        } else if (global != null) {
+            filter = ObjectInputFilter.merge(filter, global);
+        }
+        return ObjectInputFilter.rejectUndecidedClass(filter);
+    }
+
+    private static byte[] javaSerialize(Object value) {
+        if (!(value instanceof Serializable)) {
+            throw new IllegalArgumentException("직렬화할 수 없는 값입니다: " + value.getClass().getName());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (NotSerializableException e) {
+            throw new IllegalArgumentException("직렬화할 수 없는 값입니다: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] data) throws IOException {
+        ObjectInputFilter filter = inputFilter();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            in.setObjectInputFilter(filter);
+            return in.readObject();
+        } catch (InvalidClassException e) {
+            throw new IllegalArgumentException("직렬화된 값의 클래스가 허용되지 않았습니다: " + e.getMessage(), e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("직렬화된 값의 클래스를 찾을 수 없습니다: " + e.getMessage(), e);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * CtxMap의 Java 직렬화 프록시. CtxMap.writeReplace가 이 객체로 대체하여 CtxCodec 형식으로 기록하고,
+     * 역직렬화 시 readResolve로 CtxMap을 복원합니다. 클래스 설명자와 내부 저장소 구조를 기록하지 않습니다.
+     * 직렬화 가능한 레코드와 그 밖의 직렬화 값은 CtxCodec 바이트 안에 넣지 않고 바깥 ObjectOutput에 직접 기록하므로,
+     * 복원할 때 {@link #registerRecord}나 {@link #setSerialFilter} 대신 그 ObjectInputStream의 필터와 클래스 해석을 따릅니다.
+     * 직렬화할 수 없는 레코드는 CtxCodec 형식으로 기록되어 {@link #decode(ByteBuffer)}와 같이 등록이 필요합니다.
+     */
+    static final class Proxy implements Externalizable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private transient CtxMap ctx;
+
+        /** Externalizable 역직렬화용 생성자 */
+        public Proxy() {
+        }
+
+        Proxy(CtxMap ctx) {
+            this.ctx = ctx;
+        }
+
+        /** [외부 객체 수][외부 객체들(writeObject)][CtxCodec 데이터 길이][CtxCodec 데이터] */
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            Encoder encoder = new Encoder(ByteBuffer.allocate(256), null, true);
+            encoder.externals = new ArrayList<>();
+            encoder.writeCtx(ctx);
+            out.writeInt(encoder.externals.size());
+            for (Object value : encoder.externals) {
+                out.writeObject(value);
+            }
+            ByteBuffer encoded = encoder.buf.flip();
+            out.writeInt(encoded.remaining());
+            out.write(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining());
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+            int count = in.readInt();
+            if (count < 0) {
+                throw new InvalidObjectException("잘못된 외부 객체 수입니다: " + count);
+            }
+            List<Object> externals = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                externals.add(in.readObject());
+            }
+            int length = in.readInt();
+            if (length < 0) {
+                throw new InvalidObjectException("잘못된 CtxMap 데이터 길이입니다: " + length);
+            }
+            // 선언된 길이를 믿지 않고, 실제로 읽은 만큼 배열을 두 배씩 키움
+            byte[] data = new byte[Math.min(length, READ_CHUNK)];
+            for (int offset = 0; offset < length; offset = data.length) {
+                if (offset == data.length) {
+                    data = Arrays.copyOf(data, (int) Math.min(length, data.length * 2L));
+                }
+                in.readFully(data, offset, data.length - offset);
+            }
+            Decoder decoder = new Decoder(ByteBuffer.wrap(data), null);
+            decoder.externals = externals;
+            try {
+                ctx = decoder.readCtx();
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                InvalidObjectException failure = new InvalidObjectException(e.getMessage());
+                failure.initCause(e);
+                throw failure;
+            }
+        }
+
+        @Serial
+        private Object readResolve() {
+            return ctx;
+        }
+    }
+}
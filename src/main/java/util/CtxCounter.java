@@ -0,0 +1,102 @@
+package util;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CtxCounter: CtxMap의 카운터 API({@link CtxMap#increment(String)}, {@link CtxMap#add(String, long)})가
+ * 저장소에 보관하는 누적 셀. LongAdder/DoubleAdder의 스트라이프 셀에 값을 나눠 누적하므로,
+ * 여러 스레드가 같은 키를 동시에 증가시켜도 한 곳에서 CAS를 반복하거나 증가마다 박싱하지 않습니다.
+ * Number를 상속하므로 getInt/getLong/getDouble은 별도 처리 없이 현재 합계를 읽고,
+ * 외부에 노출될 때(asReadOnlyMap, 직렬화 등)는 그 시점의 합계(Long 또는 Double)로 변환됩니다.
+ */
+final class CtxCounter extends Number {
+
+    @Serial
+    private static final long serialVersionUID = 20240116L;
+
+    /** 정수 카운터의 셀. 실수 카운터이면 null입니다. */
+    private final LongAdder longs;
+
+    /** 실수 카운터의 셀. 정수 카운터이면 null입니다. */
+    private final DoubleAdder doubles;
+
+    private CtxCounter(LongAdder longs, DoubleAdder doubles) {
+        this.longs = longs;
+        this.doubles = doubles;
+    }
+
+    static CtxCounter ofLong(long initial) {
+        LongAdder adder = new LongAdder();
+        adder.add(initial);
+        return new CtxCounter(adder, null);
+    }
+
+    static CtxCounter ofDouble(double initial) {
+        DoubleAdder adder = new DoubleAdder();
+        adder.add(initial);
+        return new CtxCounter(null, adder);
+    }
+
+    /** 실수(DoubleAdder) 카운터인지 확인합니다. */
+    boolean isFloating() {
+        return doubles != null;
+    }
+
+    void add(long delta) {
+        if (longs != null) {
+            longs.add(delta);
+        } else {
+            doubles.add(delta);
+        }
+    }
+
+    /** 실수 카운터에만 호출됩니다. 정수 카운터는 CtxMap이 실수 카운터로 교체한 뒤 누적합니다. */
+    void add(double delta) {
+        doubles.add(delta);
+    }
+
+    /** 현재 합계를 박싱한 값. 정수 카운터는 Long, 실수 카운터는 Double입니다. */
+    Number snapshot() {
+        return (longs != null) ? (Number) longs.sum() : (Number) doubles.sum();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        return (longs != null) ? longs.sum() : (long) doubles.sum();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return (longs != null) ? (double) longs.sum() : doubles.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(snapshot());
+    }
+
+    @Override
+    public int hashCode() {
+        // 합계를 박싱한 값과 동일한 해시코드를 돌려주어 맵 전체의 hashCode가 저장 방식과 무관하도록 합니다.
+        return snapshot().hashCode();
+    }
+
+    /** 직렬화 시에는 카운터 대신 그 시점의 합계를 기록합니다. */
+    @Serial
+    private Object writeReplace() {
+        return snapshot();
+    }
+}
@@ -0,0 +1,94 @@
+package util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * CtxDelta: 두 CtxMap 상태 사이의 차이. 추가되거나 바뀐 키의 새 값(upserts)과 제거된 키(removals)만 담습니다.
+ * {@link CtxMap#diff(CtxMap)} 또는 {@link CtxMap#deltaSince(long)}로 만들고 {@link CtxMap#applyDelta(CtxDelta)}로 적용하며,
+ * {@link CtxCodec#encodeDelta(CtxDelta)}로 전체 스냅샷 대신 변경분만 바이너리로 주고받을 수 있습니다.
+ * 불변 객체이며, 값은 CtxMap 밖으로 노출되는 형태(박싱된 값)로 보관됩니다.
+ */
+public final class CtxDelta {
+
+    private static final CtxDelta EMPTY = new CtxDelta(Map.of(), Set.of());
+
+    private final Map<String, Object> upserts;
+    private final Set<String> removals;
+
+    private CtxDelta(Map<String, Object> upserts, Set<String> removals) {
+        this.upserts = upserts;
+        this.removals = removals;
+    }
+
+    /**
+     * 새 값과 제거할 키로 델타를 만듭니다. 같은 키가 양쪽에 있으면 IllegalArgumentException이 발생합니다.
+     *
+     * @param upserts  추가되거나 바뀐 키와 새 값 (null 값 불가)
+     * @param removals 제거된 키
+     * @return 새 델타
+     */
+    public static CtxDelta of(Map<String, ?> upserts, Set<String> removals) {
+        if (upserts.isEmpty() && removals.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        upserts.forEach((k, v) -> values.put(Objects.requireNonNull(k), Objects.requireNonNull(v, k)));
+        Set<String> removed = new LinkedHashSet<>();
+        for (String key : removals) {
+            if (values.containsKey(Objects.requireNonNull(key))) {
+                throw new IllegalArgumentException("같은 키를 갱신하고 제거할 수 없습니다: " + key);
+            }
+            removed.add(key);
+        }
+        return new CtxDelta(Collections.unmodifiableMap(values), Collections.unmodifiableSet(removed));
+    }
+
+    /** 변경이 없는 델타. */
+    public static CtxDelta empty() {
+        return EMPTY;
+    }
+
+    /** 추가되거나 바뀐 키와 새 값의 읽기 전용 맵. */
+    public Map<String, Object> upserts() {
+        return upserts;
+    }
+
+    /** 제거된 키의 읽기 전용 집합. */
+    public Set<String> removals() {
+        return removals;
+    }
+
+    /** 변경이 없는지 확인합니다. */
+    public boolean isEmpty() {
+        return upserts.isEmpty() && removals.isEmpty();
+    }
+
+    /** 변경된 키의 수 (갱신 + 제거). */
+    public int size() {
+        return upserts.size() + removals.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof CtxDelta other))
+            return false;
+        return upserts.equals(other.upserts) && removals.equals(other.removals);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(upserts, removals);
+    }
+
+    @Override
+    public String toString() {
+        return "CtxDelta{upserts=" + upserts + ", removals=" + removals + "}";
+    }
+}
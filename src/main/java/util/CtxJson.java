@@ -0,0 +1,224 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * CtxJson: CtxMap과 JSON 사이의 스트리밍 변환기. Jackson의 {@link JsonGenerator}로 저장소를 한 번만 순회하며
+ * 바로 기록하므로, asReadOnlyMap 스냅샷이나 ObjectMapper용 중간 맵을 만들지 않습니다.
+ * 생성기의 내부 버퍼는 Jackson의 BufferRecycler(스레드별 재사용 풀)에서 빌려 쓰므로 호출마다 새로 할당되지 않습니다.
+ *
+ * <p>원시 슬롯은 박싱 없이 숫자로 기록하고, 중첩 List/Map/CtxMap과 레코드도 같은 순회 안에서 기록합니다.
+ * 레코드는 {@link MapUtils#toMap(Object)}와 같은 프로퍼티(컴포넌트와 getX/isX)를 같은 순서로 기록합니다.
+ * 그 밖의 값(열거형, 날짜 등)만 ObjectMapper의 직렬화기에 맡깁니다.
+ *
+ * <p>읽기는 {@link JsonParser}로 최상위 객체의 필드를 하나씩 읽어 CtxMap에 바로 저장합니다. 숫자와 불리언은 원시 슬롯으로
+ * 저장하고, 중첩 객체/배열은 토큰을 건너뛰며 위치만 기록한 {@link CtxLazyJson}으로 저장하여 처음 읽힐 때 디코딩합니다.
+ */
+final class CtxJson {
+
+    /** 호출자의 스트림은 닫지 않도록 AUTO_CLOSE_TARGET을 끈 팩토리. ObjectMapper가 코덱으로 연결됩니다. */
+    private static final ObjectMapper MAPPER = new ObjectMapper(
+            JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build());
+
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private CtxJson() {
+    }
+
+    /** UTF-8로 기록합니다. 스트림은 flush만 하고 닫지 않습니다. */
+    static void write(CtxMap ctx, OutputStream out) throws IOException {
+        try (JsonGenerator gen = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            writeCtx(gen, ctx);
+        }
+    }
+
+    /** Writer에 기록합니다. Writer는 flush만 하고 닫지 않습니다. */
+    static void write(CtxMap ctx, Writer out) throws IOException {
+        try (JsonGenerator gen = FACTORY.createGenerator(out)) {
+            writeCtx(gen, ctx);
+        }
+    }
+
+    /** 버퍼의 현재 위치부터 UTF-8로 기록합니다. 버퍼가 부족하면 BufferOverflowException이 발생합니다. */
+    static void write(CtxMap ctx, ByteBuffer out) {
+        try {
+            write(ctx, new ByteBufferBackedOutputStream(out));
+        } catch (IOException e) {
+            // 버퍼에 쓰므로 발생하지 않음
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * UTF-8 JSON 객체를 읽어 새 CtxMap을 만듭니다. null 값인 필드는 저장하지 않으며, 같은 키가 여러 번 나오면 마지막 값이 남습니다.
+     *
+     * @throws IllegalArgumentException 최상위 값이 객체가 아니거나 JSON 형식이 잘못된 경우
+     */
+    static CtxMap parse(byte[] json, int offset, int length) {
+        CtxMap ctx = new CtxMap();
+        try (JsonParser parser = FACTORY.createParser(json, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("JSON 객체가 아닙니다.");
+            }
+            String name;
+            while ((name = parser.nextFieldName()) != null) {
+                switch (parser.nextToken()) {
+                    case START_OBJECT, START_ARRAY -> {
+                        // 파서의 바이트 위치는 offset 기준의 상대 위치
+                        int start = (int) parser.currentTokenLocation().getByteOffset();
+                        parser.skipChildren();
+                        int end = (int) parser.currentLocation().getByteOffset();
+                        ctx.putLazy(name, new CtxLazyJson(json, offset + start, end - start));
+                    }
+                    case VALUE_STRING -> ctx.put(name, parser.getText());
+                    case VALUE_NUMBER_INT -> {
+                        switch (parser.getNumberType()) {
+                            case INT -> ctx.putInt(name, parser.getIntValue());
+                            case LONG -> ctx.putLong(name, parser.getLongValue());
+                            default -> ctx.put(name, parser.getBigIntegerValue());
+                        }
+                    }
+                    case VALUE_NUMBER_FLOAT -> ctx.putDouble(name, parser.getDoubleValue());
+                    case VALUE_TRUE -> ctx.putBoolean(name, true);
+                    case VALUE_FALSE -> ctx.putBoolean(name, false);
+                    default -> ctx.remove(name);
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("JSON 객체 뒤에 다른 내용이 있습니다.");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON 형식이 잘못되었습니다: " + e.getMessage(), e);
+        }
+        return ctx;
+    }
+
+    /** 중첩 객체/배열 조각을 디코딩합니다. (CtxLazyJson이 처음 읽힐 때 호출) */
+    static Object decode(byte[] json, int offset, int length) {
+        try {
+            return MAPPER.readValue(json, offset, length, Object.class);
+        } catch (IOException e) {
+            // 파싱 시 이미 건너뛰며 검사한 조각이므로 발생하지 않음
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCtx(JsonGenerator gen, CtxMap ctx) throws IOException {
+        IOException[] failure = new IOException[1];
+        gen.writeStartObject();
+        ctx.forEachVisible((k, v) -> {
+            if (failure[0] == null) {
+                try {
+                    gen.writeFieldName(k);
+                    writeValue(gen, v);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value instanceof CtxSlot slot) {
+            switch (slot.kind) {
+                case CtxSlot.INT -> gen.writeNumber(slot.intValue());
+                case CtxSlot.LONG -> gen.writeNumber(slot.longValue());
+                case CtxSlot.DOUBLE -> gen.writeNumber(slot.doubleValue());
+                case CtxSlot.BOOLEAN -> gen.writeBoolean(slot.booleanValue());
+                default -> writeValue(gen, slot.ref);
+            }
+        } else if (value instanceof CtxParsed parsed) {
+            gen.writeString(parsed.text);
+        } else if (value instanceof CtxCounter counter) {
+            writeValue(gen, counter.snapshot());
+        } else if (value instanceof CtxLazyJson lazy) {
+            // 아직 읽히지 않은 조각은 디코딩 없이 원본 그대로 기록
+            Object decoded = lazy.decodedOrNull();
+            if (decoded != null) {
+                writeValue(gen, decoded);
+            } else {
+                gen.writeRawValue(lazy.text());
+            }
+        } else if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String s) {
+            gen.writeString(s);
+        } else if (value instanceof Integer i) {
+            gen.writeNumber(i);
+        } else if (value instanceof Long l) {
+            gen.writeNumber(l);
+        } else if (value instanceof Double d) {
+            gen.writeNumber(d);
+        } else if (value instanceof Boolean b) {
+            gen.writeBoolean(b);
+        } else if (value instanceof Float f) {
+            gen.writeNumber(f);
+        } else if (value instanceof Short s) {
+            gen.writeNumber(s);
+        } else if (value instanceof Byte b) {
+            // Jackson은 byte를 int 숫자로 기록함
+            gen.writeNumber(b.intValue());
+        } else if (value instanceof Character c) {
+            gen.writeString(c.toString());
+        } else if (value instanceof BigDecimal d) {
+            gen.writeNumber(d);
+        } else if (value instanceof BigInteger i) {
+            gen.writeNumber(i);
+        } else if (value instanceof Collection<?> collection) {
+            gen.writeStartArray();
+            for (Object element : collection) {
+                writeValue(gen, element);
+            }
+            gen.writeEndArray();
+        } else if (value instanceof Map<?, ?> map && allStringKeys(map)) {
+            gen.writeStartObject();
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                gen.writeFieldName((String) e.getKey());
+                writeValue(gen, e.getValue());
+            }
+            gen.writeEndObject();
+        } else if (value instanceof CtxMap nested) {
+            writeCtx(gen, nested);
+        } else if (value instanceof Record record
+                && MapUtils.recordMapper(record.getClass()) instanceof MapUtils.RecordMapper mapper) {
+            gen.writeStartObject();
+            for (int i = 0; i < mapper.size(); i++) {
+                gen.writeFieldName(mapper.name(i));
+                writeValue(gen, mapper.value(i, record));
+            }
+            gen.writeEndObject();
+        } else {
+            gen.writeObject(value);
+        }
+    }
+
+    private static boolean allStringKeys(Map<?, ?> map) {
+        for (Object k : map.keySet()) {
+            if (!(k instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
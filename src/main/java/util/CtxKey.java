@@ -0,0 +1,92 @@
+package util;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CtxKey: CtxMap의 키를 미리 등록해 두는 타입-안전 키 핸들.
+ * 등록 시 전역적으로 고유한 슬롯 인덱스가 부여되며, CtxMap은 이 인덱스로 값 슬롯을 배열에 캐시합니다.
+ * 따라서 {@code ctx.get(TIMEOUT)} 호출은 문자열 해싱이나 타입 검사 없이 배열 조회만으로 처리됩니다.
+ *
+ * <pre>
+ * static final CtxKey&lt;Integer&gt; TIMEOUT = CtxKey.of("timeoutSeconds", Integer.class);
+ * int timeout = ctx.getInt(TIMEOUT, 30);
+ * </pre>
+ *
+ * @param <T> 키에 저장되는 값의 타입
+ */
+public final class CtxKey<T> {
+
+    /** 이름 -> 키 핸들 레지스트리. 같은 이름은 항상 같은 핸들(같은 인덱스)로 해석됩니다. */
+    private static final ConcurrentHashMap<String, CtxKey<?>> REGISTRY = new ConcurrentHashMap<>();
+
+    /** 다음에 부여할 슬롯 인덱스 */
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    private final String name;
+    private final Class<T> type;
+    private final int index;
+
+    private CtxKey(String name, Class<T> type, int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * 키를 등록하고 핸들을 반환합니다. 이미 같은 이름과 타입으로 등록된 키가 있으면 기존 핸들을 반환합니다.
+     *
+     * @param name 키 이름
+     * @param type 값의 타입 (원시 타입 대신 래퍼 타입을 사용)
+     * @param <T>  값의 타입 파라미터
+     * @return 등록된 키 핸들
+     * @throws IllegalArgumentException 원시 타입이 주어졌거나, 같은 이름이 다른 타입으로 이미 등록된 경우
+     */
+    public static <T> CtxKey<T> of(String name, Class<T> type) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(type);
+        if (type.isPrimitive()) {
+            throw new IllegalArgumentException("Primitive key type not supported, use wrapper type: " + type);
+        }
+        CtxKey<?> key = REGISTRY.computeIfAbsent(name, n -> new CtxKey<>(n, type, NEXT_INDEX.getAndIncrement()));
+        if (key.type != type) {
+            throw new IllegalArgumentException(
+                    "Key '" + name + "' already registered with type " + key.type.getName());
+        }
+        @SuppressWarnings("unchecked")
+        CtxKey<T> typed = (CtxKey<T>) key;
+        return typed;
+    }
+
+    /**
+     * 이름으로 등록된 키 핸들을 찾습니다. 등록되지 않은 이름이면 null을 반환합니다.
+     */
+    static CtxKey<?> lookup(String name) {
+        return REGISTRY.get(name);
+    }
+
+    /**
+     * 지금까지 등록된 키의 수. CtxMap이 슬롯 캐시 배열의 크기를 정할 때 사용합니다.
+     */
+    static int count() {
+        return NEXT_INDEX.get();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    int index() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "CtxKey[" + name + ": " + type.getSimpleName() + "]";
+    }
+}
@@ -0,0 +1,67 @@
+package util;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CtxLazyJson: {@link CtxMap#parseJson(byte[])}가 중첩 객체/배열 값을 디코딩하지 않고 보관하는 원본 JSON 조각.
+ * 파싱 시에는 토큰을 건너뛰며 위치만 기록하고, getMap/getList/getObject 등으로 처음 읽힐 때 한 번 디코딩하여
+ * 결과(Map은 LinkedHashMap, 배열은 ArrayList)를 캐시합니다. 읽히지 않은 값은 끝까지 디코딩되지 않으며,
+ * writeJson은 디코딩 없이 원본 조각을 그대로 기록합니다.
+ * 조각은 원본 입력 배열을 공유하므로, 디코딩되지 않은 조각이 남아 있는 동안 입력 배열도 유지됩니다.
+ */
+final class CtxLazyJson implements Serializable {
+
+    private static final long serialVersionUID = 20240118L;
+
+    private final byte[] source;
+    private final int offset;
+    private final int length;
+
+    /** 디코딩 결과. 경쟁 상태에서 두 번 디코딩되어도 같은 내용이므로 동기화 없이 캐시합니다. */
+    private transient volatile Object decoded;
+
+    CtxLazyJson(byte[] source, int offset, int length) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /** 디코딩된 값을 반환합니다. 처음 호출될 때만 디코딩합니다. */
+    Object value() {
+        Object value = decoded;
+        if (value == null) {
+            value = CtxJson.decode(source, offset, length);
+            decoded = value;
+        }
+        return value;
+    }
+
+    /** 이미 디코딩된 값. 아직 읽히지 않았으면 null. */
+    Object decodedOrNull() {
+        return decoded;
+    }
+
+    /** 원본 JSON 조각 (UTF-8) */
+    String text() {
+        return new String(source, offset, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value());
+    }
+
+    @Override
+    public int hashCode() {
+        // 디코딩된 값과 같은 해시코드를 돌려주어 맵 전체의 hashCode가 디코딩 여부와 무관하도록 합니다.
+        return value().hashCode();
+    }
+
+    /** 직렬화 시에는 원본 입력 배열 대신 디코딩된 값을 기록합니다. */
+    @Serial
+    private Object writeReplace() {
+        return value();
+    }
+}
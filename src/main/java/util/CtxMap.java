@@ -1,19 +1,33 @@
 package util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serial;
 import java.io.Serializable;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * CtxMap: Map<String,Object>를 래핑하여 타입-안전 접근자를 제공하는 스레드-안전 유틸리티 클래스.
- * 실무 활용을 위해 내부적으로 ConcurrentHashMap을 사용하며, 데이터 조회 로직의 안정성을 높였습니다.
+ * 실무 활용을 위해 내부적으로 ConcurrentHashMap(작은 컨텍스트는 평탄한 배열)을 사용하며, 데이터 조회 로직의 안정성을 높였습니다.
  *
  * @author Gemini
  * @since 2024-01-14
@@ -23,12 +37,50 @@ public class CtxMap implements Serializable {
     // 직렬화 호환성을 위한 버전 UID
     private static final long serialVersionUID = 20240114L;
 
-    /** 내부 저장소. 동시성 보장을 위해 ConcurrentHashMap 사용. */
+    /** CtxKey 슬롯 캐시 배열의 원소를 acquire/release 의미로 읽고 쓰기 위한 핸들 */
+    private static final VarHandle KEYED_SLOT = MethodHandles.arrayElementVarHandle(CtxSlot[].class);
+
+    /** 내부 저장소. 기본은 SmallStorage(커지면 ConcurrentHashMap)이며, 생성 시 선택한 저장소 전략({@link CtxStorage})에 따라 달라집니다. */
     private final Map<String, Object> storage;
 
-    /** 기본 생성자 (빈 ConcurrentHashMap) */
+    /**
+     * 저장소 전략. PERSISTENT 모드에서는 스냅샷이 저장소의 슬롯을 공유하므로
+     * 슬롯을 제자리에서 갱신하지 않고 항상 새 슬롯으로 교체합니다.
+     */
+    private final CtxStorage strategy;
+
+    /**
+     * 저장소가 조회마다 값을 새로 복원하는지 여부 ({@link DecodingStorage}).
+     * true이면 읽기 경로에서 슬롯 승격과 파싱 메모이제이션을 하지 않아, 조회가 저장소에 쓰지 않습니다.
+     */
+    private final boolean decoding;
+
+    /**
+     * 상위 스코프. {@link #child()}로 만든 오버레이에서만 존재하며, 로컬 저장소에 없는 키는 부모에서 조회합니다.
+     */
+    private final CtxMap parent;
+
+    /**
+     * CtxKey 인덱스 -> 값 슬롯 캐시. 저장소에 들어있는 슬롯을 그대로 가리키며,
+     * 슬롯이 제거되거나 교체되면 retired 표시로 무효화됩니다. 필요할 때 지연 생성됩니다.
+     */
+    private transient volatile CtxSlot[] keyed;
+
+    /**
+     * 숫자로 조회된 적이 있는 문자열 키의 해시 비트맵 (키 해시 하위 6비트 -> 비트 위치).
+     * 두 번째 조회부터 파싱 결과를 CtxParsed로 메모이제이션하여, 한 번만 읽히는 키에는 추가 메모리를 쓰지 않습니다.
+     */
+    private transient volatile long parsedOnce;
+
+    /**
+     * 키별 변경 버전 기록. {@link #version()} 또는 {@link #changesSince(long)}가 처음 호출될 때 생성되며,
+     * 그 전까지는 쓰기마다 null 확인만 하고 추가 비용이 없습니다.
+     */
+    private transient volatile CtxChangeLog changes;
+
+    /** 기본 생성자 (빈 저장소. 작은 동안은 평탄한 배열, 커지면 ConcurrentHashMap) */
     public CtxMap() {
-        this.storage = new ConcurrentHashMap<>();
+        this(new SmallStorage(), CtxStorage.CONCURRENT, null);
     }
 
     /**
@@ -38,7 +90,37 @@ public class CtxMap implements Serializable {
      * @param initial 초기화에 사용할 맵. null이 아니면 모든 요소가 복사됩니다.
      */
     public CtxMap(Map<String, Object> initial) {
-        this.storage = (initial != null) ? new ConcurrentHashMap<>(initial) : new ConcurrentHashMap<>();
+        this(CtxStorage.CONCURRENT.create((initial != null) ? initial : Map.of()), CtxStorage.CONCURRENT, null);
+    }
+
+    private CtxMap(Map<String, Object> storage, CtxStorage strategy, CtxMap parent) {
+        this.storage = storage;
+        this.strategy = strategy;
+        this.parent = parent;
+        this.decoding = storage instanceof DecodingStorage;
+    }
+
+    /**
+     * 지정한 저장소 전략을 사용하는 비어있는 CtxMap을 생성합니다.
+     * 한 스레드에서만 쓰는 요청 컨텍스트는 {@link CtxStorage#UNSYNCHRONIZED}로 동시성 비용을 없앨 수 있습니다.
+     *
+     * @param strategy 저장소 전략
+     * @return 새로운 CtxMap 인스턴스
+     */
+    public static CtxMap create(CtxStorage strategy) {
+        return of(null, strategy);
+    }
+
+    /**
+     * 지정한 저장소 전략을 사용하는 CtxMap을 생성하고 초기 데이터를 복사합니다.
+     *
+     * @param initial  초기화에 사용할 맵. null이면 빈 맵으로 시작합니다.
+     * @param strategy 저장소 전략
+     * @return 새로운 CtxMap 인스턴스
+     */
+    public static CtxMap of(Map<String, Object> initial, CtxStorage strategy) {
+        Objects.requireNonNull(strategy);
+        return new CtxMap(strategy.create((initial != null) ? initial : Map.of()), strategy, null);
     }
 
     /**
@@ -51,6 +133,38 @@ public class CtxMap implements Serializable {
         return new CtxMap(initial);
     }
 
+    /**
+     * 새로 만든 맵의 소유권을 넘겨받아 지정한 전략의 CtxMap을 생성합니다. 맵이 전략의 저장소로 쓰일 수 있으면
+     * ({@link CtxStorage#UNSYNCHRONIZED}는 수정 가능한 모든 맵, {@link CtxStorage#CONCURRENT}는 ConcurrentMap)
+     * 복사 없이 그대로 저장소로 사용하고, 그 밖에는 {@link #of(Map, CtxStorage)}와 같이 한 번 복사합니다.
+     * 복사하지 않은 경우 호출자는 이후 맵을 직접 읽거나 수정하면 안 됩니다.
+     * (변환 직후 버려지는 맵을 CtxMap으로 바꿀 때 사용합니다.)
+     *
+     * @param owned    새 맵. 이 메소드는 맵을 수정하지 않습니다.
+     * @param strategy 저장소 전략
+     * @return 새로운 CtxMap 인스턴스
+     * @throws NullPointerException 맵에 null 키나 값이 있는 경우
+     */
+    public static CtxMap adopt(Map<String, Object> owned, CtxStorage strategy) {
+        Objects.requireNonNull(strategy);
+        boolean usable = switch (strategy) {
+            case UNSYNCHRONIZED -> true;
+            case CONCURRENT -> owned instanceof ConcurrentMap;
+            default -> false;
+        };
+        if (!usable) {
+            return of(owned, strategy);
+        }
+        // CtxMap은 null 키/값을 담지 않으므로 넘겨받기 전에 확인 (ConcurrentMap은 null을 담을 수 없음)
+        if (!(owned instanceof ConcurrentMap)) {
+            owned.forEach((k, v) -> {
+                Objects.requireNonNull(k);
+                Objects.requireNonNull(v, k);
+            });
+        }
+        return new CtxMap(owned, strategy, null);
+    }
+
     /**
      * 비어있는 새로운 CtxMap 인스턴스를 반환합니다.
      * 
@@ -60,6 +174,92 @@ public class CtxMap implements Serializable {
         return new CtxMap();
     }
 
+    /**
+     * 불변 해시 트라이(HAMT)를 저장소로 사용하는 persistent 모드의 CtxMap을 생성합니다.
+     * 이 모드에서 {@link #asReadOnlyMap()}은 맵 크기와 무관하게 O(1) 시간/메모리로 스냅샷을 반환하며,
+     * 대신 쓰기마다 변경 경로의 노드를 복사하는 작은 비용이 듭니다.
+     * 키가 많고 스냅샷을 자주 만드는 컨텍스트에 적합합니다.
+     *
+     * @param initial 초기화에 사용할 맵. null이면 빈 맵으로 시작합니다.
+     * @return persistent 모드의 CtxMap 인스턴스
+     */
+    public static CtxMap persistent(Map<String, Object> initial) {
+        return of(initial, CtxStorage.PERSISTENT);
+    }
+
+    /**
+     * 비어있는 persistent 모드의 CtxMap을 생성합니다.
+     *
+     * @see #persistent(Map)
+     */
+    public static CtxMap persistent() {
+        return persistent(null);
+    }
+
+    /**
+     * 키와 값을 Java 힙 밖(FFM MemorySegment)에 보관하는 off-heap 모드의 CtxMap을 생성합니다.
+     * 원시 값과 짧은 문자열은 해시 테이블 슬롯에, 키와 긴 문자열은 off-heap 데이터 영역에 저장하므로
+     * 엔트리가 수천만 개여도 힙 사용량과 GC 부담이 늘지 않습니다. 접근자의 동작은 기본 모드와 같지만,
+     * 조회할 때마다 값을 복원하므로 기본 모드보다 느리고 문자열 파싱 결과도 메모이제이션하지 않습니다.
+     * List/Map 등 그 밖의 객체 값은 힙에 그대로 보관됩니다.
+     *
+     * @param expectedSize 예상 엔트리 수. 이만큼은 테이블 재구성 없이 저장됩니다.
+     * @return off-heap 모드의 CtxMap 인스턴스
+     */
+    public static CtxMap offHeap(int expectedSize) {
+        return new CtxMap(new OffHeapStorage(expectedSize), CtxStorage.OFF_HEAP, null);
+    }
+
+    /**
+     * 비어있는 off-heap 모드의 CtxMap을 생성합니다.
+     *
+     * @see #offHeap(int)
+     */
+    public static CtxMap offHeap() {
+        return offHeap(0);
+    }
+
+    /**
+     * 주어진 저장소를 그대로 사용하는 CtxMap을 생성합니다. (CtxStore 등 내부 저장소 구현용)
+     */
+    static CtxMap wrap(Map<String, Object> storage) {
+        return new CtxMap(storage, CtxStorage.CONCURRENT, null);
+    }
+
+    /**
+     * 이 맵의 저장소 내용(원시 슬롯 포함)을 지정한 전략의 새 저장소로 한 번에 옮긴 CtxMap을 반환합니다.
+     * 이 맵은 이후 사용하지 않아야 합니다. (디코더가 단일 스레드 맵에 읽은 뒤 READ_OPTIMIZED로 구성하는 용도)
+     */
+    CtxMap moveTo(CtxStorage strategy) {
+        return new CtxMap(strategy.create(storage), strategy, null);
+    }
+
+    /**
+     * 현재 맵을 부모로 하는 하위 스코프(오버레이)를 생성합니다.
+     * 조회는 하위 스코프에 없으면 부모로 이어지고, 쓰기는 하위 스코프에만 기록되며,
+     * 부모에서 물려받은 키를 제거하면 툼스톤으로 가려집니다. 부모의 내용을 복사하지 않으므로
+     * 부모 크기와 무관하게 O(1)로 생성되며, 부모의 이후 변경도 가려지지 않은 키에는 그대로 보입니다.
+     * 전역 컨텍스트 위에 요청별 컨텍스트를 얹는 용도에 적합합니다.
+     * 하위 스코프의 로컬 저장소는 부모가 UNSYNCHRONIZED이면 UNSYNCHRONIZED, 그 밖에는 CONCURRENT입니다.
+     *
+     * @return 현재 맵을 부모로 하는 새 CtxMap
+     */
+    public CtxMap child() {
+        return child((strategy == CtxStorage.UNSYNCHRONIZED) ? CtxStorage.UNSYNCHRONIZED : CtxStorage.CONCURRENT);
+    }
+
+    /**
+     * 로컬 저장소 전략을 지정하여 하위 스코프를 생성합니다. 예를 들어 여러 스레드가 공유하는 전역 컨텍스트 위에
+     * 한 스레드에서만 쓰는 요청 컨텍스트를 얹을 때 {@link CtxStorage#UNSYNCHRONIZED}를 지정합니다.
+     *
+     * @param strategy 하위 스코프의 로컬 저장소 전략
+     * @return 현재 맵을 부모로 하는 새 CtxMap
+     * @see #child()
+     */
+    public CtxMap child(CtxStorage strategy) {
+        return new CtxMap(strategy.create(Map.of()), strategy, this);
+    }
+
     /**
      * 키-값 쌍을 저장합니다.
      * 
@@ -68,7 +268,99 @@ public class CtxMap implements Serializable {
      * @return 메소드 체이닝을 위한 현재 인스턴스
      */
     public CtxMap put(String key, Object value) {
-        storage.put(key, value);
+        Objects.requireNonNull(value);
+        CtxKey<?> handle = CtxKey.lookup(key);
+        if (handle == null || !handle.type().isInstance(value)) {
+            retire(storage.put(key, value));
+        } else if (mutableSlot(key, CtxSlot.REF) instanceof CtxSlot slot) {
+            // 등록된 키: 기존 REF 슬롯을 재사용하여 CtxKey 캐시가 계속 유효하도록 함
+            slot.ref = value;
+        } else {
+            retire(storage.put(key, CtxSlot.ofRef(value)));
+        }
+        touched(key);
+        return this;
+    }
+
+    /**
+     * 등록된 키로 값을 저장합니다.
+     *
+     * @param key   등록된 키 핸들
+     * @param value 저장할 값
+     * @param <T>   값의 타입
+     * @return 메소드 체이닝을 위한 현재 인스턴스
+     */
+    public <T> CtxMap put(CtxKey<T> key, T value) {
+        // 캐시에는 이 맵의 저장소에 실제로 들어있는 슬롯만 있으므로, 캐시된 REF 슬롯은 제자리에서 갱신해도 안전함
+        CtxSlot slot = (strategy == CtxStorage.PERSISTENT) ? null : cachedSlot(key);
+        if (slot != null && slot.kind == CtxSlot.REF && value != null) {
+            slot.ref = value;
+            touched(key.name());
+            return this;
+        }
+        return put(key.name(), value);
+    }
+
+    /**
+     * int 값을 박싱 없이 저장합니다.
+     * 같은 키에 이미 int 슬롯이 있으면 새 객체를 만들지 않고 슬롯의 값만 갱신합니다.
+     *
+     * @param key   저장할 키
+     * @param value 저장할 값
+     * @return 메소드 체이닝을 위한 현재 인스턴스
+     */
+    public CtxMap putInt(String key, int value) {
+        if (mutableSlot(key, CtxSlot.INT) instanceof CtxSlot slot) {
+            slot.bits = value;
+        } else {
+            retire(storage.put(key, CtxSlot.ofInt(value)));
+        }
+        touched(key);
+        return this;
+    }
+
+    /**
+     * long 값을 박싱 없이 저장합니다.
+     *
+     * @see #putInt(String, int)
+     */
+    public CtxMap putLong(String key, long value) {
+        if (mutableSlot(key, CtxSlot.LONG) instanceof CtxSlot slot) {
+            slot.bits = value;
+        } else {
+            retire(storage.put(key, CtxSlot.ofLong(value)));
+        }
+        touched(key);
+        return this;
+    }
+
+    /**
+     * double 값을 박싱 없이 저장합니다.
+     *
+     * @see #putInt(String, int)
+     */
+    public CtxMap putDouble(String key, double value) {
+        if (mutableSlot(key, CtxSlot.DOUBLE) instanceof CtxSlot slot) {
+            slot.bits = Double.doubleToRawLongBits(value);
+        } else {
+            retire(storage.put(key, CtxSlot.ofDouble(value)));
+        }
+        touched(key);
+        return this;
+    }
+
+    /**
+     * boolean 값을 박싱 없이 저장합니다.
+     *
+     * @see #putInt(String, int)
+     */
+    public CtxMap putBoolean(String key, boolean value) {
+        if (mutableSlot(key, CtxSlot.BOOLEAN) instanceof CtxSlot slot) {
+            slot.bits = value ? 1L : 0L;
+        } else {
+            retire(storage.put(key, CtxSlot.ofBoolean(value)));
+        }
+        touched(key);
         return this;
     }
 
@@ -79,12 +371,89 @@ public class CtxMap implements Serializable {
      * @return 메소드 체이닝을 위한 현재 인스턴스
      */
     public CtxMap putAll(Map<String, ?> other) {
-        if (other != null) {
-            storage.putAll(other);
+        if (other == null) {
+            return this;
         }
+        if (other.size() > 1 && storage instanceof ReadOptimizedStorage table) {
+            // copy-on-write 저장소는 엔트리마다 테이블을 복사하지 않도록 한 번에 재구성 (O(n + m))
+            Map<String, Object> values = new HashMap<>(Math.max(16, (int) (other.size() / 0.75f) + 1));
+            other.forEach((k, v) -> {
+                CtxKey<?> handle = CtxKey.lookup(k);
+                // put과 같이 등록된 키의 값은 REF 슬롯으로 저장
+                boolean keyed = handle != null && handle.type().isInstance(Objects.requireNonNull(v));
+                values.put(k, keyed ? CtxSlot.ofRef(v) : v);
+            });
+            table.putAll(values, CtxMap::retire);
+            values.keySet().forEach(this::touched);
+            return this;
+        }
+        other.forEach(this::put);
         return this;
     }
 
+    // --- 카운터 ---
+
+    /**
+     * 키의 카운터를 1 증가시킵니다.
+     *
+     * @see #add(String, long)
+     */
+    public CtxMap increment(String key) {
+        return add(key, 1L);
+    }
+
+    /**
+     * 키의 카운터에 값을 더합니다. 처음 호출되면 현재 값(getLong 기준, 없으면 0)에서 시작하는 카운터로 교체되고,
+     * 이후의 누적은 LongAdder의 스트라이프 셀에 나눠 기록되므로 여러 스레드가 같은 키를 동시에 갱신해도
+     * 박싱이나 CAS 재시도가 일어나지 않습니다. 합계는 {@link #sum(String)} 또는 getInt/getLong/getDouble로 읽습니다.
+     * <p>
+     * 하위 스코프와 persistent 모드, 파일 저장소({@link CtxStore})에서는 카운터 셀을 공유할 수 없으므로
+     * {@code merge(key, delta, Long::sum)}과 같이 새 값으로 교체합니다.
+     *
+     * @param key   카운터 키
+     * @param delta 더할 값
+     * @return 메소드 체이닝을 위한 현재 인스턴스
+     */
+    public CtxMap add(String key, long delta) {
+        CtxCounter counter = counter(key, false);
+        if (counter != null) {
+            counter.add(delta);
+            touched(key);
+        } else {
+            merge(key, delta, (old, d) -> (old instanceof Double x) ? x + (Long) d : (Object) (longOf(old) + (Long) d));
+        }
+        return this;
+    }
+
+    /**
+     * 키의 카운터에 실수 값을 더합니다. DoubleAdder 기반 카운터를 사용하며,
+     * 정수 카운터였으면 그 시점의 합계에서 시작하는 실수 카운터로 교체됩니다.
+     * 교체 중에 다른 스레드가 더한 정수 값은 유실될 수 있으므로 한 키에는 한 가지 종류만 누적하는 것이 좋습니다.
+     *
+     * @see #add(String, long)
+     */
+    public CtxMap add(String key, double delta) {
+        CtxCounter counter = counter(key, true);
+        if (counter != null) {
+            counter.add(delta);
+            touched(key);
+        } else {
+            merge(key, delta, (old, d) -> doubleOf(old) + (Double) d);
+        }
+        return this;
+    }
+
+    /**
+     * 카운터의 현재 합계를 반환합니다. 카운터가 아닌 값은 getLong과 같이 읽고, 값이 없으면 0을 반환합니다.
+     * 다른 스레드가 누적하는 중에 읽은 합계는 그 순간의 정확한 스냅샷이 아닐 수 있습니다.
+     *
+     * @param key 카운터 키
+     * @return 현재 합계
+     */
+    public long sum(String key) {
+        return getLong(key, 0L);
+    }
+
     // --- 타입-안전 접근자 ---
 
     /**
@@ -96,11 +465,42 @@ public class CtxMap implements Serializable {
      * @return 타입에 맞는 값 또는 null
      */
     public <T> T getObject(String key, Class<T> type) {
-        Object value = storage.get(key);
+        Object raw = raw(key);
+        // 슬롯 값은 캐시된 박싱 값을 재사용하여 반복 조회 시 할당이 없도록 함
+        Object value = (raw instanceof CtxSlot slot) ? slot.boxed().get() : unwrap(raw);
         // 값의 존재 여부 및 타입 일치 여부 확인 후 안전하게 캐스팅
         return (value != null && type.isInstance(value)) ? type.cast(value) : null;
     }
 
+    /**
+     * 등록된 키로 값을 조회합니다. 값이 없거나 키 타입과 일치하지 않으면 null을 반환합니다.
+     * 슬롯이 캐시되어 있으면 문자열 해싱이나 타입 검사 없이 배열 조회만으로 값을 반환합니다.
+     *
+     * @param key 등록된 키 핸들
+     * @param <T> 값의 타입
+     * @return 값 또는 null
+     */
+    public <T> T get(CtxKey<T> key) {
+        CtxSlot slot = keyedSlot(key);
+        if (slot == null) {
+            return null;
+        }
+        // 캐시된 슬롯은 키 타입과 일치함이 보장되므로 검사 없이 캐스팅
+        @SuppressWarnings("unchecked")
+        T value = (T) slot.box();
+        return value;
+    }
+
+    /**
+     * 등록된 키로 값을 조회합니다. 값이 없으면 기본값을 반환합니다.
+     *
+     * @see #get(CtxKey)
+     */
+    public <T> T get(CtxKey<T> key, T defaultValue) {
+        T value = get(key);
+        return (value != null) ? value : defaultValue;
+    }
+
     /**
      * 키로부터 Optional을 반환하는 타입-안전 조회 메서드입니다.
      * NPE(NullPointerException) 방지에 유용합니다.
@@ -111,18 +511,46 @@ public class CtxMap implements Serializable {
      * @return Optional에 감싼 값 (타입 불일치 또는 null이면 Optional.empty())
      */
     public <T> Optional<T> getOptional(String key, Class<T> type) {
-        return Optional.ofNullable(getObject(key, type));
+        CtxSlot slot = slotOf(key);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        // 슬롯이 캐시한 Optional을 재사용하여 반복 조회 시 할당이 없도록 함
+        Optional<Object> boxed = slot.boxed();
+        if (!type.isInstance(boxed.get())) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        Optional<T> typed = (Optional<T>) (Optional<?>) boxed;
+        return typed;
     }
 
     /**
      * Map<String, Object> 형태로 안전하게 조회합니다.
+     * 반환되는 맵은 원본을 복사하지 않는 읽기 전용 뷰이며, String이 아닌 키는 순회 시점에 걸러집니다.
+     * 원본이 수정 불가 맵(Map.of, asReadOnlyMap 결과 등)이고 키가 모두 String이면 크기와 순회를 원본에 그대로 위임합니다.
+     * 수정 가능한 복사본이 필요하면 {@link #getMapCopy(String)}를 사용합니다.
+     *
+     * @param key 키
+     * @return 읽기 전용 Map<String, Object> 뷰 또는 null
+     */
+    public Map<String, Object> getMap(String key) {
+        Object value = lookup(key);
+        if (value instanceof Map<?, ?> m) {
+            return CtxViews.stringKeyMap(m);
+        }
+        return null;
+    }
+
+    /**
+     * Map<String, Object> 형태의 복사본을 조회합니다.
      * 반환되는 맵은 원본 맵의 복사본이므로, 이를 수정해도 원본 CtxMap에는 영향을 주지 않습니다.
      *
      * @param key 키
      * @return 새로운 Map<String, Object> 인스턴스 또는 null
      */
-    public Map<String, Object> getMap(String key) {
-        Object value = storage.get(key);
+    public Map<String, Object> getMapCopy(String key) {
+        Object value = lookup(key);
         if (value instanceof Map<?, ?> m) {
             Map<String, Object> result = new HashMap<>();
             // CtxMap의 키 타입인 String을 보장하기 위해 키 타입을 확인
@@ -138,15 +566,33 @@ public class CtxMap implements Serializable {
 
     /**
      * 리스트를 타입-안전하게 조회합니다. 리스트의 요소 중 타입이 일치하지 않는 항목은 결과에서 제외됩니다.
-     * 반환되는 리스트는 원본의 복사본입니다.
+     * 반환되는 리스트는 원본을 복사하지 않는 읽기 전용 뷰이며, 요소는 접근 시점에 걸러지고 캐스팅됩니다.
+     * 타입이 맞는 요소의 위치는 처음 접근할 때 한 번 계산되므로, 원본이 RandomAccess이면 get(i)도 O(1)입니다.
+     * 수정 가능한 복사본이 필요하면 {@link #getListCopy(String, Class)}를 사용합니다.
      *
      * @param key         키
      * @param elementType 리스트 요소의 기대 타입
      * @param <T>         요소 타입 파라미터
-     * @return 타입 캐스팅된 요소들을 담은 새로운 리스트 또는 null
+     * @return 타입 캐스팅된 요소들만 보이는 읽기 전용 리스트 또는 null
      */
     public <T> List<T> getList(String key, Class<T> elementType) {
-        Object value = storage.get(key);
+        Object value = lookup(key);
+        if (value instanceof List<?> list) {
+            return CtxViews.typedList(list, elementType);
+        }
+        return null;
+    }
+
+    /**
+     * 리스트의 복사본을 타입-안전하게 조회합니다. 타입이 일치하지 않는 항목은 결과에서 제외됩니다.
+     *
+     * @param key         키
+     * @param elementType 리스트 요소의 기대 타입
+     * @param <T>         요소 타입 파라미터
+     * @return 타입 캐스팅된 요소들을 담은 새로운 리스트 또는 null
+     */
+    public <T> List<T> getListCopy(String key, Class<T> elementType) {
+        Object value = lookup(key);
         if (value instanceof List<?> list) {
             List<T> result = new ArrayList<>();
             // 리스트의 각 요소를 순회하며 타입 안전성 검사
@@ -168,11 +614,14 @@ public class CtxMap implements Serializable {
      * @return 문자열 또는 기본값
      */
     public String getString(String key, String defaultValue) {
-        Object value = storage.get(key);
+        Object value = lookup(key);
         // `toString()`을 호출하지 않고, 실제 String 타입인 경우에만 값을 반환하여 예측 가능성 높임
         if (value instanceof String s) {
             return s;
         }
+        if (value instanceof CtxParsed p) {
+            return p.text;
+        }
         return defaultValue;
     }
 
@@ -195,18 +644,23 @@ public class CtxMap implements Serializable {
      * @return 정수 또는 기본값
      */
     public int getInt(String key, int defaultValue) {
-        Object value = storage.get(key);
-        // 1. Number 타입인 경우, 직접 int 값으로 변환 (성능상 이점)
+        Object value = lookup(key);
+        // 1. 원시 슬롯 또는 Number 타입인 경우, 직접 int 값으로 변환 (성능상 이점)
+        if (value instanceof CtxSlot slot && slot.isNumeric()) {
+            return slot.intValue();
+        }
         if (value instanceof Number n) {
             return n.intValue();
         }
-        // 2. String 타입인 경우, 파싱 시도
+        // 2. 메모이제이션된 문자열이면 저장된 파싱 결과 사용
+        if (value instanceof CtxParsed p) {
+            return p.intValue(defaultValue);
+        }
+        // 3. String 타입인 경우, 파싱 시도
+        // trim()으로 새 문자열을 만들지 않고 원본 범위를 직접 파싱, 실패 시 예외 없이 기본값
         if (value instanceof String s) {
-            try {
-                return Integer.parseInt(s.trim());
-            } catch (NumberFormatException e) {
-                // 파싱 실패 시에는 아무것도 하지 않고, 최종적으로 기본값 반환
-            }
+            CtxParsed p = memoize(key, s);
+            return (p != null) ? p.intValue(defaultValue) : NumberParser.parseInt(s, defaultValue);
         }
         return defaultValue;
     }
@@ -215,22 +669,38 @@ public class CtxMap implements Serializable {
         return getInt(key, 0);
     }
 
+    /**
+     * 등록된 키로 정수를 조회합니다. 캐시된 슬롯이 있으면 박싱 없이 값을 읽습니다.
+     *
+     * @see #getInt(String, int)
+     */
+    public int getInt(CtxKey<Integer> key, int defaultValue) {
+        CtxSlot slot = keyedSlot(key);
+        if (slot == null) {
+            return getInt(key.name(), defaultValue);
+        }
+        return slot.isNumeric() ? slot.intValue() : ((Integer) slot.ref).intValue();
+    }
+
     /**
      * long 타입 정수를 조회합니다.
      * 
      * @see #getInt(String, int)
      */
     public long getLong(String key, long defaultValue) {
-        Object value = storage.get(key);
+        Object value = lookup(key);
+        if (value instanceof CtxSlot slot && slot.isNumeric()) {
+            return slot.longValue();
+        }
         if (value instanceof Number n) {
             return n.longValue();
         }
+        if (value instanceof CtxParsed p) {
+            return p.longValue(defaultValue);
+        }
         if (value instanceof String s) {
-            try {
-                return Long.parseLong(s.trim());
-            } catch (NumberFormatException e) {
-                // 파싱 실패
-            }
+            CtxParsed p = memoize(key, s);
+            return (p != null) ? p.longValue(defaultValue) : NumberParser.parseLong(s, defaultValue);
         }
         return defaultValue;
     }
@@ -239,22 +709,38 @@ public class CtxMap implements Serializable {
         return getLong(key, 0L);
     }
 
+    /**
+     * 등록된 키로 long 값을 조회합니다.
+     *
+     * @see #getInt(CtxKey, int)
+     */
+    public long getLong(CtxKey<Long> key, long defaultValue) {
+        CtxSlot slot = keyedSlot(key);
+        if (slot == null) {
+            return getLong(key.name(), defaultValue);
+        }
+        return slot.isNumeric() ? slot.longValue() : ((Long) slot.ref).longValue();
+    }
+
     /**
      * double 타입 실수를 조회합니다.
      * 
      * @see #getInt(String, int)
      */
     public double getDouble(String key, double defaultValue) {
-        Object value = storage.get(key);
+        Object value = lookup(key);
+        if (value instanceof CtxSlot slot && slot.isNumeric()) {
+            return slot.doubleValue();
+        }
         if (value instanceof Number n) {
             return n.doubleValue();
         }
+        if (value instanceof CtxParsed p) {
+            return p.doubleValue(defaultValue);
+        }
         if (value instanceof String s) {
-            try {
-                return Double.parseDouble(s.trim());
-            } catch (NumberFormatException e) {
-                // 파싱 실패
-            }
+            CtxParsed p = memoize(key, s);
+            return (p != null) ? p.doubleValue(defaultValue) : NumberParser.parseDouble(s, defaultValue);
         }
         return defaultValue;
     }
@@ -263,6 +749,19 @@ public class CtxMap implements Serializable {
         return getDouble(key, 0.0);
     }
 
+    /**
+     * 등록된 키로 double 값을 조회합니다.
+     *
+     * @see #getInt(CtxKey, int)
+     */
+    public double getDouble(CtxKey<Double> key, double defaultValue) {
+        CtxSlot slot = keyedSlot(key);
+        if (slot == null) {
+            return getDouble(key.name(), defaultValue);
+        }
+        return slot.isNumeric() ? slot.doubleValue() : ((Double) slot.ref).doubleValue();
+    }
+
     /**
      * 불리언 값을 조회합니다. Boolean 타입이면 직접 반환하고,
      * 문자열이면 "true", "1", "y", "yes", "on" (대소문자 무관)을 true로 간주합니다.
@@ -271,26 +770,85 @@ public class CtxMap implements Serializable {
      * @return 불리언 값 (기본값 false)
      */
     public boolean getBoolean(String key) {
-        Object value = storage.get(key);
-        // 1. Boolean 타입인 경우 직접 반환
+        Object value = lookup(key);
+        // 1. boolean 슬롯 또는 Boolean 타입인 경우 직접 반환
+        if (value instanceof CtxSlot slot && !slot.isNumeric()) {
+            return slot.booleanValue();
+        }
         if (value instanceof Boolean b) {
             return b;
         }
-        // 2. String 타입인 경우, 널리 사용되는 '참' 표현을 확인
+        // 2. String 타입인 경우, 널리 사용되는 '참' 표현을 확인 (소문자 변환/trim 없이 비교)
         if (value instanceof String s) {
-            return java.util.Set.of("true", "1", "y", "yes", "on").contains(s.toLowerCase().trim());
+            return CtxText.isTruthy(s);
+        }
+        if (value instanceof CtxParsed p) {
+            return p.booleanValue();
         }
         // 그 외의 경우 모두 false
         return false;
     }
 
+    /**
+     * 등록된 키로 불리언 값을 조회합니다.
+     *
+     * @see #getBoolean(String)
+     */
+    public boolean getBoolean(CtxKey<Boolean> key) {
+        CtxSlot slot = keyedSlot(key);
+        if (slot == null) {
+            return getBoolean(key.name());
+        }
+        return (slot.kind == CtxSlot.BOOLEAN) ? slot.booleanValue() : ((Boolean) slot.ref).booleanValue();
+    }
+
+    /**
+     * 맵의 값으로 레코드를 생성합니다. 각 레코드 컴포넌트는 같은 이름의 키를 컴포넌트 타입에 맞는 접근자로 읽습니다
+     * (int는 getInt, boolean은 getBoolean, String은 getString 등. 값이 없으면 0/false/null).
+     * 레코드 클래스마다 한 번 MethodHandle로 조립한 바인더를 캐시해 두므로, 이후 호출에는 리플렉션이 없습니다.
+     * {@link CtxMapped}로 생성된 변환기가 있으면 그 변환기를 사용합니다.
+     *
+     * <pre>{@code
+     * AppContext app = ctx.toRecord(AppContext.class);
+     * }</pre>
+     *
+     * @param type 레코드 클래스
+     * @param <R>  레코드 타입
+     * @return 새 레코드 인스턴스
+     * @throws IllegalArgumentException 레코드 생성자에 접근할 수 없거나, 레코드의 생성자가 값을 거부한 경우
+     */
+    public <R extends Record> R toRecord(Class<R> type) {
+        CtxMapper<R> mapper = CtxMappers.of(type);
+        if (mapper != null) {
+            return mapper.fromCtxMap(this);
+        }
+        return type.cast(CtxRecordBinder.of(type).bind(this));
+    }
+
+    /**
+     * 레코드의 컴포넌트를 같은 이름의 키로 담은 CtxMap을 생성합니다. {@link CtxMapped}로 생성된 변환기가 있으면
+     * 원시 타입 컴포넌트를 박싱 없이 저장하고, 없으면 {@link MapUtils#toMap(Object)}의 결과를 복사합니다.
+     *
+     * @param record 레코드 인스턴스
+     * @return 새로운 CtxMap 인스턴스
+     */
+    @SuppressWarnings("unchecked")
+    public static CtxMap fromRecord(Record record) {
+        Objects.requireNonNull(record);
+        CtxMapper<Record> mapper = CtxMappers.of((Class<Record>) record.getClass());
+        if (mapper != null) {
+            return mapper.toCtxMap(record);
+        }
+        return new CtxMap(MapUtils.toMap(record));
+    }
+
     // --- 유틸리티 메소드 ---
 
     /**
      * 맵에 해당 키가 존재하는지 확인합니다.
      */
     public boolean containsKey(String key) {
-        return storage.containsKey(key);
+        return raw(key) != null;
     }
 
     /**
@@ -301,7 +859,10 @@ public class CtxMap implements Serializable {
      * @return 텍스트 내용이 있으면 true
      */
     public boolean hasText(String key) {
-        Object value = storage.get(key);
+        Object value = lookup(key);
+        if (value instanceof CtxParsed p) {
+            value = p.text;
+        }
         if (value instanceof String s) {
             // String.isBlank()는 공백(whitespace)만으로 이루어진 문자열도 true를 반환
             return !s.isBlank();
@@ -313,47 +874,135 @@ public class CtxMap implements Serializable {
      * 맵의 읽기 전용 스냅샷(복사본)을 반환합니다.
      * 이 메소드가 호출되는 시점의 맵 상태를 복사하여 반환하므로,
      * 반환된 맵은 이후의 CtxMap 변경에 영향을 받지 않습니다.
+     * persistent 모드({@link #persistent()})에서는 복사 없이 불변 트라이를 공유하므로 O(1)입니다.
+     * 하위 스코프({@link #child()})에서는 부모에서 물려받은 값까지 합친 상태를 복사합니다.
      *
      * @return 읽기 전용 맵
      */
     public Map<String, Object> asReadOnlyMap() {
+        if (parent == null && storage instanceof TrieStorage trie) {
+            // persistent 모드: 불변 트라이 참조만 보관하는 O(1) 스냅샷
+            return new HashTrie.MapView(trie.snapshot(), CtxMap::unwrap);
+        }
         // 방어적 복사: 새로운 HashMap을 만들어 현재 상태를 복사한 후, 이를 수정 불가 맵으로 만듦
-        return Collections.unmodifiableMap(new HashMap<>(storage));
+        // 원시 슬롯은 이 시점에 박싱하여 복사본이 이후의 슬롯 갱신과 분리되도록 합니다.
+        Map<String, Object> copy = new HashMap<>();
+        forEachVisible((k, v) -> copy.put(k, unwrap(v)));
+        return Collections.unmodifiableMap(copy);
     }
 
     /**
      * 키를 제거하고, 제거된 값을 반환합니다.
+     * 하위 스코프에서 부모에게 있는 키를 제거하면 부모는 그대로 두고 툼스톤으로 가립니다.
      */
     public Object remove(String key) {
-        return storage.remove(key);
+        if (parent == null) {
+            Object removed = storage.remove(key);
+            retire(removed);
+            if (removed != null) {
+                touched(key);
+            }
+            return unwrap(removed);
+        }
+        Object displaced = parent.containsKey(key) ? storage.put(key, Tombstone.INSTANCE) : storage.remove(key);
+        retire(displaced);
+        if (displaced == null) {
+            // 로컬 값이 없었으면 부모에서 물려받은 값이 보이고 있었음
+            displaced = parent.raw(key);
+        }
+        if (displaced == null || displaced == Tombstone.INSTANCE) {
+            return null;
+        }
+        touched(key);
+        return unwrap(displaced);
     }
 
     /**
      * 맵의 모든 요소를 제거합니다.
+     * 하위 스코프에서는 부모에서 물려받은 키도 툼스톤으로 가려서 빈 맵처럼 보이게 합니다.
      */
     public void clear() {
-        storage.clear();
+        // 제거된 슬롯을 무효화하여 CtxKey 캐시가 지워진 값을 반환하지 않도록 함
+        if (strategy == CtxStorage.UNSYNCHRONIZED) {
+            // 단일 스레드 저장소는 순회 중 직접 제거할 수 없으므로 반복자로 제거
+            for (Iterator<Map.Entry<String, Object>> it = storage.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, Object> e = it.next();
+                retire(e.getValue());
+                it.remove();
+                removed(e.getKey(), e.getValue());
+            }
+        } else {
+            for (Map.Entry<String, Object> e : storage.entrySet()) {
+                if (storage.remove(e.getKey(), e.getValue())) {
+                    retire(e.getValue());
+                    removed(e.getKey(), e.getValue());
+                }
+            }
+        }
+        if (parent != null) {
+            parent.forEachVisible((k, v) -> {
+                Object displaced = storage.put(k, Tombstone.INSTANCE);
+                retire(displaced);
+                if (displaced == null) {
+                    touched(k);
+                }
+            });
+        }
     }
 
     /**
      * 맵의 크기(엔트리 수)를 반환합니다.
+     * 하위 스코프에서는 부모의 키까지 순회하여 세므로 O(n)입니다.
      */
     public int size() {
-        return storage.size();
+        if (parent == null) {
+            return storage.size();
+        }
+        int[] count = new int[1];
+        forEachVisible((k, v) -> count[0]++);
+        return count[0];
     }
 
     /**
      * 맵이 비어있는지 확인합니다.
      */
     public boolean isEmpty() {
-        return storage.isEmpty();
+        return (parent == null) ? storage.isEmpty() : size() == 0;
     }
 
     /**
      * 키가 존재하지 않을 경우에만 값을 삽입합니다.
+     * 하위 스코프에서는 부모에서 물려받은 값도 존재하는 값으로 취급합니다.
      */
     public Object putIfAbsent(String key, Object value) {
-        return storage.putIfAbsent(key, value);
+        Objects.requireNonNull(value);
+        if (parent == null) {
+            Object existing = storage.putIfAbsent(key, value);
+            if (existing == null) {
+                touched(key);
+            }
+            return unwrap(existing);
+        }
+        while (true) {
+            Object local = storage.get(key);
+            if (local == Tombstone.INSTANCE) {
+                if (storage.replace(key, local, value)) {
+                    touched(key);
+                    return null;
+                }
+            } else if (local != null) {
+                return unwrap(local);
+            } else {
+                Object inherited = parent.raw(key);
+                if (inherited != null) {
+                    return unwrap(inherited);
+                }
+                if (storage.putIfAbsent(key, value) == null) {
+                    touched(key);
+                    return null;
+                }
+            }
+        }
     }
 
     /**
@@ -361,12 +1010,272 @@ public class CtxMap implements Serializable {
      */
     public Object merge(String key, Object value, BiFunction<Object, Object, Object> remappingFunction) {
         Objects.requireNonNull(remappingFunction);
-        return storage.merge(key, value, remappingFunction);
+        if (parent == null) {
+            // 기존 값이 원시 슬롯이면 박싱된 값을 함수에 전달합니다. 기존 슬롯은 결과 값으로 교체됩니다.
+            Object merged = storage.merge(key, value, (old, v) -> {
+                retire(old);
+                return remappingFunction.apply(unwrap(old), v);
+            });
+            touched(key);
+            return unwrap(merged);
+        }
+        Objects.requireNonNull(value);
+        // 하위 스코프: 로컬 값이 없으면 부모의 값을 기존 값으로 병합하고, 결과는 로컬에만 기록합니다.
+        Object merged = storage.compute(key, (k, old) -> {
+            Object current = (old == null) ? parent.raw(k) : (old == Tombstone.INSTANCE) ? null : old;
+            retire(old);
+            Object result = (current == null) ? value : remappingFunction.apply(unwrap(current), value);
+            if (result == null) {
+                return parent.containsKey(k) ? Tombstone.INSTANCE : null;
+            }
+            return result;
+        });
+        touched(key);
+        return (merged == Tombstone.INSTANCE) ? null : unwrap(merged);
+    }
+
+    // --- JSON ---
+
+    /**
+     * 맵을 JSON 객체로 스트림에 UTF-8로 기록합니다. 저장소를 한 번만 순회하며 바로 기록하므로
+     * {@link #asReadOnlyMap()} 스냅샷이나 중간 맵을 만들지 않고, 원시 값은 박싱 없이 숫자로 기록합니다.
+     * 중첩 List/Map/CtxMap과 레코드({@link MapUtils#toMap(Object)}와 같은 프로퍼티)도 같은 순회에서 기록합니다.
+     * 스트림은 flush만 하고 닫지 않습니다.
+     *
+     * @param out 기록할 스트림
+     * @throws IOException 스트림 쓰기에 실패한 경우
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        CtxJson.write(this, out);
+    }
+
+    /**
+     * 맵을 JSON 객체로 Writer에 기록합니다. Writer는 flush만 하고 닫지 않습니다.
+     *
+     * @param out 기록할 Writer
+     * @throws IOException 쓰기에 실패한 경우
+     * @see #writeJson(OutputStream)
+     */
+    public void writeJson(Writer out) throws IOException {
+        CtxJson.write(this, out);
+    }
+
+    /**
+     * 맵을 JSON 객체로 버퍼의 현재 위치부터 UTF-8로 기록합니다.
+     *
+     * @param out 기록할 버퍼
+     * @throws java.nio.BufferOverflowException 버퍼의 남은 공간이 부족한 경우 (버퍼에는 일부만 기록되어 있을 수 있음)
+     * @see #writeJson(OutputStream)
+     */
+    public void writeJson(ByteBuffer out) {
+        CtxJson.write(this, out);
+    }
+
+    /**
+     * UTF-8 JSON 객체를 읽어 새 CtxMap을 만듭니다. 스트리밍 파서로 최상위 필드를 하나씩 읽어 저장소에 바로 저장하므로
+     * 중간 Map을 만들거나 복사하지 않으며, 숫자와 불리언은 박싱 없이 저장합니다.
+     * 중첩 객체와 배열은 디코딩하지 않고 원본 조각의 위치만 기록해 두었다가, {@link #getMap(String)}/{@link #getList(String, Class)}
+     * 등으로 처음 읽힐 때 디코딩합니다(객체는 LinkedHashMap, 배열은 ArrayList). 읽히지 않은 필드는 끝까지 디코딩되지 않습니다.
+     * null 값인 필드는 저장하지 않습니다.
+     *
+     * <p>디코딩되지 않은 조각은 입력 배열을 공유하므로, 호출 후 입력 배열을 수정하면 안 됩니다.
+     *
+     * @param json UTF-8로 인코딩된 JSON 객체
+     * @return 새로운 CtxMap 인스턴스
+     * @throws IllegalArgumentException 최상위 값이 객체가 아니거나 JSON 형식이 잘못된 경우
+     */
+    public static CtxMap parseJson(byte[] json) {
+        return CtxJson.parse(json, 0, json.length);
+    }
+
+    /**
+     * JSON 객체 문자열을 읽어 새 CtxMap을 만듭니다.
+     *
+     * @see #parseJson(byte[])
+     */
+    public static CtxMap parseJson(String json) {
+        return parseJson(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 스트림의 UTF-8 JSON 객체를 끝까지 읽어 새 CtxMap을 만듭니다. 스트림은 닫지 않습니다.
+     *
+     * @throws IOException 스트림 읽기에 실패한 경우
+     * @see #parseJson(byte[])
+     */
+    public static CtxMap parseJson(InputStream in) throws IOException {
+        return parseJson(in.readAllBytes());
+    }
+
+    /**
+     * 파싱 중인 JSON의 중첩 조각을 저장합니다. (CtxJson 전용. 값은 조회 시점에 디코딩됨)
+     */
+    void putLazy(String key, CtxLazyJson value) {
+        retire(storage.put(key, value));
+        touched(key);
+    }
+
+    // --- 변경 추적 ---
+
+    /**
+     * 현재 버전을 반환합니다. 버전은 이 맵에 쓰기(put, putAll, merge, remove, 카운터 갱신 등)가 일어날 때마다 1씩 증가하며,
+     * 처음 호출되는 시점부터 변경 추적이 시작됩니다(시작 버전 0). 하위 스코프는 자신의 로컬 쓰기만 추적합니다.
+     * 추적 중에는 쓰기마다 변경 로그의 짧은 잠금을 거치므로, 카운터처럼 경합이 심한 키만 있는 맵에는 추적을 켜지 않는 것이 좋습니다.
+     * <p>
+     * 하위 캐시를 동기화할 때는 버전을 먼저 받아둔 뒤 값을 읽고, 다음 동기화에서 그 버전을 {@link #changesSince(long)}에
+     * 넘기면 그 사이에 바뀐 키만 다시 읽으면 됩니다.
+     *
+     * <pre>{@code
+     * long next = ctx.version();
+     * for (String key : ctx.changesSince(last)) {
+     *     cache.sync(key, ctx.getObject(key, Object.class));  // 제거된 키는 null
+     * }
+     * last = next;
+     * }</pre>
+     *
+     * @return 현재 버전
+     */
+    public long version() {
+        return changeLog().version();
+    }
+
+    /**
+     * 키가 마지막으로 변경된 버전을 반환합니다. 추적이 시작된 뒤 변경된 적이 없으면 0을 반환합니다.
+     *
+     * @param key 키
+     * @return 키의 마지막 변경 버전
+     */
+    public long version(String key) {
+        return changeLog().versionOf(key);
+    }
+
+    /**
+     * 지정한 버전 이후에 변경되거나 제거된 키를 변경 순서대로 반환합니다. 비용은 맵 크기가 아니라 변경된 키 수에 비례합니다.
+     * 추적이 시작되기 전이거나 음수 버전을 넘기면 무엇이 바뀌었는지 알 수 없으므로 현재 모든 키를 반환합니다.
+     *
+     * @param version 기준 버전 ({@link #version()}이 반환한 값)
+     * @return 변경된 키의 읽기 전용 집합
+     */
+    public Set<String> changesSince(long version) {
+        CtxChangeLog log = changes;
+        if (log == null || version < 0) {
+            changeLog();
+            Set<String> keys = new LinkedHashSet<>();
+            forEachVisible((k, v) -> keys.add(k));
+            return Collections.unmodifiableSet(keys);
+        }
+        return log.changesSince(version);
+    }
+
+    /** 변경 로그를 반환합니다. 처음 호출되면 생성하여 추적을 시작합니다. */
+    private CtxChangeLog changeLog() {
+        CtxChangeLog log = changes;
+        if (log == null) {
+            synchronized (this) {
+                log = changes;
+                if (log == null) {
+                    changes = log = new CtxChangeLog();
+                }
+            }
+        }
+        return log;
+    }
+
+    /** 쓰기가 끝난 뒤 호출되어, 추적 중이면 키의 변경을 기록합니다. */
+    private void touched(String key) {
+        CtxChangeLog log = changes;
+        if (log != null) {
+            log.record(key);
+        }
+    }
+
+    /** clear가 제거한 엔트리를 기록합니다. 툼스톤이 제거된 것은 보이는 값의 변경이 아니므로 기록하지 않습니다. */
+    private void removed(String key, Object value) {
+        if (value != Tombstone.INSTANCE) {
+            touched(key);
+        }
+    }
+
+    // --- 델타 ---
+
+    /**
+     * 이 맵을 다른 맵과 같은 상태로 만드는 델타를 계산합니다. 다른 맵에만 있거나 값이 다른 키는 갱신으로,
+     * 이 맵에만 있는 키는 제거로 기록됩니다. 즉 {@code base.applyDelta(base.diff(next))} 후 base는 next와 같아집니다.
+     * 두 맵의 보이는 엔트리를 한 번씩 순회하므로 O(n)이며, 이미 변경 추적 중이면 {@link #deltaSince(long)}가 더 저렴합니다.
+     *
+     * @param other 목표 상태의 맵
+     * @return 이 맵에서 other로의 델타
+     */
+    public CtxDelta diff(CtxMap other) {
+        Objects.requireNonNull(other);
+        Map<String, Object> upserts = new LinkedHashMap<>();
+        Set<String> removals = new LinkedHashSet<>();
+        other.forEachVisible((k, v) -> {
+            Object mine = raw(k);
+            // 같은 슬롯을 공유하는 경우(스냅샷, 하위 스코프)는 박싱 없이 같은 값으로 판단
+            if (mine != v && (mine == null || !unwrap(mine).equals(unwrap(v)))) {
+                upserts.put(k, unwrap(v));
+            }
+        });
+        forEachVisible((k, v) -> {
+            if (other.raw(k) == null) {
+                removals.add(k);
+            }
+        });
+        return CtxDelta.of(upserts, removals);
+    }
+
+    /**
+     * 지정한 버전 이후의 변경을 델타로 만듭니다. {@link #changesSince(long)}가 반환한 키의 현재 값만 읽으므로,
+     * 비용이 맵 크기가 아니라 변경된 키 수에 비례합니다. 추적 시작 전의 버전이면 모든 키를 갱신으로 담습니다.
+     *
+     * @param version 기준 버전 ({@link #version()}이 반환한 값)
+     * @return 기준 버전 이후의 델타
+     */
+    public CtxDelta deltaSince(long version) {
+        Map<String, Object> upserts = new LinkedHashMap<>();
+        Set<String> removals = new LinkedHashSet<>();
+        for (String key : changesSince(version)) {
+            Object value = raw(key);
+            if (value == null) {
+                removals.add(key);
+            } else {
+                upserts.put(key, unwrap(value));
+            }
+        }
+        return CtxDelta.of(upserts, removals);
+    }
+
+    /**
+     * 델타를 적용합니다. 제거할 키를 먼저 제거한 뒤 갱신할 값을 저장합니다.
+     *
+     * @param delta 적용할 델타
+     * @return 메소드 체이닝을 위한 현재 인스턴스
+     */
+    public CtxMap applyDelta(CtxDelta delta) {
+        for (String key : delta.removals()) {
+            remove(key);
+        }
+        return putAll(delta.upserts());
+    }
+
+    /** 저장소 전략을 반환합니다. (CtxCodec 헤더 기록용) */
+    CtxStorage strategy() {
+        return strategy;
+    }
+
+    /**
+     * Java 직렬화 시 내부 저장소 대신 CtxCodec의 바이너리 형식으로 기록합니다.
+     * 역직렬화는 프록시의 readResolve가 CtxMap을 복원합니다. 하위 스코프는 보이는 값만 평탄화하여 기록됩니다.
+     */
+    @Serial
+    private Object writeReplace() {
+        return new CtxCodec.Proxy(this);
     }
 
     @Override
     public String toString() {
-        return "CtxMap" + storage;
+        return "CtxMap" + ((parent == null) ? storage : asReadOnlyMap());
     }
 
     @Override
@@ -376,13 +1285,263 @@ public class CtxMap implements Serializable {
         if (o == null || getClass() != o.getClass())
             return false;
         CtxMap ctxMap = (CtxMap) o;
-        // 내부 저장소(storage)의 내용이 동일한지 비교
-        return Objects.equals(storage, ctxMap.storage);
+        if (parent != null || ctxMap.parent != null) {
+            // 하위 스코프는 부모에서 물려받은 값까지 합친 내용으로 비교
+            return asReadOnlyMap().equals(ctxMap.asReadOnlyMap());
+        }
+        // 내부 저장소(storage)의 내용이 동일한지 비교 (원시 슬롯은 박싱된 값 기준으로 비교)
+        if (storage.size() != ctxMap.storage.size()) {
+            return false;
+        }
+        for (Map.Entry<String, Object> e : storage.entrySet()) {
+            if (!Objects.equals(unwrap(e.getValue()), unwrap(ctxMap.storage.get(e.getKey())))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        // 내부 저장소(storage)를 기반으로 해시코드 생성
-        return Objects.hash(storage);
+        // 내부 저장소(storage)를 기반으로 해시코드 생성 (CtxSlot은 박싱된 값과 같은 해시코드를 가짐)
+        return Objects.hash((parent == null) ? storage : asReadOnlyMap());
+    }
+
+    /**
+     * 키에 저장된 값을 조회합니다. REF 슬롯은 보관 중인 값으로 풀어서 반환하고,
+     * 원시 슬롯은 접근자가 박싱 없이 읽을 수 있도록 그대로 반환합니다.
+     */
+    private Object lookup(String key) {
+        Object raw = raw(key);
+        if (raw instanceof CtxLazyJson lazy) {
+            return lazy.value();
+        }
+        if (raw instanceof CtxSlot slot && slot.kind == CtxSlot.REF) {
+            // 슬롯으로 승격된 문자열도 메모이제이션된 파싱 결과가 있으면 그것을 반환
+            CtxParsed parsed = slot.parsed();
+            return (parsed != null) ? parsed : slot.ref;
+        }
+        return raw;
+    }
+
+    /**
+     * 키에 저장된 내부 값을 그대로 조회합니다. 로컬 저장소에 없으면 부모 스코프에서 찾고,
+     * 툼스톤으로 가려진 키는 null을 반환합니다.
+     */
+    private Object raw(String key) {
+        Object value = storage.get(key);
+        if (value == null && parent != null) {
+            return parent.raw(key);
+        }
+        return (value == Tombstone.INSTANCE) ? null : value;
+    }
+
+    /**
+     * 보이는 모든 엔트리의 내부 값을 순회합니다. 로컬 엔트리를 먼저 방문하고,
+     * 부모의 엔트리는 로컬 저장소(툼스톤 포함)에 가려지지 않은 키만 방문합니다.
+     */
+    void forEachVisible(BiConsumer<String, Object> action) {
+        storage.forEach((k, v) -> {
+            if (v != Tombstone.INSTANCE) {
+                action.accept(k, v);
+            }
+        });
+        if (parent != null) {
+            parent.forEachVisible((k, v) -> {
+                if (!storage.containsKey(k)) {
+                    action.accept(k, v);
+                }
+            });
+        }
+    }
+
+    /**
+     * 등록된 키의 값 슬롯을 찾습니다. 캐시에 유효한 슬롯이 있으면 배열 조회만으로 반환하고,
+     * 없으면 저장소에서 찾아 캐시합니다. 키 타입과 일치하지 않는 값이면 null을 반환합니다.
+     */
+    private CtxSlot keyedSlot(CtxKey<?> key) {
+        CtxSlot slot = cachedSlot(key);
+        if (slot != null) {
+            return slot;
+        }
+        slot = slotOf(key.name());
+        if (slot == null || !key.type().isInstance(slot.boxed().get())) {
+            return null;
+        }
+        // 저장소에 실제로 들어있는 슬롯만 캐시합니다. 부모에서 물려받은 슬롯은 로컬 쓰기로 가려져도 무효화되지 않고,
+        // 조회마다 값을 복원하는 저장소(off-heap, 파일)는 슬롯이 저장소에 남지 않습니다.
+        if (!decoding && storage.get(key.name()) == slot) {
+            cacheSlot(key.index(), slot);
+        }
+        return slot;
+    }
+
+    /**
+     * 캐시에 들어있는 유효한 슬롯을 반환합니다. 없거나 무효화되었으면 null을 반환합니다.
+     */
+    private CtxSlot cachedSlot(CtxKey<?> key) {
+        int index = key.index();
+        CtxSlot[] cache = keyed;
+        if (cache != null && index < cache.length) {
+            CtxSlot slot = (CtxSlot) KEYED_SLOT.getAcquire(cache, index);
+            if (slot != null && !slot.retired) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 키의 값 슬롯을 반환합니다. 생성자나 merge로 들어온 일반 값은 REF 슬롯으로 승격하여,
+     * 이후 조회가 슬롯에 캐시된 정보(박싱 값, CtxKey 캐시)를 재사용할 수 있도록 합니다.
+     * 값이 없으면 null을 반환하고, 로컬에 없는 키는 부모 스코프에서 찾습니다.
+     * 조회마다 값을 복원하는 저장소에서는 승격하지 않고 임시 슬롯을 반환합니다.
+     */
+    private CtxSlot slotOf(String key) {
+        while (true) {
+            Object raw = storage.get(key);
+            if (raw == null && parent != null) {
+                return parent.slotOf(key);
+            }
+            if (raw == null || raw == Tombstone.INSTANCE) {
+                return null;
+            }
+            if (raw instanceof CtxSlot) {
+                return (CtxSlot) raw;
+            }
+            if (raw instanceof CtxCounter counter) {
+                // 카운터는 슬롯으로 승격하면 누적 셀을 잃으므로, 현재 합계를 담은 임시 슬롯만 반환(캐시되지 않음)
+                return CtxSlot.ofRef(counter.snapshot());
+            }
+            // 메모이제이션된 문자열은 파싱 결과를 슬롯으로 옮겨, 승격한 뒤에도 다시 파싱하지 않도록 함
+            CtxSlot slot = (raw instanceof CtxParsed parsed) ? CtxSlot.ofParsed(parsed) : CtxSlot.ofRef(unwrap(raw));
+            if (decoding || storage.replace(key, raw, slot)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * 제자리에서 값을 갱신해도 되는 같은 종류의 슬롯을 반환합니다.
+     * persistent 모드이거나 슬롯이 없거나 종류가 다르면 null을 반환하여 새 슬롯으로 교체하도록 합니다.
+     */
+    private CtxSlot mutableSlot(String key, byte kind) {
+        if (strategy == CtxStorage.PERSISTENT) {
+            return null;
+        }
+        return (storage.get(key) instanceof CtxSlot slot && slot.kind == kind) ? slot : null;
+    }
+
+    /**
+     * 키의 카운터 셀을 반환합니다. 카운터가 아니면 현재 값에서 시작하는 카운터로 교체합니다.
+     * 카운터 셀을 저장소에 그대로 보관할 수 없는 경우(하위 스코프, persistent 모드, 파일 저장소)에는 null을 반환합니다.
+     */
+    private CtxCounter counter(String key, boolean floating) {
+        if (parent != null || strategy == CtxStorage.PERSISTENT || storage instanceof MappedStorage) {
+            return null;
+        }
+        while (true) {
+            Object raw = storage.get(key);
+            if (raw instanceof CtxCounter c && (c.isFloating() || !floating)) {
+                return c;
+            }
+            Object current = unwrap(raw);
+            CtxCounter created = floating ? CtxCounter.ofDouble(doubleOf(current)) : CtxCounter.ofLong(longOf(current));
+            if ((raw == null) ? storage.putIfAbsent(key, created) == null : storage.replace(key, raw, created)) {
+                retire(raw);
+                return created;
+            }
+        }
+    }
+
+    /** 카운터의 시작 값. getLong과 같이 숫자는 그대로, 문자열은 파싱하여 읽고 그 밖에는 0입니다. */
+    private static long longOf(Object value) {
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        return (value instanceof String s) ? NumberParser.parseLong(s, 0L) : 0L;
+    }
+
+    /** 실수 카운터의 시작 값. */
+    private static double doubleOf(Object value) {
+        if (value instanceof Number n) {
+            return n.doubleValue();
+        }
+        return (value instanceof String s) ? NumberParser.parseDouble(s, 0.0) : 0.0;
+    }
+
+    /**
+     * 문자열 값의 파싱 결과를 메모이제이션합니다. 키가 처음 숫자로 조회될 때는 비트맵에 표시만 하고 null을 반환하며,
+     * 두 번째 조회부터 원본 문자열을 CtxParsed로 교체합니다. 문자열이 REF 슬롯에 들어있으면 교체하지 않고 파싱 결과를
+     * 슬롯에 기록합니다. 그 사이 값이 바뀌었으면 null을 반환하여 호출자가 직접 파싱하도록 합니다.
+     * 조회마다 값을 복원하는 저장소에서는 항상 null입니다.
+     */
+    private CtxParsed memoize(String key, String text) {
+        if (decoding) {
+            return null;
+        }
+        long bit = 1L << (key.hashCode() & 63);
+        long seen = parsedOnce;
+        if ((seen & bit) == 0) {
+            // 경쟁 상태에서 비트가 유실되어도 메모이제이션이 한 번 늦어질 뿐이므로 CAS 없이 기록
+            parsedOnce = seen | bit;
+            return null;
+        }
+        Object local = storage.get(key);
+        if (local instanceof CtxSlot slot && slot.kind == CtxSlot.REF && slot.ref == text) {
+            CtxParsed parsed = CtxParsed.of(text);
+            slot.parsed(parsed);
+            return parsed;
+        }
+        if (local != text) {
+            // 부모에서 물려받은 문자열은 부모 맵에 메모이제이션하여 다른 하위 스코프와 공유
+            return (local == null && parent != null) ? parent.memoize(key, text) : null;
+        }
+        CtxParsed parsed = CtxParsed.of(text);
+        return storage.replace(key, text, parsed) ? parsed : null;
+    }
+
+    private void cacheSlot(int index, CtxSlot slot) {
+        CtxSlot[] cache = keyed;
+        if (cache == null || index >= cache.length) {
+            CtxSlot[] grown = new CtxSlot[Math.max(CtxKey.count(), index + 1)];
+            if (cache != null) {
+                System.arraycopy(cache, 0, grown, 0, cache.length);
+            }
+            keyed = cache = grown;
+        }
+        KEYED_SLOT.setRelease(cache, index, slot);
+    }
+
+    /**
+     * 하위 스코프에서 제거된 부모의 키를 가리는 표식. 역직렬화 후에도 동일성이 유지되도록 enum으로 정의합니다.
+     */
+    private enum Tombstone {
+        INSTANCE
+    }
+
+    /**
+     * 저장소에서 밀려난 슬롯을 무효화합니다.
+     */
+    private static void retire(Object displaced) {
+        if (displaced instanceof CtxSlot slot) {
+            slot.retired = true;
+        }
+    }
+
+    /**
+     * 저장소에 보관된 내부 표현(원시 슬롯 등)을 외부에 노출할 값으로 변환합니다.
+     */
+    private static Object unwrap(Object raw) {
+        if (raw instanceof CtxSlot slot) {
+            return slot.box();
+        }
+        if (raw instanceof CtxCounter counter) {
+            return counter.snapshot();
+        }
+        if (raw instanceof CtxLazyJson lazy) {
+            return lazy.value();
+        }
+        return (raw instanceof CtxParsed parsed) ? parsed.text : raw;
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * CtxMapped: 컴파일 시점에 CtxMap 변환기를 생성할 레코드에 붙이는 애너테이션.
+ * processor 모듈의 애너테이션 프로세서가 같은 패키지에 {@code <레코드 이름>_CtxMapper} 클래스({@link CtxMapper} 구현)를
+ * 생성하며, {@link CtxMap#toRecord(Class)}, {@link CtxMap#fromRecord(Record)}, {@link MapUtils#toMap(Object)}는
+ * 이 이름 규칙으로 생성된 변환기를 찾아 리플렉션이나 MethodHandle 조립 없이 첫 호출부터 직접 호출합니다.
+ * 중첩 레코드는 바깥 클래스 이름과 밑줄로 이어 붙입니다(예: {@code Outer_Inner_CtxMapper}).
+ *
+ * <pre>{@code
+ * @CtxMapped
+ * record Person(String name, int age) { }
+ * }</pre>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface CtxMapped {
+}
@@ -0,0 +1,31 @@
+package util;
+
+import java.util.Map;
+
+/**
+ * CtxMapper: 레코드 하나와 CtxMap 사이의 변환기. {@link CtxMapped}가 붙은 레코드마다
+ * 애너테이션 프로세서가 구현 클래스를 생성하며, 직접 구현할 필요는 없습니다.
+ *
+ * @param <R> 레코드 타입
+ */
+public interface CtxMapper<R extends Record> {
+
+    /**
+     * 레코드 컴포넌트를 같은 이름의 키로 담은 CtxMap을 만듭니다. int/long/double/boolean은 박싱 없이 저장하고,
+     * null인 컴포넌트는 저장하지 않습니다.
+     */
+    CtxMap toCtxMap(R record);
+
+    /**
+     * CtxMap의 값으로 레코드를 생성합니다. 읽기 규칙은 {@link CtxMap#toRecord(Class)}와 같습니다.
+     */
+    R fromCtxMap(CtxMap ctx);
+
+    /**
+     * {@link MapUtils#toMap(Object)}와 같은 내용의 맵을 만듭니다. 생성 시점에 같은 결과를 보장할 수 없는 레코드
+     * (Jackson 애너테이션이나 단순 값이 아닌 프로퍼티가 있는 경우)는 null을 반환하며, 이때 MapUtils는 기본 경로를 사용합니다.
+     */
+    default Map<String, Object> toMap(R record) {
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package util;
+
+/**
+ * CtxMappers: 레코드 클래스의 생성된 변환기({@code <레코드 이름>_CtxMapper})를 찾아 캐시합니다.
+ * 변환기가 없는 클래스도 결과(null)를 캐시하므로, 클래스마다 한 번만 클래스 로딩을 시도합니다.
+ */
+final class CtxMappers {
+
+    /** 생성된 변환기 클래스 이름의 접미사 */
+    static final String SUFFIX = "_CtxMapper";
+
+    private static final ClassValue<CtxMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected CtxMapper<?> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    private CtxMappers() {
+    }
+
+    /**
+     * 레코드 클래스의 생성된 변환기를 반환합니다. 없으면 null을 반환합니다.
+     */
+    @SuppressWarnings("unchecked")
+    static <R extends Record> CtxMapper<R> of(Class<R> type) {
+        return (CtxMapper<R>) MAPPERS.get(type);
+    }
+
+    private static CtxMapper<?> load(Class<?> type) {
+        if (!type.isRecord()) {
+            return null;
+        }
+        // 중첩 클래스의 바이너리 이름(Outer$Inner)은 밑줄로 바꿔 같은 패키지의 최상위 클래스 이름으로 사용
+        String name = type.getName().replace('$', '_') + SUFFIX;
+        try {
+            Class<?> mapper = Class.forName(name, true, type.getClassLoader());
+            if (!CtxMapper.class.isAssignableFrom(mapper)) {
+                return null;
+            }
+            return (CtxMapper<?>) mapper.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("생성된 변환기를 불러올 수 없습니다: " + name, e);
+        }
+    }
+}
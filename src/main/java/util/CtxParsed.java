@@ -0,0 +1,64 @@
+package util;
+
+import java.io.Serializable;
+
+/**
+ * CtxParsed: CtxMap에 문자열로 저장된 값의 파싱 결과를 함께 보관하는 메모이제이션 항목.
+ * 같은 키를 숫자로 두 번 이상 조회하면 CtxMap이 원본 문자열을 이 객체로 교체하여,
+ * 이후의 getInt/getLong/getDouble/getBoolean 조회가 다시 파싱하지 않고 저장된 값을 바로 읽도록 합니다.
+ * put/merge/remove로 값이 교체되면 항목 자체가 사라지므로 별도의 무효화가 필요 없습니다.
+ */
+final class CtxParsed implements Serializable {
+
+    private static final long serialVersionUID = 20240114L;
+
+    /** 원본 문자열. getString/getObject 등은 항상 이 값을 반환합니다. */
+    final String text;
+
+    /** NumberParser.classify 결과 */
+    private final int kind;
+
+    private final long longValue;
+    private final double doubleValue;
+    private final boolean truthy;
+
+    private CtxParsed(String text) {
+        this.text = text;
+        this.kind = NumberParser.classify(text, 0, text.length());
+        this.longValue = (kind == NumberParser.INTEGRAL) ? NumberParser.parseLong(text, 0L) : 0L;
+        this.doubleValue = (kind != NumberParser.NOT_A_NUMBER) ? NumberParser.parseDouble(text, 0.0) : 0.0;
+        this.truthy = CtxText.isTruthy(text);
+    }
+
+    static CtxParsed of(String text) {
+        return new CtxParsed(text);
+    }
+
+    int intValue(int defaultValue) {
+        boolean fits = kind == NumberParser.INTEGRAL && longValue == (int) longValue;
+        return fits ? (int) longValue : defaultValue;
+    }
+
+    long longValue(long defaultValue) {
+        return (kind == NumberParser.INTEGRAL) ? longValue : defaultValue;
+    }
+
+    double doubleValue(double defaultValue) {
+        return (kind != NumberParser.NOT_A_NUMBER) ? doubleValue : defaultValue;
+    }
+
+    boolean booleanValue() {
+        return truthy;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @Override
+    public int hashCode() {
+        // 원본 문자열과 같은 해시코드를 돌려주어 맵 전체의 hashCode가 메모이제이션 여부와 무관하도록 합니다.
+        return text.hashCode();
+    }
+}
@@ -0,0 +1,259 @@
+package util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.Map;
+
+/**
+ * CtxRecordBinder: CtxMap에서 레코드를 만드는 바인더. 레코드 클래스마다 한 번, RecordComponent 정보로부터
+ * "각 컴포넌트를 CtxMap 접근자로 읽어 정규 생성자에 넘기는" MethodHandle 하나를 조립해 두고 재사용합니다.
+ *
+ * <p>조립된 핸들은 {@code new AppContext(ctx.getString("applicationName", null), ..., ctx.getInt("timeoutSeconds", 0), ...)}
+ * 와 같은 직접 호출과 같은 모양이므로, JIT 이후에는 리플렉션이나 인자 배열 없이 손으로 작성한 코드와 같은 경로로 실행됩니다.
+ * 같은 이름과 타입으로 등록된 {@link CtxKey}가 있으면 문자열 대신 그 키로 읽어 슬롯 캐시를 활용합니다.
+ *
+ * <p>컴포넌트 타입별 읽기 규칙: int/long/double/boolean은 getInt/getLong/getDouble/getBoolean(값이 없으면 0/false),
+ * byte/short/float는 getInt/getDouble 결과를 좁혀서, String은 getString(없으면 null),
+ * 그 밖의 타입은 getObject(타입이 맞지 않으면 null)로 읽습니다.
+ *
+ * <p>같은 생성자 핸들에 일반 {@link Map}을 읽는 핸들도 조립해 두어 {@link MapUtils#fromMap(Map, Class)}에 사용합니다.
+ * Map의 값도 위와 같은 규칙으로 변환하며(숫자는 Number 또는 숫자 문자열, 불리언은 Boolean 또는 참 표현 문자열),
+ * 레코드 타입 컴포넌트의 값이 Map이면 중첩 레코드로 변환합니다.
+ */
+final class CtxRecordBinder {
+
+    private static final ClassValue<CtxRecordBinder> BINDERS = new ClassValue<>() {
+        @Override
+        protected CtxRecordBinder computeValue(Class<?> type) {
+            return new CtxRecordBinder(type);
+        }
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** (CtxMap) -> Record 형태로 조립된 바인딩 핸들 */
+    private final MethodHandle binder;
+
+    /** (Map) -> Record 형태로 조립된 바인딩 핸들 */
+    private final MethodHandle mapBinder;
+
+    private CtxRecordBinder(Class<?> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        if (components == null) {
+            throw new IllegalArgumentException("레코드 클래스가 아닙니다: " + type.getName());
+        }
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+        }
+        MethodHandle constructor;
+        try {
+            Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.setAccessible(true);
+            constructor = LOOKUP.unreflectConstructor(canonical);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("레코드 생성자에 접근할 수 없습니다: " + type.getName(), e);
+        }
+        // 생성자의 각 인자 앞에 (CtxMap) -> 컴포넌트 값 읽기 핸들을 끼우고, 모든 CtxMap 인자를 하나로 합침
+        MethodHandle[] readers = new MethodHandle[components.length];
+        for (int i = 0; i < components.length; i++) {
+            readers[i] = reader(components[i].getName(), parameterTypes[i]);
+        }
+        this.binder = assemble(type, constructor, readers, CtxMap.class);
+        for (int i = 0; i < components.length; i++) {
+            readers[i] = mapReader(components[i].getName(), parameterTypes[i]);
+        }
+        this.mapBinder = assemble(type, constructor, readers, Map.class);
+    }
+
+    /** 생성자의 각 인자에 (source) -> 컴포넌트 값 핸들을 끼우고, 모든 source 인자를 하나로 합칩니다. */
+    private static MethodHandle assemble(Class<?> type, MethodHandle constructor, MethodHandle[] readers,
+            Class<?> source) {
+        MethodHandle filtered = MethodHandles.filterArguments(constructor, 0, readers);
+        MethodHandle bound = MethodHandles.permuteArguments(filtered,
+                MethodType.methodType(type, source), new int[readers.length]);
+        return bound.asType(MethodType.methodType(Record.class, source));
+    }
+
+    /**
+     * 레코드 클래스의 바인더를 반환합니다. 처음 요청될 때 한 번 조립되어 캐시됩니다.
+     *
+     * @throws IllegalArgumentException 레코드 클래스가 아니거나 생성자에 접근할 수 없는 경우
+     */
+    static CtxRecordBinder of(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * CtxMap의 값으로 레코드를 생성합니다. 레코드의 컴팩트 생성자가 던진 예외는 그대로 전파됩니다.
+     */
+    Record bind(CtxMap ctx) {
+        try {
+            return (Record) binder.invokeExact(ctx);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("레코드를 생성할 수 없습니다.", e);
+        }
+    }
+
+    /**
+     * 일반 Map의 값으로 레코드를 생성합니다. 레코드의 컴팩트 생성자가 던진 예외는 그대로 전파됩니다.
+     */
+    Record bind(Map<String, ?> map) {
+        try {
+            return (Record) mapBinder.invokeExact(map);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("레코드를 생성할 수 없습니다.", e);
+        }
+    }
+
+    /** 컴포넌트 하나를 읽는 (CtxMap) -> 컴포넌트 타입 핸들을 만듭니다. */
+    private static MethodHandle reader(String name, Class<?> type) {
+        try {
+            if (type == int.class || type == short.class || type == byte.class) {
+                MethodHandle h = (key(name, Integer.class) instanceof CtxKey<?> key)
+                        ? bind("getInt", int.class, CtxKey.class, int.class, key, 0)
+                        : bind("getInt", int.class, String.class, int.class, name, 0);
+                return MethodHandles.explicitCastArguments(h, MethodType.methodType(type, CtxMap.class));
+            }
+            if (type == long.class) {
+                return (key(name, Long.class) instanceof CtxKey<?> key)
+                        ? bind("getLong", long.class, CtxKey.class, long.class, key, 0L)
+                        : bind("getLong", long.class, String.class, long.class, name, 0L);
+            }
+            if (type == double.class || type == float.class) {
+                MethodHandle h = (key(name, Double.class) instanceof CtxKey<?> key)
+                        ? bind("getDouble", double.class, CtxKey.class, double.class, key, 0.0)
+                        : bind("getDouble", double.class, String.class, double.class, name, 0.0);
+                return MethodHandles.explicitCastArguments(h, MethodType.methodType(type, CtxMap.class));
+            }
+            if (type == boolean.class) {
+                return (key(name, Boolean.class) instanceof CtxKey<?> key)
+                        ? bind("getBoolean", boolean.class, CtxKey.class, key)
+                        : bind("getBoolean", boolean.class, String.class, name);
+            }
+            MethodHandle h;
+            if (key(name, type) instanceof CtxKey<?> key) {
+                h = bind("get", Object.class, CtxKey.class, Object.class, key, null);
+            } else if (type == String.class) {
+                h = bind("getString", String.class, String.class, String.class, name, null);
+            } else {
+                Class<?> boxed = MethodType.methodType(type).wrap().returnType();
+                h = bind("getObject", Object.class, String.class, Class.class, name, boxed);
+            }
+            return h.asType(MethodType.methodType(type, CtxMap.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** 컴포넌트 하나를 읽는 (Map) -> 컴포넌트 타입 핸들을 만듭니다. */
+    private static MethodHandle mapReader(String name, Class<?> type) {
+        try {
+            MethodHandle h;
+            if (type == int.class || type == short.class || type == byte.class) {
+                h = mapBind("mapInt", int.class, name);
+            } else if (type == long.class) {
+                h = mapBind("mapLong", long.class, name);
+            } else if (type == double.class || type == float.class) {
+                h = mapBind("mapDouble", double.class, name);
+            } else if (type == boolean.class) {
+                h = mapBind("mapBoolean", boolean.class, name);
+            } else if (type == String.class) {
+                h = mapBind("mapString", String.class, name);
+            } else {
+                Class<?> boxed = MethodType.methodType(type).wrap().returnType();
+                h = MethodHandles.insertArguments(LOOKUP.findStatic(CtxRecordBinder.class, "mapObject",
+                        MethodType.methodType(Object.class, Map.class, String.class, Class.class)), 1, name, boxed);
+                return h.asType(MethodType.methodType(type, Map.class));
+            }
+            return MethodHandles.explicitCastArguments(h, MethodType.methodType(type, Map.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle mapBind(String method, Class<?> returnType, String name)
+            throws ReflectiveOperationException {
+        MethodHandle h = LOOKUP.findStatic(CtxRecordBinder.class, method,
+                MethodType.methodType(returnType, Map.class, String.class));
+        return MethodHandles.insertArguments(h, 1, name);
+    }
+
+    // Map 값 읽기: CtxMap.getInt/getLong/getDouble/getBoolean/getString/getObject와 같은 변환 규칙
+
+    private static int mapInt(Map<String, ?> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof Number n) {
+            return n.intValue();
+        }
+        return (value instanceof String s) ? NumberParser.parseInt(s, 0) : 0;
+    }
+
+    private static long mapLong(Map<String, ?> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        return (value instanceof String s) ? NumberParser.parseLong(s, 0L) : 0L;
+    }
+
+    private static double mapDouble(Map<String, ?> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof Number n) {
+            return n.doubleValue();
+        }
+        return (value instanceof String s) ? NumberParser.parseDouble(s, 0.0) : 0.0;
+    }
+
+    private static boolean mapBoolean(Map<String, ?> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        return (value instanceof String s) && CtxText.isTruthy(s);
+    }
+
+    private static String mapString(Map<String, ?> map, String key) {
+        return (map.get(key) instanceof String s) ? s : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object mapObject(Map<String, ?> map, String key, Class<?> type) {
+        Object value = map.get(key);
+        if (value != null && type.isInstance(value)) {
+            return value;
+        }
+        // 중첩 레코드가 Map으로 표현된 경우 (JSON에서 읽은 맵 등) 같은 방식으로 변환
+        if (value instanceof Map<?, ?> nested && type.isRecord()) {
+            return of(type).bind((Map<String, ?>) nested);
+        }
+        return null;
+    }
+
+    /** CtxMap의 접근자를 찾아 CtxMap 이외의 인자를 고정합니다. */
+    private static MethodHandle bind(String method, Class<?> returnType, Class<?> keyType, Object key)
+            throws ReflectiveOperationException {
+        MethodHandle h = LOOKUP.findVirtual(CtxMap.class, method, MethodType.methodType(returnType, keyType));
+        return MethodHandles.insertArguments(h, 1, key);
+    }
+
+    private static MethodHandle bind(String method, Class<?> returnType, Class<?> keyType, Class<?> defaultType,
+            Object key, Object defaultValue) throws ReflectiveOperationException {
+        MethodHandle h = LOOKUP.findVirtual(CtxMap.class, method,
+                MethodType.methodType(returnType, keyType, defaultType));
+        return MethodHandles.insertArguments(h, 1, key, defaultValue);
+    }
+
+    /** 같은 이름과 타입으로 등록된 CtxKey가 있으면 반환합니다. */
+    private static CtxKey<?> key(String name, Class<?> type) {
+        CtxKey<?> key = CtxKey.lookup(name);
+        return (key != null && key.type() == type) ? key : null;
+    }
+}
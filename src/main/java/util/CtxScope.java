@@ -0,0 +1,124 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.StructuredTaskScope;
+
+/**
+ * CtxScope: CtxMap을 ScopedValue에 바인딩하여 메소드 인자로 넘기지 않고도 현재 컨텍스트를 조회하게 하는 유틸리티.
+ * 바인딩은 {@link #run(CtxMap, Runnable)}/{@link #call(CtxMap, Callable)}의 실행 범위 안에서만 유효하며,
+ * StructuredTaskScope로 포크한 서브태스크(가상 스레드)에는 복사 없이 그대로 상속됩니다.
+ * ThreadLocal과 달리 스레드마다 맵을 두지 않으므로 가상 스레드가 많아도 스레드당 추가 메모리가 없습니다.
+ *
+ * <p>JDK 21에서 ScopedValue와 StructuredTaskScope는 프리뷰 API이므로 {@code --enable-preview}가 필요합니다.
+ */
+public final class CtxScope {
+
+    private static final ScopedValue<CtxMap> CURRENT = ScopedValue.newInstance();
+
+    private CtxScope() {
+    }
+
+    /**
+     * 현재 스레드에 CtxMap이 바인딩되어 있는지 확인합니다.
+     */
+    public static boolean isBound() {
+        return CURRENT.isBound();
+    }
+
+    /**
+     * 현재 바인딩된 CtxMap을 반환합니다.
+     *
+     * @return 현재 컨텍스트
+     * @throws IllegalStateException 바인딩 범위 밖에서 호출된 경우
+     */
+    public static CtxMap current() {
+        if (!CURRENT.isBound()) {
+            throw new IllegalStateException("CtxScope에 바인딩된 CtxMap이 없습니다.");
+        }
+        return CURRENT.get();
+    }
+
+    /**
+     * 현재 바인딩된 CtxMap을 반환합니다. 바인딩되어 있지 않으면 기본값을 반환합니다.
+     */
+    public static CtxMap currentOrElse(CtxMap defaultValue) {
+        return CURRENT.orElse(defaultValue);
+    }
+
+    /**
+     * ctx를 현재 컨텍스트로 바인딩한 상태에서 작업을 실행합니다. 작업이 끝나면 이전 바인딩으로 돌아갑니다.
+     *
+     * @param ctx  바인딩할 컨텍스트
+     * @param task 실행할 작업
+     */
+    public static void run(CtxMap ctx, Runnable task) {
+        ScopedValue.where(CURRENT, ctx).run(task);
+    }
+
+    /**
+     * ctx를 현재 컨텍스트로 바인딩한 상태에서 작업을 실행하고 결과를 반환합니다.
+     *
+     * @see #run(CtxMap, Runnable)
+     */
+    public static <T> T call(CtxMap ctx, Callable<? extends T> task) throws Exception {
+        return ScopedValue.where(CURRENT, ctx).call(task);
+    }
+
+    /**
+     * 현재 컨텍스트의 하위 스코프({@link CtxMap#child()})를 바인딩한 상태에서 작업을 실행합니다.
+     * 작업 안의 쓰기는 하위 스코프에만 남고 바깥 컨텍스트에는 반영되지 않습니다.
+     *
+     * @throws IllegalStateException 바인딩 범위 밖에서 호출된 경우
+     */
+    public static void runInChild(Runnable task) {
+        run(current().child(), task);
+    }
+
+    /**
+     * StructuredTaskScope에 작업을 포크합니다. 서브태스크에는 현재 컨텍스트의 하위 스코프가 바인딩되므로
+     * 형제 서브태스크끼리 쓰기가 섞이지 않으며, 하위 스코프 생성은 컨텍스트 크기와 무관하게 O(1)입니다.
+     * 바인딩되지 않은 상태에서 호출하면 작업을 그대로 포크합니다.
+     * StructuredTaskScope의 규칙에 따라 scope를 연 스레드에서 호출해야 합니다.
+     *
+     * @param scope 작업을 포크할 스코프
+     * @param task  서브태스크에서 실행할 작업
+     * @param <T>   결과 타입
+     * @return 포크된 서브태스크
+     */
+    public static <T> StructuredTaskScope.Subtask<T> fork(StructuredTaskScope<? super T> scope,
+            Callable<? extends T> task) {
+        CtxMap parent = CURRENT.orElse(null);
+        if (parent == null) {
+            return scope.fork(task);
+        }
+        return scope.fork(() -> ScopedValue.where(CURRENT, parent.child()).<T>call(task));
+    }
+
+    /**
+     * 작업들을 각각 가상 스레드 서브태스크로 실행하고, 입력 순서대로 결과를 반환합니다.
+     * 하나라도 실패하면 나머지를 취소하고 첫 번째 실패를 ExecutionException으로 전달합니다.
+     *
+     * @param tasks 실행할 작업 목록
+     * @param <T>   결과 타입
+     * @return 입력 순서의 결과 목록
+     * @see #fork(StructuredTaskScope, Callable)
+     */
+    public static <T> List<T> invokeAll(List<? extends Callable<? extends T>> tasks)
+            throws InterruptedException, ExecutionException {
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            List<StructuredTaskScope.Subtask<T>> subtasks = new ArrayList<>(tasks.size());
+            for (Callable<? extends T> task : tasks) {
+                subtasks.add(fork(scope, task));
+            }
+            scope.join().throwIfFailed();
+            List<T> results = new ArrayList<>(subtasks.size());
+            for (StructuredTaskScope.Subtask<T> subtask : subtasks) {
+                results.add(subtask.get());
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package util;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * CtxSlot: CtxMap 내부에서 int/long/double/boolean 값을 박싱 없이 보관하는 슬롯.
+ * 값은 항상 long 비트(bits)로 저장되며, 같은 종류(kind)의 값이 다시 저장되면
+ * 새 객체를 만들지 않고 슬롯의 비트만 갱신합니다.
+ * CtxKey로 등록된 키의 일반 객체 값은 REF 슬롯에 보관되어, CtxMap이 슬롯 참조를 캐시해 둘 수 있습니다.
+ * 외부에는 노출되지 않으며, CtxMap이 조회 시점에 필요한 형태로 변환합니다.
+ */
+final class CtxSlot implements Serializable {
+
+    private static final long serialVersionUID = 20240114L;
+
+    static final byte INT = 1;
+    static final byte LONG = 2;
+    static final byte DOUBLE = 3;
+    static final byte BOOLEAN = 4;
+    static final byte REF = 5;
+
+    /** 슬롯에 저장된 값의 종류. 종류가 바뀌면 슬롯 자체를 교체합니다. */
+    final byte kind;
+
+    /** 값의 비트 표현. double은 Double.doubleToRawLongBits, boolean은 0/1로 저장합니다. */
+    volatile long bits;
+
+    /** REF 슬롯의 값. 등록된 CtxKey의 타입과 일치하는 값만 저장됩니다. */
+    volatile Object ref;
+
+    /** 슬롯이 저장소에서 제거되었거나 다른 슬롯으로 교체되었는지 여부. CtxKey 캐시 무효화에 사용됩니다. */
+    volatile boolean retired;
+
+    /** 마지막으로 박싱한 값을 감싼 Optional. 값이 바뀌지 않는 동안 getOptional/getObject가 재사용합니다. */
+    private transient volatile Optional<Object> boxed;
+
+    /** REF 슬롯에 든 문자열의 파싱 결과. ref가 바뀌면 원본 문자열이 달라지므로 {@link #parsed()}가 무시합니다. */
+    private transient volatile CtxParsed parsed;
+
+    private CtxSlot(byte kind, long bits) {
+        this.kind = kind;
+        this.bits = bits;
+    }
+
+    private CtxSlot(Object ref) {
+        this.kind = REF;
+        this.ref = ref;
+    }
+
+    static CtxSlot ofRef(Object value) {
+        return new CtxSlot(value);
+    }
+
+    /** 메모이제이션된 문자열을 파싱 결과와 함께 REF 슬롯으로 옮깁니다. */
+    static CtxSlot ofParsed(CtxParsed parsed) {
+        CtxSlot slot = new CtxSlot(parsed.text);
+        slot.parsed = parsed;
+        return slot;
+    }
+
+    static CtxSlot ofInt(int value) {
+        return new CtxSlot(INT, value);
+    }
+
+    static CtxSlot ofLong(long value) {
+        return new CtxSlot(LONG, value);
+    }
+
+    static CtxSlot ofDouble(double value) {
+        return new CtxSlot(DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    static CtxSlot ofBoolean(boolean value) {
+        return new CtxSlot(BOOLEAN, value ? 1L : 0L);
+    }
+
+    /** 현재 ref 문자열의 파싱 결과를 반환합니다. 기록된 적이 없거나 ref가 바뀌었으면 null을 반환합니다. */
+    CtxParsed parsed() {
+        CtxParsed p = parsed;
+        return (p != null && p.text == ref) ? p : null;
+    }
+
+    void parsed(CtxParsed p) {
+        parsed = p;
+    }
+
+    /** Number와 동일하게 취급되는 슬롯인지 확인합니다. (boolean 슬롯은 숫자가 아님) */
+    boolean isNumeric() {
+        return kind == INT || kind == LONG || kind == DOUBLE;
+    }
+
+    int intValue() {
+        return kind == DOUBLE ? (int) Double.longBitsToDouble(bits) : (int) bits;
+    }
+
+    long longValue() {
+        return kind == DOUBLE ? (long) Double.longBitsToDouble(bits) : bits;
+    }
+
+    double doubleValue() {
+        return kind == DOUBLE ? Double.longBitsToDouble(bits) : (double) bits;
+    }
+
+    boolean booleanValue() {
+        return bits != 0L;
+    }
+
+    /**
+     * 슬롯 값을 대응하는 래퍼 타입(Integer, Long, Double, Boolean)으로 박싱합니다.
+     * REF 슬롯은 보관 중인 참조를 그대로 반환합니다.
+     * getObject, asReadOnlyMap 등 Object를 반환해야 하는 경로에서만 사용됩니다.
+     */
+    Object box() {
+        return switch (kind) {
+            case INT -> (int) bits;
+            case LONG -> bits;
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            case BOOLEAN -> bits != 0L;
+            default -> ref;
+        };
+    }
+
+    /**
+     * 현재 값을 감싼 Optional을 반환합니다. 직전에 만든 Optional이 현재 값과 같으면 그대로 재사용하므로,
+     * 값이 바뀌지 않는 한 반복 호출해도 객체를 할당하지 않습니다.
+     */
+    Optional<Object> boxed() {
+        Optional<Object> cached = boxed;
+        if (cached == null || !holds(cached.get())) {
+            cached = Optional.of(box());
+            boxed = cached;
+        }
+        return cached;
+    }
+
+    /** 박싱된 값이 현재 슬롯 값과 같은지 박싱 없이 비교합니다. */
+    private boolean holds(Object value) {
+        return switch (kind) {
+            case INT -> value instanceof Integer i && i == (int) bits;
+            case LONG -> value instanceof Long l && l == bits;
+            case DOUBLE -> value instanceof Double d && Double.doubleToRawLongBits(d) == bits;
+            case BOOLEAN -> value instanceof Boolean b && b == (bits != 0L);
+            default -> value == ref;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(box());
+    }
+
+    @Override
+    public int hashCode() {
+        // 박싱된 값과 동일한 해시코드를 돌려주어 맵 전체의 hashCode가 저장 방식과 무관하도록 합니다.
+        return switch (kind) {
+            case INT -> Integer.hashCode((int) bits);
+            case LONG -> Long.hashCode(bits);
+            case DOUBLE -> Double.hashCode(Double.longBitsToDouble(bits));
+            case BOOLEAN -> Boolean.hashCode(bits != 0L);
+            default -> ref.hashCode();
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CtxStorage: CtxMap을 생성할 때 선택하는 내부 저장소 전략.
+ * 어떤 전략을 선택해도 CtxMap의 공개 접근자 API와 동작은 같고, 동시성 보장과 읽기/쓰기 비용만 달라집니다.
+ *
+ * @see CtxMap#create(CtxStorage)
+ * @see CtxMap#of(Map, CtxStorage)
+ */
+public enum CtxStorage {
+
+    /**
+     * 동기화하지 않는 HashMap. 한 스레드에서만 사용하는 요청 컨텍스트에 적합하며,
+     * 여러 스레드가 동시에 쓰면 안 됩니다.
+     */
+    UNSYNCHRONIZED {
+        @Override
+        Map<String, Object> create(Map<String, ?> initial) {
+            Map<String, Object> map = new HashMap<>(Math.max(16, (int) (initial.size() / 0.75f) + 1));
+            // ConcurrentHashMap과 같이 null 키/값은 허용하지 않음
+            initial.forEach((k, v) -> map.put(Objects.requireNonNull(k), Objects.requireNonNull(v)));
+            return map;
+        }
+    },
+
+    /**
+     * 여러 스레드가 함께 읽고 쓰는 컨텍스트를 위한 기본 전략입니다. 엔트리가 적은 동안은 평탄한 배열
+     * ({@link SmallStorage})로 저장하고, {@value SmallStorage#THRESHOLD}개를 넘으면 ConcurrentHashMap으로 전환합니다.
+     */
+    CONCURRENT {
+        @Override
+        Map<String, Object> create(Map<String, ?> initial) {
+            return (initial.size() > SmallStorage.THRESHOLD) ? new ConcurrentHashMap<>(initial) : new SmallStorage(initial);
+        }
+    },
+
+    /**
+     * 불변 테이블을 쓰기마다 복사해서 교체하는 copy-on-write 저장소. 조회는 잠금 없이 연속된 배열을 읽고,
+     * 쓰기는 엔트리 수에 비례하는 비용이 듭니다. 한 번 구성한 뒤 여러 스레드가 주로 읽기만 하는 컨텍스트에 적합합니다.
+     */
+    READ_OPTIMIZED {
+        @Override
+        Map<String, Object> create(Map<String, ?> initial) {
+            return new ReadOptimizedStorage(initial);
+        }
+    },
+
+    /**
+     * 불변 해시 트라이(HAMT). 스냅샷({@link CtxMap#asReadOnlyMap()})이 O(1)이고 쓰기는 경로 복사 비용이 듭니다.
+     *
+     * @see CtxMap#persistent()
+     */
+    PERSISTENT {
+        @Override
+        Map<String, Object> create(Map<String, ?> initial) {
+            return new TrieStorage(initial);
+        }
+    },
+
+    /**
+     * Java 힙 밖(FFM MemorySegment)의 해시 테이블. 엔트리가 매우 많은 컨텍스트의 힙 사용량과 GC 부담을 줄입니다.
+     *
+     * @see CtxMap#offHeap(int)
+     */
+    OFF_HEAP {
+        @Override
+        Map<String, Object> create(Map<String, ?> initial) {
+            OffHeapStorage storage = new OffHeapStorage(initial.size());
+            initial.forEach(storage::put);
+            return storage;
+        }
+    };
+
+    /**
+     * 초기 엔트리를 담은 새 저장소를 만듭니다. 초기 맵은 복사되며 이후의 변경과 무관합니다.
+     */
+    abstract Map<String, Object> create(Map<String, ?> initial);
+}
@@ -0,0 +1,76 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * CtxStore: 메모리 매핑된 파일에 저장되는 CtxMap의 핸들.
+ * {@link #ctx()}가 반환하는 CtxMap의 쓰기는 파일의 추가 영역에 즉시 기록되고, 다시 열면 역직렬화 없이
+ * 헤더 검증과 추가 영역 재생만으로 이전 상태가 복원됩니다. 값은 처음 조회될 때 디스크에서 읽혀 들어옵니다.
+ *
+ * <pre>{@code
+ * try (CtxStore store = CtxStore.open(Path.of("context.ctx"))) {
+ *     CtxMap ctx = store.ctx();
+ *     ctx.putInt("requestCount", ctx.getInt("requestCount") + 1);
+ * }
+ * }</pre>
+ *
+ * 쓰기는 운영체제 페이지 캐시까지만 보장되며, {@link #sync()} 또는 {@link #close()}를 호출하면 디스크에 강제로 기록됩니다.
+ * 추가 영역이 커지면 백그라운드 스레드에서 자동으로 압축됩니다. 새 파일을 기록하는 동안에도 읽기와 쓰기는 계속되고,
+ * 파일을 교체하는 순간에만 잠깐 멈춥니다. 백그라운드 압축의 입출력 오류는 다음 {@link #sync()}, {@link #compact()},
+ * {@link #close()}에서 던져집니다.
+ */
+public final class CtxStore implements Closeable {
+
+    private final MappedStorage storage;
+    private final CtxMap ctx;
+
+    private CtxStore(MappedStorage storage) {
+        this.storage = storage;
+        this.ctx = CtxMap.wrap(storage);
+    }
+
+    /**
+     * 저장소 파일을 엽니다. 파일이 없으면 빈 저장소를 만듭니다.
+     * 이전 프로세스가 비정상 종료하여 파일 끝의 레코드가 손상되었으면 손상된 부분을 잘라내고 엽니다.
+     *
+     * @param file 저장소 파일 경로
+     * @return 열린 저장소
+     * @throws IOException 파일을 열 수 없거나 저장소 파일이 아닌 경우
+     */
+    public static CtxStore open(Path file) throws IOException {
+        return new CtxStore(MappedStorage.open(file));
+    }
+
+    /**
+     * 파일에 저장되는 CtxMap을 반환합니다. 저장소를 닫은 뒤에 접근하면 IllegalStateException이 발생합니다.
+     */
+    public CtxMap ctx() {
+        return ctx;
+    }
+
+    /**
+     * 지금까지의 쓰기를 디스크에 강제로 기록합니다.
+     */
+    public void sync() throws IOException {
+        storage.sync();
+    }
+
+    /**
+     * 살아있는 엔트리와 새 인덱스로 파일을 다시 써서 추가 영역을 비웁니다.
+     * 새 파일을 모두 기록한 뒤 원자적으로 교체하므로, 도중에 중단되어도 기존 파일은 그대로 남습니다.
+     * 자동 압축과 달리 다시 쓰는 동안 이 저장소의 읽기와 쓰기가 모두 멈춥니다.
+     */
+    public void compact() throws IOException {
+        storage.compact();
+    }
+
+    /**
+     * 진행 중인 백그라운드 압축이 끝나기를 기다린 뒤, 쓰기를 디스크에 기록하고 파일 매핑을 해제합니다.
+     */
+    @Override
+    public void close() throws IOException {
+        storage.close();
+    }
+}
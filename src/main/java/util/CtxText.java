@@ -0,0 +1,51 @@
+package util;
+
+/**
+ * CtxText: CtxMap의 문자열 값을 불리언으로 해석하고 공백 범위를 계산하는 내부 유틸리티.
+ * 숫자 변환은 NumberParser가 담당합니다.
+ * trim()이나 toLowerCase()처럼 새 문자열을 만드는 호출 없이, 원본 문자열의 인덱스 범위만으로 처리하여
+ * 정상적인 변환 경로에서는 객체를 할당하지 않습니다.
+ */
+final class CtxText {
+
+    /** getBoolean이 true로 간주하는 문자열 (대소문자 무관) */
+    private static final String[] TRUTHY = { "true", "1", "y", "yes", "on" };
+
+    private CtxText() {
+    }
+
+    /**
+     * String.trim()과 같은 기준(공백 이하의 문자)으로 앞쪽 공백을 건너뛴 시작 인덱스를 반환합니다.
+     */
+    static int trimStart(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * String.trim()과 같은 기준으로 뒤쪽 공백을 제외한 끝 인덱스(exclusive)를 반환합니다.
+     */
+    static int trimEnd(CharSequence s, int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * "true", "1", "y", "yes", "on" (대소문자 무관, 앞뒤 공백 무시)이면 true를 반환합니다.
+     */
+    static boolean isTruthy(String s) {
+        int from = trimStart(s, 0, s.length());
+        int to = trimEnd(s, from, s.length());
+        int len = to - from;
+        for (String token : TRUTHY) {
+            if (token.length() == len && s.regionMatches(true, from, token, 0, len)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
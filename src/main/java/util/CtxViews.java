@@ -0,0 +1,289 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * CtxViews: CtxMap.getMap/getList가 반환하는 읽기 전용 지연(lazy) 뷰를 만드는 내부 유틸리티.
+ * 원본 컬렉션을 복사하지 않고, 키/요소의 타입을 뷰를 처음 사용할 때 검사합니다. 뷰를 만드는 비용은 원본 크기와 무관합니다.
+ * 리스트 뷰는 타입이 맞는 요소의 위치를 한 번 계산해 두므로 get(i)가 원본을 다시 훑지 않고,
+ * 맵 뷰는 원본이 수정 불가 맵(Map.of, Collections.unmodifiable*, asReadOnlyMap 결과 등)이고 키가 모두 String이면
+ * 크기와 순회를 원본에 그대로 위임합니다.
+ */
+final class CtxViews {
+
+    /** 수정 불가로 알려진 Map 구현 클래스 */
+    private static final Set<Class<?>> UNMODIFIABLE_MAPS = Set.copyOf(List.of(
+            Map.of().getClass(),
+            Map.of(1, 1).getClass(),
+            Map.of(1, 1, 2, 2).getClass(),
+            Collections.emptyMap().getClass(),
+            Collections.singletonMap(1, 1).getClass(),
+            Collections.unmodifiableMap(new HashMap<>()).getClass(),
+            Collections.unmodifiableSortedMap(new TreeMap<>()).getClass()));
+
+    private CtxViews() {
+    }
+
+    /**
+     * 리스트의 요소 중 elementType에 해당하는 요소만 보이는 읽기 전용 뷰를 반환합니다.
+     * 원본이 RandomAccess이면 뷰도 RandomAccess입니다.
+     */
+    static <T> List<T> typedList(List<?> source, Class<T> elementType) {
+        return source instanceof RandomAccess
+                ? new RandomAccessTypedListView<>(source, elementType)
+                : new TypedListView<>(source, elementType);
+    }
+
+    /**
+     * 맵의 엔트리 중 String 키를 가진 엔트리만 보이는 읽기 전용 뷰를 반환합니다.
+     */
+    static Map<String, Object> stringKeyMap(Map<?, ?> source) {
+        if (source instanceof HashTrie.MapView snapshot) {
+            // persistent 모드의 스냅샷은 불변이고 키가 모두 String이므로 검사 없이 반환
+            return snapshot;
+        }
+        return new StringKeyMapView(source, UNMODIFIABLE_MAPS.contains(source.getClass()));
+    }
+
+    /**
+     * 요소 타입을 걸러내는 리스트 뷰. 처음 size/get을 호출할 때 타입이 맞는 요소의 위치를 한 번 계산하고,
+     * 모든 요소가 맞으면 위치를 기록하지 않고 원본에 그대로 위임합니다. 원본의 크기가 바뀌었거나 기록한 위치의 요소가
+     * 더 이상 맞지 않으면 다시 계산합니다. 순회는 원본을 그대로 걸러내므로 항상 최신 상태를 봅니다.
+     */
+    private static class TypedListView<T> extends AbstractList<T> {
+
+        private final List<?> source;
+        private final Class<T> type;
+        private Index index;
+
+        /**
+         * @param sourceSize 계산했을 때의 원본 크기
+         * @param positions  타입이 맞는 요소의 원본 위치. 모두 맞으면 null
+         */
+        private record Index(int sourceSize, int[] positions) {
+
+            int size() {
+                return positions == null ? sourceSize : positions.length;
+            }
+
+            int position(int i) {
+                return positions == null ? i : positions[i];
+            }
+        }
+
+        TypedListView(List<?> source, Class<T> type) {
+            this.source = source;
+            this.type = type;
+        }
+
+        private Index index() {
+            Index current = index;
+            int sourceSize = source.size();
+            if (current != null && current.sourceSize == sourceSize) {
+                return current;
+            }
+            int[] positions = new int[sourceSize];
+            int count = 0;
+            int i = 0;
+            for (Object o : source) {
+                if (type.isInstance(o)) {
+                    positions[count++] = i;
+                }
+                i++;
+            }
+            current = new Index(sourceSize, count == sourceSize ? null : Arrays.copyOf(positions, count));
+            index = current;
+            return current;
+        }
+
+        @Override
+        public T get(int i) {
+            Index current = index();
+            Object o = source.get(current.position(Objects.checkIndex(i, current.size())));
+            if (!type.isInstance(o)) {
+                // 크기는 같지만 원본 요소가 바뀜
+                index = null;
+                current = index();
+                o = source.get(current.position(Objects.checkIndex(i, current.size())));
+            }
+            return type.cast(o);
+        }
+
+        @Override
+        public int size() {
+            return index().size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new FilteringIterator<>(source.iterator(), type);
+        }
+    }
+
+    private static final class RandomAccessTypedListView<T> extends TypedListView<T> implements RandomAccess {
+
+        RandomAccessTypedListView(List<?> source, Class<T> type) {
+            super(source, type);
+        }
+    }
+
+    /**
+     * String 키만 보이는 맵 뷰. get/containsKey는 원본에 위임하고, 순회 시점에 키 타입을 걸러냅니다.
+     * 원본이 수정 불가 맵이면 키 타입을 처음 한 번만 검사하고, 모두 String이면 크기와 순회를 원본에 위임합니다.
+     */
+    private static final class StringKeyMapView extends AbstractMap<String, Object> {
+
+        private final Map<?, ?> source;
+        private final boolean unmodifiable;
+        /** 수정 불가 원본의 키가 모두 String인지 (처음 검사할 때까지 null) */
+        private Boolean allStringKeys;
+
+        StringKeyMapView(Map<?, ?> source, boolean unmodifiable) {
+            this.source = source;
+            this.unmodifiable = unmodifiable;
+        }
+
+        /** 수정 불가 원본이고 키가 모두 String이면 원본을 그대로 반환합니다. 아니면 null을 반환합니다. */
+        private Map<String, Object> delegate() {
+            if (!unmodifiable) {
+                return null;
+            }
+            Boolean all = allStringKeys;
+            if (all == null) {
+                all = true;
+                for (Object k : source.keySet()) {
+                    if (!(k instanceof String)) {
+                        all = false;
+                        break;
+                    }
+                }
+                allStringKeys = all;
+            }
+            if (!all) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> same = (Map<String, Object>) source;
+            return same;
+        }
+
+        @Override
+        public int size() {
+            Map<String, Object> same = delegate();
+            return same != null ? same.size() : super.size();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return (key instanceof String) ? source.get(key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String) && source.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            Map<String, Object> same = delegate();
+            if (same != null) {
+                return same.entrySet();
+            }
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private final Iterator<? extends Entry<?, ?>> it = source.entrySet().iterator();
+                        private Entry<String, Object> next = advance();
+
+                        private Entry<String, Object> advance() {
+                            while (it.hasNext()) {
+                                Entry<?, ?> e = it.next();
+                                if (e.getKey() instanceof String k) {
+                                    return new SimpleImmutableEntry<>(k, e.getValue());
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, Object> current = next;
+                            next = advance();
+                            return current;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int count = 0;
+                    for (Object k : source.keySet()) {
+                        if (k instanceof String) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            };
+        }
+    }
+
+    /**
+     * 타입이 맞는 요소만 돌려주는 읽기 전용 반복자.
+     */
+    private static final class FilteringIterator<T> implements Iterator<T> {
+
+        private final Iterator<?> it;
+        private final Class<T> type;
+        private T next;
+        private boolean ready;
+
+        FilteringIterator(Iterator<?> it, Class<T> type) {
+            this.it = it;
+            this.type = type;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!ready && it.hasNext()) {
+                Object o = it.next();
+                if (type.isInstance(o)) {
+                    next = type.cast(o);
+                    ready = true;
+                }
+            }
+            return ready;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            return next;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package util;
+
+/**
+ * DecodingStorage: 조회할 때마다 저장된 바이트에서 값을 새로 복원하여 반환하는 저장소의 표시 인터페이스.
+ * ({@link MappedStorage}, {@link OffHeapStorage})
+ *
+ * <p>이런 저장소는 조회 결과가 저장된 객체 자체가 아니므로, CtxMap은 읽기 경로에서 값을 슬롯이나
+ * CtxParsed로 교체하지 않습니다. 교체해도 다음 조회에서 다시 새 객체가 나오므로 캐시 효과가 없고,
+ * 파일 저장소에서는 읽기마다 레코드가 덧붙여져 파일이 커지기 때문입니다.
+ */
+interface DecodingStorage {
+}
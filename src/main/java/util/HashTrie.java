@@ -0,0 +1,422 @@
+package util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * HashTrie: String 키를 사용하는 불변(persistent) 해시 배열 매핑 트라이(HAMT).
+ * put/remove는 원본을 수정하지 않고, 변경된 경로의 노드만 복사한 새 트라이를 반환합니다(구조 공유).
+ * 따라서 특정 시점의 트라이 참조를 보관하는 것만으로 크기와 무관하게 O(1) 스냅샷이 됩니다.
+ *
+ * <p>각 노드는 [키, 값] 쌍을 평탄한 배열에 저장하며, 키 자리가 null이면 값 자리에 하위 노드가 들어있습니다.
+ * 해시가 완전히 같은 키들은 CollisionNode에 선형으로 저장됩니다.
+ */
+final class HashTrie implements Serializable {
+
+    private static final long serialVersionUID = 20240114L;
+
+    /** 비어있는 트라이 */
+    static final HashTrie EMPTY = new HashTrie(null, 0);
+
+    /** 노드 깊이의 상한 (32비트 해시 / 5비트 = 7단계 + 충돌 노드) */
+    private static final int MAX_DEPTH = 8;
+
+    private final Node root;
+    private final int size;
+
+    private HashTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 키에 해당하는 값을 반환합니다. 없으면 null을 반환합니다.
+     */
+    Object get(String key) {
+        return (root == null) ? null : root.find(0, hash(key), key);
+    }
+
+    /**
+     * 키-값을 추가하거나 교체한 새 트라이를 반환합니다. 값이 같은 객체이면 자신을 그대로 반환합니다.
+     */
+    HashTrie put(String key, Object value) {
+        Change change = new Change();
+        Node base = (root == null) ? BitmapNode.EMPTY : root;
+        Node next = base.assoc(0, hash(key), key, value, change);
+        if (next == root) {
+            return this;
+        }
+        return new HashTrie(next, change.added ? size + 1 : size);
+    }
+
+    /**
+     * 키를 제거한 새 트라이를 반환합니다. 키가 없으면 자신을 그대로 반환합니다.
+     */
+    HashTrie remove(String key) {
+        if (root == null) {
+            return this;
+        }
+        Node next = root.without(0, hash(key), key);
+        if (next == root) {
+            return this;
+        }
+        return new HashTrie(next, size - 1);
+    }
+
+    void forEach(BiConsumer<String, Object> action) {
+        if (root != null) {
+            root.forEach(action);
+        }
+    }
+
+    Iterator<Map.Entry<String, Object>> iterator(UnaryOperator<Object> valueView) {
+        return new TrieIterator(root, valueView);
+    }
+
+    private static int hash(String key) {
+        // 상위 비트를 섞어 상위 레벨에서의 분포를 개선
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 31);
+    }
+
+    /** assoc 중 새 키가 추가되었는지 전달받기 위한 holder */
+    private static final class Change {
+        boolean added;
+    }
+
+    private abstract static class Node implements Serializable {
+
+        private static final long serialVersionUID = 20240114L;
+
+        /** [키, 값] 쌍 배열. 키가 null이면 값 자리는 하위 노드 */
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, String key);
+
+        abstract Node assoc(int shift, int hash, String key, Object value, Change change);
+
+        /** 키를 제거한 노드를 반환합니다. 노드가 비게 되면 null, 키가 없으면 자신을 반환합니다. */
+        abstract Node without(int shift, int hash, String key);
+
+        final void forEach(BiConsumer<String, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept((String) array[i], array[i + 1]);
+                }
+            }
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+
+        private static final long serialVersionUID = 20240114L;
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + 5, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        Node assoc(int shift, int hash, String key, Object value, Change change) {
+            int bit = bitpos(hash, shift);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                change.added = true;
+                Object[] grown = new Object[array.length + 2];
+                System.arraycopy(array, 0, grown, 0, i);
+                grown[i] = key;
+                grown[i + 1] = value;
+                System.arraycopy(array, i, grown, i + 2, array.length - i);
+                return new BitmapNode(bitmap | bit, grown);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node sub = ((Node) v).assoc(shift + 5, hash, key, value, change);
+                return (sub == v) ? this : new BitmapNode(bitmap, with(array, i + 1, sub));
+            }
+            if (key.equals(k)) {
+                return (value == v) ? this : new BitmapNode(bitmap, with(array, i + 1, value));
+            }
+            // 같은 위치에 다른 키가 있으면 하위 노드로 분기
+            change.added = true;
+            Node sub = split(shift + 5, (String) k, v, hash, key, value);
+            Object[] copy = with(array, i + 1, sub);
+            copy[i] = null;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Node without(int shift, int hash, String key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node sub = (Node) array[i + 1];
+                Node next = sub.without(shift + 5, hash, key);
+                if (next == sub) {
+                    return this;
+                }
+                if (next != null) {
+                    return new BitmapNode(bitmap, with(array, i + 1, next));
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, shrunk);
+        }
+
+        private static Node split(int shift, String k1, Object v1, int h2, String k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+            }
+            Change ignored = new Change();
+            return EMPTY.assoc(shift, h1, k1, v1, ignored).assoc(shift, h2, k2, v2, ignored);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+
+        private static final long serialVersionUID = 20240114L;
+
+        private final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            int i = indexOf(key);
+            return (i < 0) ? null : array[i + 1];
+        }
+
+        @Override
+        Node assoc(int shift, int hash, String key, Object value, Change change) {
+            if (hash != this.hash) {
+                // 해시가 다른 키가 들어오면 이 노드를 하위 노드로 갖는 비트맵 노드로 감쌈
+                BitmapNode parent = new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this });
+                return parent.assoc(shift, hash, key, value, change);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                return (array[i + 1] == value) ? this : new CollisionNode(hash, with(array, i + 1, value));
+            }
+            change.added = true;
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            return new CollisionNode(hash, grown);
+        }
+
+        @Override
+        Node without(int shift, int hash, String key) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            return new CollisionNode(hash, shrunk);
+        }
+    }
+
+    private static Object[] with(Object[] array, int i, Object value) {
+        Object[] copy = array.clone();
+        copy[i] = value;
+        return copy;
+    }
+
+    /**
+     * 트라이를 깊이 우선으로 순회하는 반복자. 노드 깊이가 고정 상한을 가지므로 스택을 배열로 관리합니다.
+     */
+    private static final class TrieIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final Object[][] stack = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private final UnaryOperator<Object> valueView;
+        private int depth = -1;
+        private Map.Entry<String, Object> next;
+
+        TrieIterator(Node root, UnaryOperator<Object> valueView) {
+            this.valueView = valueView;
+            if (root != null) {
+                push(root.array);
+            }
+            advance();
+        }
+
+        private void push(Object[] array) {
+            depth++;
+            stack[depth] = array;
+            positions[depth] = 0;
+        }
+
+        private void advance() {
+            while (depth >= 0) {
+                Object[] array = stack[depth];
+                int p = positions[depth];
+                if (p >= array.length) {
+                    stack[depth--] = null;
+                    continue;
+                }
+                positions[depth] = p + 2;
+                if (array[p] == null) {
+                    push(((Node) array[p + 1]).array);
+                } else {
+                    next = new AbstractMap.SimpleImmutableEntry<>((String) array[p], valueView.apply(array[p + 1]));
+                    return;
+                }
+            }
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Object> current = next;
+            advance();
+            return current;
+        }
+    }
+
+    /**
+     * 트라이 스냅샷을 읽기 전용 Map으로 보여주는 뷰. 트라이가 불변이므로 생성 비용은 O(1)이며,
+     * 값은 조회 시점에 valueView로 변환됩니다(CtxMap의 내부 슬롯을 박싱하는 용도).
+     */
+    static final class MapView extends AbstractMap<String, Object> implements Serializable {
+
+        private static final long serialVersionUID = 20240114L;
+
+        private final transient HashTrie trie;
+        private final transient UnaryOperator<Object> valueView;
+
+        MapView(HashTrie trie, UnaryOperator<Object> valueView) {
+            this.trie = trie;
+            this.valueView = valueView;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof String k)) {
+                return null;
+            }
+            Object raw = trie.get(k);
+            return (raw == null) ? null : valueView.apply(raw);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String k) && trie.get(k) != null;
+        }
+
+        @Override
+        public int size() {
+            return trie.size();
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super String, ? super Object> action) {
+            trie.forEach((k, v) -> action.accept(k, valueView.apply(v)));
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return trie.iterator(valueView);
+                }
+
+                @Override
+                public int size() {
+                    return trie.size();
+                }
+            };
+        }
+
+        /**
+         * 직렬화 시에는 변환된 값으로 채운 일반 읽기 전용 맵으로 대체합니다.
+         */
+        private Object writeReplace() {
+            return Collections.unmodifiableMap(new HashMap<>(this));
+        }
+    }
+}
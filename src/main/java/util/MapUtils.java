@@ -3,26 +3,481 @@ package util;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * MapUtils: 객체(Object, DTO, Map 등)를 Map<String, Object>로 변환하는 유틸리티.
+ * MapUtils: 객체(Object, DTO, Map 등)를 Map<String, Object>로 변환하고, Map에서 레코드를 다시 만드는 유틸리티.
  * 내부적으로 Jackson의 ObjectMapper.convertValue를 사용하여 unchecked cast 경고를 방지합니다.
+ * 레코드는 Jackson을 거치지 않고, 생성된 변환기({@link CtxMapped}) 또는 클래스마다 캐시한 접근자로 컴포넌트를 읽어 바로 맵에 담습니다.
  */
 public final class MapUtils {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** 레코드 클래스 -> 프로퍼티 접근자 목록. Jackson 애너테이션이 있는 등 직접 변환할 수 없는 클래스는 null입니다. */
+    private static final ClassValue<RecordMapper> RECORD_MAPPERS = new ClassValue<>() {
+        @Override
+        protected RecordMapper computeValue(Class<?> type) {
+            return RecordMapper.create(type);
+        }
+    };
+
+    /** 이 개수보다 적은 목록은 작업 분할 비용이 더 크므로 호출 스레드에서 순서대로 변환합니다. */
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    /** 분할된 작업 하나가 변환하는 최소 원소 수 */
+    private static final int MIN_CHUNK = 256;
+
     private MapUtils() {
     }
 
     /**
      * Object를 Map<String, Object>로 변환합니다. source가 null이면 null을 반환합니다.
+     * 레코드는 Jackson과 같은 결과(컴포넌트와 getX 프로퍼티, 선언 순서의 LinkedHashMap)를 Jackson 없이 만듭니다.
      */
     public static Map<String, Object> toMap(Object source) {
         if (source == null)
             return null;
+        if (source instanceof Record record) {
+            Map<String, Object> map = recordToMap(record);
+            if (map != null) {
+                return map;
+            }
+        }
         return MAPPER.convertValue(source, new TypeReference<Map<String, Object>>() {
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * 목록의 모든 원소를 {@link #toMap(Object)}로 변환합니다. 결과는 입력과 같은 순서이며, null 원소는 null로 변환됩니다.
+     * 원소가 많으면 공용 fork/join 풀({@link ForkJoinPool#commonPool()})에서 나누어 변환합니다.
+     *
+     * @param sources 변환할 객체 목록
+     * @return 변환된 맵의 읽기 전용 목록
+     * @see #toMaps(List, ForkJoinPool)
+     */
+    public static List<Map<String, Object>> toMaps(List<?> sources) {
+        return toMaps(sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 목록의 모든 원소를 지정한 fork/join 풀에서 나누어 {@link #toMap(Object)}로 변환합니다.
+     * 입력을 한 번 배열로 옮긴 뒤 인덱스 구간 단위로 분할하며, 각 작업은 결과 배열에서 자기 구간에만 기록하므로
+     * 작업 사이의 동기화나 결과를 합치는 복사 없이 입력 순서가 유지됩니다.
+     * 원소가 적거나 풀의 병렬도가 1이면 호출 스레드에서 순서대로 변환합니다.
+     * 스레드별 버퍼는 재사용하지 않습니다. 결과 맵은 호출자에게 넘어가므로 재사용할 수 없고, 레코드는 프로퍼티 수에 맞춰
+     * 크기를 잡은 맵 하나만 할당하며, 그 밖의 객체가 거치는 Jackson의 convertValue는 중간 버퍼를 외부에서 넘길 방법이 없습니다.
+     *
+     * @param sources 변환할 객체 목록
+     * @param pool    변환에 사용할 풀
+     * @return 입력과 같은 순서로 변환된 맵의 읽기 전용 목록
+     * @throws IllegalArgumentException 변환할 수 없는 원소가 있는 경우 (가장 먼저 발견된 예외가 전파됨)
+     */
+    public static List<Map<String, Object>> toMaps(List<?> sources, ForkJoinPool pool) {
+        Object[] input = sources.toArray();
+        // 각 작업이 자기 구간의 칸만 set하므로 크기를 미리 채워 둔 목록에 기록
+        List<Map<String, Object>> output = new ArrayList<>(Collections.nCopies(input.length, null));
+        int parallelism = pool.getParallelism();
+        if (input.length < PARALLEL_THRESHOLD || parallelism <= 1) {
+            convertRange(input, output, 0, input.length);
+        } else {
+            // 작업 훔치기(work stealing)로 부하가 고르게 퍼지도록 스레드당 4개 정도로 나눔
+            int chunk = Math.max(MIN_CHUNK, input.length / (parallelism * 4));
+            pool.invoke(new ConvertTask(input, output, 0, input.length, chunk));
+        }
+        return Collections.unmodifiableList(output);
+    }
+
+    /**
+     * Spliterator의 원소를 {@link #toMap(Object)}로 변환하는 병렬 스트림을 반환합니다.
+     * 원본 Spliterator의 분할을 그대로 따라 공용 fork/join 풀에서 변환하므로 전체를 메모리에 모으지 않고 흘려 보낼 수 있으며,
+     * 원본이 ORDERED이면 {@code forEachOrdered}나 {@code toList()}로 입력 순서를 유지할 수 있습니다.
+     *
+     * <pre>{@code
+     * MapUtils.toMapStream(records.spliterator()).forEachOrdered(writer::write);
+     * }</pre>
+     *
+     * @param sources 변환할 객체의 Spliterator
+     * @return 변환된 맵의 병렬 스트림
+     */
+    public static Stream<Map<String, Object>> toMapStream(Spliterator<?> sources) {
+        return StreamSupport.stream(new ConvertingSpliterator(sources), true);
+    }
+
+    private static void convertRange(Object[] input, List<Map<String, Object>> output, int from, int to) {
+        for (int i = from; i < to; i++) {
+            output.set(i, toMap(input[i]));
+        }
+    }
+
+    /** 입력 배열의 [from, to) 구간을 변환하여 결과 배열의 같은 위치에 기록하는 작업 */
+    private static final class ConvertTask extends RecursiveAction {
+
+        private final Object[] input;
+        private final List<Map<String, Object>> output;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        ConvertTask(Object[] input, List<Map<String, Object>> output, int from, int to, int chunk) {
+            this.input = input;
+            this.output = output;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                convertRange(input, output, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ConvertTask(input, output, from, mid, chunk),
+                    new ConvertTask(input, output, mid, to, chunk));
+        }
+    }
+
+    /** 원본 Spliterator의 원소를 변환하며, 분할과 크기/순서 특성은 원본을 따르는 Spliterator */
+    private static final class ConvertingSpliterator implements Spliterator<Map<String, Object>> {
+
+        private final Spliterator<?> source;
+
+        ConvertingSpliterator(Spliterator<?> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map<String, Object>> action) {
+            return source.tryAdvance(o -> action.accept(toMap(o)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Map<String, Object>> action) {
+            source.forEachRemaining(o -> action.accept(toMap(o)));
+        }
+
+        @Override
+        public Spliterator<Map<String, Object>> trySplit() {
+            Spliterator<?> prefix = source.trySplit();
+            return (prefix != null) ? new ConvertingSpliterator(prefix) : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            // 변환된 값은 정렬/중복 제거 특성을 유지하지 않음
+            return source.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT);
+        }
+    }
+
+    /**
+     * Object를 CtxMap으로 변환합니다. source가 null이면 null을 반환합니다.
+     * {@code CtxMap.of(MapUtils.toMap(source))}와 같은 내용이며, 입력 타입과 무관하게 항상 {@link CtxStorage#CONCURRENT}
+     * 전략이므로 여러 스레드에서 안전하게 사용할 수 있습니다. 레코드는 캐시된 접근자로 읽은 값을 CtxMap 저장소에
+     * 바로 저장하여 중간 맵을 만들지 않고, 그 밖의 객체는 Jackson이 만든 맵을 한 번 복사합니다.
+     * CtxMap은 null 값을 담지 않으므로 값이 null인 프로퍼티는 저장되지 않습니다.
+     * 컴포넌트만 담은 CtxMap이 필요하면 {@link CtxMap#fromRecord(Record)}를 사용합니다.
+     *
+     * @param source 변환할 객체
+     * @return 새로운 CtxMap 인스턴스 또는 null
+     */
+    public static CtxMap toCtxMap(Object source) {
+        if (source == null)
+            return null;
+        if (source instanceof Record record && RECORD_MAPPERS.get(record.getClass()) instanceof RecordMapper mapper) {
+            return mapper.toCtxMap(record);
+        }
+        Map<String, Object> map = toMap(source);
+        // 이 메소드가 만든 맵이므로 null 값을 직접 걸러냄
+        map.values().removeIf(Objects::isNull);
+        return CtxMap.adopt(map, CtxStorage.CONCURRENT);
+    }
+
+    /**
+     * Map의 값으로 레코드를 생성합니다. map이 null이면 null을 반환합니다.
+     * 레코드 클래스마다 한 번 조립해 캐시한 정규 생성자 MethodHandle을 사용하므로 Jackson을 거치지 않으며,
+     * 컴팩트 생성자의 유효성 검사는 그대로 실행됩니다.
+     * 값의 변환 규칙은 {@link CtxMap#toRecord(Class)}와 같습니다(숫자는 Number 또는 숫자 문자열, 값이 없으면 0/false/null).
+     *
+     * <pre>{@code
+     * Person person = MapUtils.fromMap(Map.of("name", "Jang", "age", 45), Person.class);
+     * }</pre>
+     *
+     * @param map  컴포넌트 이름을 키로 하는 맵
+     * @param type 레코드 클래스
+     * @param <R>  레코드 타입
+     * @return 새 레코드 인스턴스
+     * @throws IllegalArgumentException 레코드 생성자에 접근할 수 없거나, 레코드의 생성자가 값을 거부한 경우
+     */
+    public static <R extends Record> R fromMap(Map<String, ?> map, Class<R> type) {
+        if (map == null)
+            return null;
+        return type.cast(CtxRecordBinder.of(type).bind(map));
+    }
+
+    /**
+     * 레코드의 프로퍼티 값을 Jackson이 만드는 값과 같은 형태로 변환합니다.
+     * 문자열과 숫자, 불리언은 그대로 두고, 중첩 레코드는 직접 변환하며, 그 밖의 값(컬렉션, 열거형 등)만 Jackson에 맡깁니다.
+     */
+    private static Object convertValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Boolean || value instanceof Short
+                || value instanceof Float || value instanceof BigDecimal || value instanceof BigInteger) {
+            return value;
+        }
+        if (value instanceof Byte b) {
+            // Jackson은 byte를 int 숫자로 기록함
+            return b.intValue();
+        }
+        if (value instanceof Character c) {
+            return c.toString();
+        }
+        if (value instanceof Record record) {
+            Map<String, Object> map = recordToMap(record);
+            if (map != null) {
+                return map;
+            }
+        }
+        return MAPPER.convertValue(value, Object.class);
+    }
+
+    /**
+     * 레코드 클래스의 캐시된 프로퍼티 접근자를 반환합니다. Jackson과 같은 결과를 보장할 수 없는 클래스는 null입니다.
+     * (CtxJson이 중간 맵 없이 레코드를 직접 기록할 때 사용)
+     */
+    static RecordMapper recordMapper(Class<?> type) {
+        return RECORD_MAPPERS.get(type);
+    }
+
+    /**
+     * 레코드를 Jackson 없이 맵으로 변환합니다. {@link CtxMapped}로 생성된 변환기의 toMap을 먼저 사용하고,
+     * 없으면 캐시된 접근자로 변환합니다. 어느 쪽도 같은 결과를 보장할 수 없으면 null을 반환합니다.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> recordToMap(Record record) {
+        Class<Record> type = (Class<Record>) record.getClass();
+        if (CtxMappers.of(type) instanceof CtxMapper<Record> generated) {
+            Map<String, Object> map = generated.toMap(record);
+            if (map != null) {
+                return map;
+            }
+        }
+        RecordMapper mapper = RECORD_MAPPERS.get(type);
+        return (mapper != null) ? mapper.toMap(record) : null;
+    }
+
+    /**
+     * 레코드 클래스 하나의 프로퍼티 이름과 접근자 핸들. Jackson의 기본 규칙을 따라 레코드 컴포넌트를 선언 순서로 먼저,
+     * 그 뒤에 공개 getX()/isX() 메소드를 프로퍼티로 포함합니다.
+     */
+    static final class RecordMapper {
+
+        private final String[] names;
+
+        /**
+         * 접근자. 메소드마다 LambdaMetafactory로 만든 Function 구현체이므로, 호출이 MethodHandle 해석 없이
+         * 접근자 메소드를 직접 부르는 일반 인터페이스 호출이 됩니다.
+         */
+        private final List<Function<Record, Object>> accessors;
+
+        private RecordMapper(String[] names, List<Function<Record, Object>> accessors) {
+            this.names = names;
+            this.accessors = accessors;
+        }
+
+        /**
+         * 레코드 클래스의 매퍼를 만듭니다. Jackson 애너테이션으로 이름이나 포함 여부가 바뀔 수 있는 클래스이거나,
+         * 컴포넌트와 같은 이름의 getter가 있는 등 Jackson과 결과가 달라질 수 있으면 null을 반환하여 Jackson을 사용하도록 합니다.
+         */
+        static RecordMapper create(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            if (components == null || hasJacksonAnnotation(type)) {
+                return null;
+            }
+            List<String> names = new ArrayList<>();
+            List<Method> methods = new ArrayList<>();
+            for (RecordComponent component : components) {
+                if (hasJacksonAnnotation(component) || hasJacksonAnnotation(component.getAccessor())) {
+                    return null;
+                }
+                names.add(component.getName());
+                methods.add(component.getAccessor());
+            }
+            Set<String> seen = new HashSet<>(names);
+            for (Method method : type.getMethods()) {
+                String property = getterProperty(method);
+                if (property == null) {
+                    continue;
+                }
+                if (hasJacksonAnnotation(method) || !seen.add(property)) {
+                    return null;
+                }
+                names.add(property);
+                methods.add(method);
+            }
+            List<Function<Record, Object>> accessors = new ArrayList<>(methods.size());
+            try {
+                for (Method method : methods) {
+                    accessors.add(accessor(type, method));
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 접근할 수 없는 클래스는 Jackson이 처리하도록 함
+                return null;
+            }
+            return new RecordMapper(names.toArray(String[]::new), List.copyOf(accessors));
+        }
+
+        Map<String, Object> toMap(Record record) {
+            Map<String, Object> map = LinkedHashMap.newLinkedHashMap(names.length);
+            for (int i = 0; i < names.length; i++) {
+                map.put(names[i], convertValue(read(accessors.get(i), record)));
+            }
+            return map;
+        }
+
+        CtxMap toCtxMap(Record record) {
+            CtxMap ctx = new CtxMap();
+            for (int i = 0; i < names.length; i++) {
+                Object value = convertValue(read(accessors.get(i), record));
+                if (value != null) {
+                    ctx.put(names[i], value);
+                }
+            }
+            return ctx;
+        }
+
+        /** 프로퍼티 수 */
+        int size() {
+            return names.length;
+        }
+
+        /** i번째 프로퍼티 이름 */
+        String name(int i) {
+            return names[i];
+        }
+
+        /** i번째 프로퍼티의 값 (변환 전 원래 값) */
+        Object value(int i, Record record) {
+            return read(accessors.get(i), record);
+        }
+
+        private static Object read(Function<Record, Object> accessor, Record record) {
+            try {
+                return accessor.apply(record);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("레코드 프로퍼티를 읽을 수 없습니다: " + record.getClass().getName(), e);
+            }
+        }
+
+        /**
+         * 접근자 메소드를 호출하는 Function 구현체를 만듭니다. 원시 타입 반환값은 박싱됩니다.
+         * 레코드 클래스가 다른 모듈에 있어 람다를 만들 수 없으면 MethodHandle을 감싼 구현체를 사용합니다.
+         */
+        @SuppressWarnings("unchecked")
+        private static Function<Record, Object> accessor(Class<?> type, Method method)
+                throws ReflectiveOperationException {
+            try {
+                // 레코드가 공개 클래스가 아니어도 접근자를 호출할 수 있도록 레코드 클래스 권한의 Lookup 사용
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+                MethodHandle target = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), target, target.type().wrap());
+                return (Function<Record, Object>) site.getTarget().invoke();
+            } catch (IllegalAccessException | LambdaConversionException e) {
+                method.setAccessible(true);
+                MethodHandle handle = LOOKUP.unreflect(method).asType(MethodType.methodType(Object.class, Record.class));
+                return record -> {
+                    try {
+                        return (Object) handle.invokeExact(record);
+                    } catch (RuntimeException | Error ex) {
+                        throw ex;
+                    } catch (Throwable ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                };
+            } catch (ReflectiveOperationException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Jackson이 프로퍼티로 취급하는 getter이면 프로퍼티 이름을 반환합니다.
+         * (공개 인스턴스 메소드, 인자 없음, getX() 또는 boolean/Boolean을 반환하는 isX())
+         */
+        private static String getterProperty(Method method) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                    || method.getReturnType() == void.class || method.isBridge() || method.isSynthetic()
+                    || method.getDeclaringClass() == Object.class || method.getDeclaringClass() == Record.class) {
+                return null;
+            }
+            String name = method.getName();
+            if (name.startsWith("get") && name.length() > 3) {
+                return decapitalize(name.substring(3));
+            }
+            if (name.startsWith("is") && name.length() > 2
+                    && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+                return decapitalize(name.substring(2));
+            }
+            return null;
+        }
+
+        /** Jackson의 기본 이름 규칙: 앞쪽의 연속된 대문자를 소문자로 바꿈 (getURL -> url) */
+        private static String decapitalize(String name) {
+            char[] chars = name.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                char lower = Character.toLowerCase(chars[i]);
+                if (lower == chars[i]) {
+                    break;
+                }
+                chars[i] = lower;
+            }
+            return new String(chars);
+        }
+
+        private static boolean hasJacksonAnnotation(AnnotatedElement element) {
+            for (Annotation annotation : element.getAnnotations()) {
+                if (annotation.annotationType().getName().startsWith("com.fasterxml.jackson.")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,884 @@
+package util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * MappedStorage: 메모리 매핑된 파일에 엔트리를 보관하는 ConcurrentMap 구현. {@link CtxStore}가 CtxMap의 저장소로 사용합니다.
+ *
+ * <p>파일 구성: [헤더 64바이트][압축 영역의 레코드들][해시 인덱스][추가(append) 영역의 레코드들].
+ * 압축 영역과 인덱스는 압축(compaction) 때 새 파일에 한 번에 기록되어 fsync 후 원자적 이름 변경으로 교체되고,
+ * 이후의 쓰기는 파일 끝의 추가 영역에 레코드로 덧붙여집니다. 추가 영역이 커져 시작되는 자동 압축은 백그라운드
+ * 스레드에서 새 파일을 기록하고, 교체할 때만 쓰기 잠금을 잡습니다. 레코드는 [본문 길이][CRC32C][본문]이며,
+ * 본문은 [연산(PUT/REMOVE)][키 길이][키 UTF-8][값(CtxCodec 값 인코딩)]입니다.
+ *
+ * <p>다시 열 때는 헤더를 검증하고 파일을 매핑한 뒤 추가 영역만 재생하므로, 압축 영역의 크기와 무관하게
+ * 추가 영역의 크기에만 비례하는 시간이 걸립니다. 압축 영역은 인덱스를 통해 조회할 때 처음 접근하는 페이지만
+ * 운영체제가 읽어 들입니다(lazy page-in). 비정상 종료로 추가 영역 끝의 레코드가 잘리거나 손상되었으면
+ * CRC 검사에서 멈추고 그 지점 이후를 잘라냅니다.
+ *
+ * <p>조회는 파일의 바이트에서 값을 복원하여 반환하므로 매번 새 객체가 만들어집니다.
+ * 동시성은 읽기/쓰기 잠금으로 보장하며, 입출력 오류는 UncheckedIOException으로 전달됩니다.
+ */
+final class MappedStorage extends AbstractMap<String, Object> implements ConcurrentMap<String, Object>, DecodingStorage {
+
+    private static final long MAGIC = 0x4354585354523031L; // "CTXSTR01"
+    private static final int FORMAT_VERSION = 1;
+
+    // --- 헤더 레이아웃 ---
+    private static final int HEADER_BYTES = 64;
+    private static final long H_MAGIC = 0;
+    private static final long H_VERSION = 8;
+    private static final long H_INDEX_OFFSET = 16;
+    private static final long H_INDEX_CAPACITY = 24;
+    private static final long H_ENTRY_COUNT = 32;
+    private static final long H_APPEND_START = 40;
+    private static final long H_CHECKSUM = 48;
+
+    /** 인덱스 항목: [int 키 해시][int 예약][long 레코드 위치]. 위치 0은 빈 항목입니다. */
+    private static final int INDEX_ENTRY_BYTES = 16;
+
+    /** 레코드 머리: [int 본문 길이][int CRC32C] */
+    private static final int RECORD_HEAD_BYTES = 8;
+
+    /** 본문 머리: [byte 연산][int 키 길이]. 모든 레코드 본문의 최소 길이입니다. */
+    private static final int BODY_HEAD_BYTES = 5;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    /** 추가 영역에서 제거된 키를 표시하는 위치 */
+    private static final long REMOVED = -1L;
+
+    /** 추가 영역이 이 크기와 압축 영역 크기를 모두 넘으면 백그라운드 압축을 시작합니다. */
+    private static final long COMPACT_THRESHOLD = 8L << 20;
+
+    /**
+     * 압축 영역의 크기와 무관한 추가 영역의 상한. 다시 열 때 재생할 양을 제한하기 위해
+     * 추가 영역이 이 크기나 레코드 수를 넘으면 압축 영역이 더 커도 압축을 시작합니다.
+     */
+    private static final long MAX_APPEND_BYTES = 64L << 20;
+    private static final int MAX_APPEND_RECORDS = 1 << 20;
+
+    /** 매핑된 바이트의 CRC를 계산할 때 한 번에 복사하는 크기 */
+    private static final int CRC_CHUNK_BYTES = 8 << 10;
+
+    private static final ValueLayout.OfInt INT_BE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path file;
+
+    private FileChannel channel;
+    private Arena arena;
+    /** 파일을 연(또는 압축한) 시점까지의 매핑. 그 이후에 추가된 레코드는 채널에서 직접 읽습니다. */
+    private MemorySegment mapped;
+
+    private long indexOffset;
+    private long indexCapacity;
+    private long appendStart;
+    private long appendPosition;
+    /** 추가 영역의 레코드 수 */
+    private int appendRecords;
+    private int size;
+
+    /** 추가 영역에서 바뀐 키 -> 최신 레코드 위치 (제거된 키는 REMOVED) */
+    private final Map<String, Long> delta = new HashMap<>();
+
+    /** 실행 중인 백그라운드 압축 스레드 (쓰기 잠금으로 보호) */
+    private Thread compactor;
+    /** 백그라운드 압축이 실패한 원인. 다음 sync, compact, close에서 던집니다. */
+    private IOException compactionFailure;
+
+    private MappedStorage(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 파일을 열거나, 없으면 빈 저장소 파일을 만듭니다.
+     */
+    static MappedStorage open(Path file) throws IOException {
+        MappedStorage storage = new MappedStorage(file);
+        Files.deleteIfExists(compactionFile(file));
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            storage.moveIntoPlace(storage.writeCompactionFile(new long[0]));
+        }
+        storage.load();
+        return storage;
+    }
+
+    private static Path compactionFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".compact");
+    }
+
+    private void load() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fileSize = channel.size();
+        if (fileSize < HEADER_BYTES) {
+            throw new IOException("CtxStore 헤더가 잘렸습니다: " + file);
+        }
+        arena = Arena.ofShared();
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize, arena);
+        if (mapped.get(LONG_BE, H_MAGIC) != MAGIC) {
+            throw new IOException("CtxStore 파일이 아닙니다: " + file);
+        }
+        int version = mapped.get(INT_BE, H_VERSION);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("지원하지 않는 CtxStore 버전입니다: " + version);
+        }
+        if (mapped.get(INT_BE, H_CHECKSUM) != headerChecksum(mapped)) {
+            throw new IOException("CtxStore 헤더 체크섬이 일치하지 않습니다: " + file);
+        }
+        indexOffset = mapped.get(LONG_BE, H_INDEX_OFFSET);
+        indexCapacity = mapped.get(LONG_BE, H_INDEX_CAPACITY);
+        size = (int) mapped.get(LONG_BE, H_ENTRY_COUNT);
+        appendStart = mapped.get(LONG_BE, H_APPEND_START);
+        if (appendStart > fileSize || indexOffset + indexCapacity * INDEX_ENTRY_BYTES > appendStart) {
+            throw new IOException("CtxStore 헤더가 손상되었습니다: " + file);
+        }
+        delta.clear();
+        replay(fileSize);
+    }
+
+    /**
+     * 추가 영역의 레코드를 재생하여 delta를 복원합니다. 잘렸거나 체크섬이 맞지 않거나 구조가 잘못된 레코드를 만나면
+     * 그 위치에서 파일을 잘라 이후의 추가가 손상된 꼬리 뒤에 붙지 않도록 합니다.
+     */
+    private void replay(long fileSize) throws IOException {
+        long position = appendStart;
+        appendRecords = 0;
+        while (position + RECORD_HEAD_BYTES <= fileSize) {
+            int length = mapped.get(INT_BE, position);
+            if (length < BODY_HEAD_BYTES || position + RECORD_HEAD_BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer body = mapped.asSlice(position + RECORD_HEAD_BYTES, length).asByteBuffer();
+            if (crc(body.duplicate()) != mapped.get(INT_BE, position + 4) || !wellFormed(body.duplicate())) {
+                break;
+            }
+            byte op = body.get();
+            String key = readKey(body);
+            boolean existed = locate(key) >= 0;
+            if (op == OP_PUT) {
+                delta.put(key, position);
+                size += existed ? 0 : 1;
+            } else {
+                delta.put(key, REMOVED);
+                size -= existed ? 1 : 0;
+            }
+            position += RECORD_HEAD_BYTES + length;
+            appendRecords++;
+        }
+        if (position < fileSize) {
+            channel.truncate(position);
+            channel.force(true);
+            // 잘라낸 꼬리를 매핑에서도 제외. 이후 같은 위치에 추가된 레코드는 채널에서 읽어야 함
+            mapped = mapped.asSlice(0, position);
+        }
+        appendPosition = position;
+    }
+
+    /**
+     * 레코드 본문의 연산별 최소 구조를 검사합니다. PUT은 키 뒤에 값(최소 태그 1바이트)이 있어야 하고,
+     * REMOVE는 키로 정확히 끝나야 합니다. 빈 키("")의 REMOVE 본문은 머리 5바이트뿐인 올바른 레코드입니다.
+     */
+    private static boolean wellFormed(ByteBuffer body) {
+        byte op = body.get();
+        int keyLength = body.getInt();
+        int rest = body.remaining() - keyLength;
+        if (keyLength < 0 || rest < 0) {
+            return false;
+        }
+        return switch (op) {
+            case OP_PUT -> rest >= 1;
+            case OP_REMOVE -> rest == 0;
+            default -> false;
+        };
+    }
+
+    // --- Map 연산 ---
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String k)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return valueAt(locate(k));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String k)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return locate(k) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        lock.writeLock().lock();
+        try {
+            Object previous = valueAt(locate(key));
+            write(key, value, previous == null);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        lock.writeLock().lock();
+        try {
+            Object existing = valueAt(locate(key));
+            if (existing == null) {
+                write(key, value, true);
+            }
+            return existing;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String k)) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            Object previous = valueAt(locate(k));
+            if (previous != null) {
+                erase(k);
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof String k) || value == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!value.equals(valueAt(locate(k)))) {
+                return false;
+            }
+            erase(k);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        lock.writeLock().lock();
+        try {
+            if (!oldValue.equals(valueAt(locate(key)))) {
+                return false;
+            }
+            write(key, newValue, false);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        Objects.requireNonNull(value);
+        lock.writeLock().lock();
+        try {
+            Object previous = valueAt(locate(key));
+            if (previous != null) {
+                write(key, value, false);
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            lockIdle();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            replaceFile(new long[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 호출 시점의 모든 엔트리를 순회합니다. 읽기 잠금을 잡은 동안 키와 값을 복원해 두고 잠금을 푼 뒤 action을 호출하므로,
+     * action 안에서 이 저장소에 써도 교착 상태에 빠지지 않습니다.
+     */
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachRecord(delta, (key, position) -> {
+                keys.add(key);
+                values.add(valueAt(position));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            action.accept(keys.get(i), values.get(i));
+        }
+    }
+
+    /**
+     * 호출 시점의 엔트리를 복사한 집합을 반환합니다. 순회 중 저장소를 수정해도(CtxMap.clear 등) 안전합니다.
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        List<Entry<String, Object>> entries = new ArrayList<>();
+        forEach((k, v) -> entries.add(new SimpleImmutableEntry<>(k, v)));
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Entry<String, Object>> it = entries.iterator();
+                return new Iterator<>() {
+                    private Entry<String, Object> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        last = it.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        MappedStorage.this.remove(last.getKey(), last.getValue());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    // --- 수명 주기 ---
+
+    /**
+     * 추가 영역에 기록된 레코드를 디스크에 강제로 기록합니다.
+     */
+    void sync() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.force(false);
+            rethrowCompactionFailure();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 살아있는 레코드와 새 인덱스로 파일을 다시 써서 추가 영역을 비웁니다. 진행 중인 백그라운드 압축이 있으면
+     * 끝나기를 기다린 뒤, 쓰기 잠금을 잡은 채로 다시 씁니다.
+     */
+    void compact() throws IOException {
+        lockIdle();
+        try {
+            rethrowCompactionFailure();
+            replaceFile(livePositions(delta, size));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 진행 중인 백그라운드 압축이 끝나기를 기다린 뒤 파일을 닫습니다.
+     */
+    void close() throws IOException {
+        lockIdle();
+        try {
+            if (channel != null) {
+                channel.force(true);
+                channel.close();
+                arena.close();
+                channel = null;
+            }
+            rethrowCompactionFailure();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 진행 중인 백그라운드 압축이 끝나기를 기다린 뒤 쓰기 잠금을 잡습니다. 반환한 뒤에는 잠금을 잡고 있으므로
+     * 새 백그라운드 압축이 시작되지 않습니다.
+     */
+    private void lockIdle() throws IOException {
+        while (true) {
+            lock.writeLock().lock();
+            Thread running = compactor;
+            if (running == null) {
+                return;
+            }
+            lock.writeLock().unlock();
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("CtxStore 압축을 기다리는 중 인터럽트되었습니다: " + file);
+            }
+        }
+    }
+
+    private void rethrowCompactionFailure() throws IOException {
+        IOException failure = compactionFailure;
+        if (failure != null) {
+            compactionFailure = null;
+            throw failure;
+        }
+    }
+
+    // --- 조회 ---
+
+    /**
+     * 키의 최신 레코드 위치를 반환합니다. 없거나 제거되었으면 음수를 반환합니다.
+     */
+    private long locate(String key) {
+        ensureOpen();
+        Long changed = delta.get(key);
+        if (changed != null) {
+            return changed;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long mask = indexCapacity - 1;
+        int hash = hash(keyBytes);
+        for (long i = hash & mask;; i = (i + 1) & mask) {
+            long entry = indexOffset + i * INDEX_ENTRY_BYTES;
+            long position = mapped.get(LONG_BE, entry + 8);
+            if (position == 0) {
+                return -1;
+            }
+            if (mapped.get(INT_BE, entry) == hash && keyMatches(position, keyBytes)) {
+                return position;
+            }
+        }
+    }
+
+    private boolean keyMatches(long position, byte[] keyBytes) {
+        long keyStart = position + RECORD_HEAD_BYTES + 1;
+        if (mapped.get(INT_BE, keyStart) != keyBytes.length) {
+            return false;
+        }
+        return MemorySegment.mismatch(mapped, keyStart + 4, keyStart + 4 + keyBytes.length,
+                MemorySegment.ofArray(keyBytes), 0, keyBytes.length) < 0;
+    }
+
+    private Object valueAt(long position) {
+        if (position < 0) {
+            return null;
+        }
+        ByteBuffer body = body(position);
+        body.position(1);
+        int keyLength = body.getInt();
+        body.position(body.position() + keyLength);
+        return CtxCodec.decodeValue(body);
+    }
+
+    /**
+     * 레코드 본문을 반환합니다. 레코드 전체가 매핑 안에 있으면 복사 없이, 매핑 이후에 추가된 레코드면 채널에서 읽습니다.
+     */
+    private ByteBuffer body(long position) {
+        if (position + RECORD_HEAD_BYTES <= mapped.byteSize()) {
+            int length = mapped.get(INT_BE, position);
+            if (position + RECORD_HEAD_BYTES + length <= mapped.byteSize()) {
+                return mapped.asSlice(position + RECORD_HEAD_BYTES, length).asByteBuffer();
+            }
+        }
+        try {
+            ByteBuffer head = readFully(position, RECORD_HEAD_BYTES);
+            return readFully(position + RECORD_HEAD_BYTES, head.getInt());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("CtxStore 레코드가 잘렸습니다: " + position);
+            }
+        }
+        return buf.flip();
+    }
+
+    private static String readKey(ByteBuffer body) {
+        byte[] key = new byte[body.getInt()];
+        body.get(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    /** 살아있는 모든 키와 레코드 위치를 순회합니다. 인덱스의 엔트리 중 추가 영역에서 바뀐 키(changed)는 건너뜁니다. */
+    private void forEachRecord(Map<String, Long> changed, RecordVisitor visitor) {
+        ensureOpen();
+        for (long i = 0; i < indexCapacity; i++) {
+            long position = mapped.get(LONG_BE, indexOffset + i * INDEX_ENTRY_BYTES + 8);
+            if (position != 0) {
+                ByteBuffer body = body(position);
+                body.position(1);
+                String key = readKey(body);
+                if (!changed.containsKey(key)) {
+                    visitor.visit(key, position);
+                }
+            }
+        }
+        changed.forEach((key, position) -> {
+            if (position >= 0) {
+                visitor.visit(key, position);
+            }
+        });
+    }
+
+    private long[] livePositions(Map<String, Long> changed, int count) {
+        long[] live = new long[count];
+        int[] filled = new int[1];
+        forEachRecord(changed, (key, position) -> live[filled[0]++] = position);
+        return live;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(String key, long position);
+    }
+
+    // --- 쓰기 ---
+
+    private void write(String key, Object value, boolean added) {
+        long position = append(OP_PUT, key, CtxCodec.encodeValue(value));
+        delta.put(key, position);
+        if (added) {
+            size++;
+        }
+        maybeCompact();
+    }
+
+    private void erase(String key) {
+        append(OP_REMOVE, key, new byte[0]);
+        delta.put(key, REMOVED);
+        size--;
+        maybeCompact();
+    }
+
+    private long append(byte op, String key, byte[] value) {
+        ensureOpen();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 4 + keyBytes.length + value.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEAD_BYTES + length);
+        record.position(RECORD_HEAD_BYTES);
+        record.put(op).putInt(keyBytes.length).put(keyBytes).put(value);
+        record.flip().position(RECORD_HEAD_BYTES);
+        int checksum = crc(record);
+        record.clear();
+        record.putInt(length).putInt(checksum).clear();
+        long position = appendPosition;
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        appendPosition += record.capacity();
+        appendRecords++;
+        return position;
+    }
+
+    /**
+     * 추가 영역이 압축 영역보다 커졌거나(파일의 절반 이상이 덮어쓴 레코드일 수 있음), 압축 영역의 크기와 무관한
+     * 상한을 넘었으면 백그라운드 압축을 시작합니다. 상한이 없으면 큰 저장소에서는 추가 영역이 압축 영역만큼 자라
+     * 재시작 시 재생이 길어집니다. 이전 압축이 실패했으면 그 실패가 보고될 때까지 다시 시작하지 않습니다.
+     */
+    private void maybeCompact() {
+        long appended = appendPosition - appendStart;
+        if (compactor == null && compactionFailure == null && (appended > MAX_APPEND_BYTES
+                || appendRecords > MAX_APPEND_RECORDS || (appended > COMPACT_THRESHOLD && appended > appendStart))) {
+            Map<String, Long> changed = new HashMap<>(delta);
+            int count = size;
+            long tailStart = appendPosition;
+            compactor = Thread.ofPlatform().name("CtxStore-compact").daemon()
+                    .start(() -> compactInBackground(changed, count, tailStart));
+        }
+    }
+
+    // --- 압축 ---
+
+    /**
+     * 시작 시점의 스냅샷(delta 복사본과 추가 영역 끝 위치)으로 새 파일을 잠금 없이 기록한 뒤, 쓰기 잠금을 잡고
+     * 그 사이에 추가된 레코드만 옮겨 붙여 교체합니다. 압축 영역과 인덱스는 교체 전까지 바뀌지 않고 추가 영역은
+     * 덧붙이기만 하므로, 새 파일을 기록하는 동안에도 조회와 쓰기가 계속됩니다.
+     */
+    private void compactInBackground(Map<String, Long> changed, int count, long tailStart) {
+        IOException failure = null;
+        try {
+            Path temp = writeCompactionFile(livePositions(changed, count));
+            lock.writeLock().lock();
+            try {
+                appendTail(temp, tailStart);
+                reopen(temp);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (UncheckedIOException e) {
+            failure = e.getCause();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                compactor = null;
+                compactionFailure = failure;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** 백그라운드 압축을 시작한 뒤 추가된 레코드를 새 파일의 추가 영역으로 옮깁니다. */
+    private void appendTail(Path temp, long tailStart) throws IOException {
+        if (appendPosition == tailStart) {
+            return;
+        }
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            out.position(out.size());
+            copyTo(out, tailStart, appendPosition - tailStart);
+            out.force(true);
+        }
+    }
+
+    /**
+     * 주어진 위치의 레코드들로 새 파일을 써서 현재 파일과 원자적으로 교체하고 다시 엽니다.
+     */
+    private void replaceFile(long[] live) throws IOException {
+        reopen(writeCompactionFile(live));
+    }
+
+    private void reopen(Path compacted) throws IOException {
+        moveIntoPlace(compacted);
+        channel.close();
+        arena.close();
+        load();
+    }
+
+    /**
+     * 현재 파일의 [position, position + length) 바이트를 out의 현재 위치에 그대로 옮깁니다.
+     * 레코드의 머리(길이와 CRC)까지 복사하므로 CRC를 다시 계산하지 않습니다.
+     */
+    private void copyTo(FileChannel out, long position, long length) throws IOException {
+        for (long done = 0; done < length; ) {
+            long moved = channel.transferTo(position + done, length - done, out);
+            if (moved <= 0) {
+                throw new IOException("CtxStore 레코드가 잘렸습니다: " + (position + done));
+            }
+            done += moved;
+        }
+    }
+
+    /**
+     * 레코드들을 압축 영역으로, 그 뒤에 해시 인덱스를, 마지막으로 헤더를 임시 파일에 기록하고 fsync한 뒤
+     * 임시 파일의 경로를 반환합니다. 대상 파일은 {@link #moveIntoPlace}로 교체하기 전까지 그대로 남습니다.
+     */
+    private Path writeCompactionFile(long[] live) throws IOException {
+        Path temp = compactionFile(file);
+        // 부하율 0.75 이하를 유지하는 2의 거듭제곱
+        long capacity = Long.highestOneBit(Math.max(16L, live.length * 4L / 3 + 1) - 1) << 1;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE); Arena scratch = Arena.ofConfined()) {
+            long position = HEADER_BYTES;
+            out.position(position);
+            long[] positions = new long[live.length];
+            int[] hashes = new int[live.length];
+            for (int i = 0; i < positions.length; i++) {
+                // 키만 읽어 해시를 구하고, 레코드 바이트는 채널 간 전송으로 옮기므로 힙에 값을 올리지 않음
+                ByteBuffer body = body(live[i]);
+                body.position(1);
+                byte[] key = new byte[body.getInt()];
+                body.get(key);
+                hashes[i] = hash(key);
+                positions[i] = position;
+                long length = RECORD_HEAD_BYTES + body.limit();
+                copyTo(out, live[i], length);
+                position += length;
+            }
+            long index = position;
+            long end = index + capacity * INDEX_ENTRY_BYTES;
+            MemorySegment table = out.map(FileChannel.MapMode.READ_WRITE, index, end - index, scratch);
+            long mask = capacity - 1;
+            for (int i = 0; i < positions.length; i++) {
+                long slot = hashes[i] & mask;
+                while (table.get(LONG_BE, slot * INDEX_ENTRY_BYTES + 8) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table.set(INT_BE, slot * INDEX_ENTRY_BYTES, hashes[i]);
+                table.set(LONG_BE, slot * INDEX_ENTRY_BYTES + 8, positions[i]);
+            }
+            table.force();
+
+            MemorySegment header = MemorySegment.ofArray(new byte[HEADER_BYTES]);
+            header.set(LONG_BE, H_MAGIC, MAGIC);
+            header.set(INT_BE, H_VERSION, FORMAT_VERSION);
+            header.set(LONG_BE, H_INDEX_OFFSET, index);
+            header.set(LONG_BE, H_INDEX_CAPACITY, capacity);
+            header.set(LONG_BE, H_ENTRY_COUNT, live.length);
+            header.set(LONG_BE, H_APPEND_START, end);
+            header.set(INT_BE, H_CHECKSUM, headerChecksum(header));
+            ByteBuffer headerBuffer = header.asByteBuffer();
+            while (headerBuffer.hasRemaining()) {
+                out.write(headerBuffer, headerBuffer.position());
+            }
+            out.force(true);
+        }
+        return temp;
+    }
+
+    /**
+     * 임시 파일을 원자적 이름 변경으로 대상 파일과 교체합니다. 중간에 중단되어도 기존 파일은 그대로 남고,
+     * 이름 변경 자체도 전원 장애 후에 남도록 상위 디렉터리까지 fsync합니다.
+     */
+    private void moveIntoPlace(Path temp) throws IOException {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * 디렉터리 항목(이름 변경)을 디스크에 기록합니다. 디렉터리를 채널로 열 수 없는 플랫폼(Windows)에서는
+     * 이름 변경이 파일 시스템에 의해 기록되므로 무시합니다.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    // --- 보조 ---
+
+    private void ensureOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("닫힌 CtxStore입니다: " + file);
+        }
+    }
+
+    private static int headerChecksum(MemorySegment header) {
+        return crc(header.asSlice(0, H_CHECKSUM).asByteBuffer());
+    }
+
+    private static int crc(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        if (bytes.hasArray()) {
+            crc.update(bytes);
+        } else {
+            // 공유 Arena로 매핑한 버퍼는 CRC32C가 주소를 직접 읽지 못하므로(UnsupportedOperationException)
+            // 레코드 전체가 아니라 고정 크기 청크로 나누어 복사
+            byte[] chunk = new byte[Math.min(bytes.remaining(), CRC_CHUNK_BYTES)];
+            while (bytes.hasRemaining()) {
+                int length = Math.min(chunk.length, bytes.remaining());
+                bytes.get(chunk, 0, length);
+                crc.update(chunk, 0, length);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    /** 키의 UTF-8 바이트 해시 (FNV-1a). 인덱스를 만들 때 키를 문자열로 복원하지 않아도 되도록 바이트 기준으로 계산합니다. */
+    private static int hash(byte[] key) {
+        int h = 0x811C9DC5;
+        for (byte b : key) {
+            h = (h ^ (b & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
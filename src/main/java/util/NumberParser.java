@@ -0,0 +1,277 @@
+package util;
+
+/**
+ * NumberParser: 예외를 던지지 않는 숫자 파싱 엔진.
+ * 파싱에 실패하면 NumberFormatException 대신 호출자가 지정한 기본값(또는 classify의 결과 코드)으로
+ * 실패를 알려주므로, "N/A" 같은 잘못된 값이 자주 들어와도 스택 트레이스 생성 비용이 들지 않습니다.
+ *
+ * <p>CharSequence의 [from, to) 범위를 직접 읽으며, 앞뒤 공백(String.trim() 기준)은 복사 없이 건너뜁니다.
+ * 허용하는 형태:
+ * <ul>
+ * <li>부호: 선행 '-' 또는 '+'</li>
+ * <li>밑줄: 숫자와 숫자 사이의 '_' (예: 1_000_000)</li>
+ * <li>16진수: 0x / 0X 접두사 (예: 0x1F, -0xFF)</li>
+ * <li>실수: 소수점, 지수(e/E), 접미사(d/D/f/F), NaN, Infinity</li>
+ * </ul>
+ */
+public final class NumberParser {
+
+    /** classify 결과: 숫자가 아님 */
+    public static final int NOT_A_NUMBER = 0;
+    /** classify 결과: long 범위의 정수 (parseLong/parseDouble 모두 성공) */
+    public static final int INTEGRAL = 1;
+    /** classify 결과: 실수 또는 long 범위를 넘는 정수 (parseDouble만 성공) */
+    public static final int DECIMAL = 2;
+
+    /** double 빠른 경로에서 정확하게 표현되는 10의 거듭제곱 (10^0 ~ 10^22) */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /** double로 정확하게 표현되는 최대 가수 (2^53) */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private NumberParser() {
+    }
+
+    /**
+     * 문자열 전체를 int로 파싱합니다.
+     *
+     * @see #parseInt(CharSequence, int, int, int)
+     */
+    public static int parseInt(CharSequence s, int defaultValue) {
+        return parseInt(s, 0, s.length(), defaultValue);
+    }
+
+    /**
+     * [from, to) 범위를 int로 파싱합니다. 형식이 잘못되었거나 int 범위를 벗어나면 기본값을 반환합니다.
+     */
+    public static int parseInt(CharSequence s, int from, int to, int defaultValue) {
+        // long으로 파싱한 뒤 범위를 확인. 기본값 자체는 int 범위이므로 실패 시에도 그대로 반환됨
+        long value = parseLong(s, from, to, Long.MIN_VALUE);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
+    /**
+     * 문자열 전체를 long으로 파싱합니다.
+     *
+     * @see #parseLong(CharSequence, int, int, long)
+     */
+    public static long parseLong(CharSequence s, long defaultValue) {
+        return parseLong(s, 0, s.length(), defaultValue);
+    }
+
+    /**
+     * [from, to) 범위를 long으로 파싱합니다. 형식이 잘못되었거나 long 범위를 벗어나면 기본값을 반환합니다.
+     */
+    public static long parseLong(CharSequence s, int from, int to, long defaultValue) {
+        from = CtxText.trimStart(s, from, to);
+        to = CtxText.trimEnd(s, from, to);
+        int i = from;
+        boolean negative = false;
+        if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        int radix = 10;
+        if (isHexPrefix(s, i, to)) {
+            radix = 16;
+            i += 2;
+        }
+        // Long.MIN_VALUE까지 표현하기 위해 음수 방향으로 누적
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multLimit = limit / radix;
+        long result = 0;
+        boolean digitSeen = false;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '_') {
+                // 밑줄은 숫자 사이에서만 허용
+                if (!digitSeen || i + 1 >= to || Character.digit(s.charAt(i + 1), radix) < 0) {
+                    return defaultValue;
+                }
+                continue;
+            }
+            int digit = Character.digit(c, radix);
+            if (digit < 0 || c > 'f') {
+                return defaultValue;
+            }
+            if (result < multLimit) {
+                return defaultValue;
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                return defaultValue;
+            }
+            result -= digit;
+            digitSeen = true;
+        }
+        if (!digitSeen) {
+            return defaultValue;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * 문자열 전체를 double로 파싱합니다.
+     *
+     * @see #parseDouble(CharSequence, int, int, double)
+     */
+    public static double parseDouble(CharSequence s, double defaultValue) {
+        return parseDouble(s, 0, s.length(), defaultValue);
+    }
+
+    /**
+     * [from, to) 범위를 double로 파싱합니다. 형식이 잘못되었으면 기본값을 반환합니다.
+     * 가수가 2^53 이하이고 10진 지수가 ±22 이내인 일반적인 형태는 정확한 빠른 경로로 처리하며,
+     * 자릿수가 많거나 지수가 큰 형태만 (문법 검증을 마친 뒤) Double.parseDouble로 위임합니다.
+     */
+    public static double parseDouble(CharSequence s, int from, int to, double defaultValue) {
+        from = CtxText.trimStart(s, from, to);
+        to = CtxText.trimEnd(s, from, to);
+        int i = from;
+        boolean negative = false;
+        if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        if (isHexPrefix(s, i, to)) {
+            // 16진수는 정수만 지원: long으로 파싱 후 변환
+            return isLong(s, from, to) ? parseLong(s, from, to, 0L) : defaultValue;
+        }
+        if (matches(s, i, to, "NaN")) {
+            return Double.NaN;
+        }
+        if (matches(s, i, to, "Infinity")) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean exact = true;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else {
+                    exact = false;
+                    if (!fraction) {
+                        exponent++;
+                    }
+                }
+                digits++;
+            } else if (c == '_') {
+                if (!isDigitAt(s, i - 1, from, to) || !isDigitAt(s, i + 1, from, to)) {
+                    return defaultValue;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return defaultValue;
+        }
+        if (i < to && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negativeExp = s.charAt(i) == '-';
+                i++;
+            }
+            int exp = 0;
+            int start = i;
+            for (; i < to; i++) {
+                char c = s.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (exp < 100_000) {
+                        exp = exp * 10 + (c - '0');
+                    }
+                } else if (c != '_' || !isDigitAt(s, i - 1, start, to) || !isDigitAt(s, i + 1, start, to)) {
+                    break;
+                }
+            }
+            if (i == start) {
+                return defaultValue;
+            }
+            exponent += negativeExp ? -exp : exp;
+        }
+        if (i < to && "dDfF".indexOf(s.charAt(i)) >= 0) {
+            i++;
+        }
+        if (i != to) {
+            return defaultValue;
+        }
+        if (exact && exponent >= -22 && exponent <= 22) {
+            double value = (exponent >= 0) ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+            return negative ? -value : value;
+        }
+        // 문법은 이미 검증됨: 정확한 반올림이 필요한 드문 형태만 JDK 파서로 처리
+        return slowParseDouble(s, from, to, defaultValue);
+    }
+
+    /**
+     * [from, to) 범위가 어떤 숫자 형태인지 분류합니다. 값은 만들지 않으며 예외도 던지지 않습니다.
+     *
+     * @return {@link #INTEGRAL}, {@link #DECIMAL} 또는 {@link #NOT_A_NUMBER}
+     */
+    public static int classify(CharSequence s, int from, int to) {
+        if (isLong(s, from, to)) {
+            return INTEGRAL;
+        }
+        // 파싱 성공 시 결과는 기본값과 무관하므로, 서로 다른 두 기본값으로 실패 여부를 구분
+        long a = Double.doubleToRawLongBits(parseDouble(s, from, to, 0.0));
+        long b = Double.doubleToRawLongBits(parseDouble(s, from, to, 1.0));
+        return (a == b) ? DECIMAL : NOT_A_NUMBER;
+    }
+
+    private static boolean isHexPrefix(CharSequence s, int i, int to) {
+        return i + 1 < to && s.charAt(i) == '0' && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X');
+    }
+
+    private static boolean isLong(CharSequence s, int from, int to) {
+        // 파싱 성공 시 결과는 기본값과 무관하므로, 서로 다른 두 기본값으로 실패 여부를 구분
+        return parseLong(s, from, to, 0L) != 0L || parseLong(s, from, to, 1L) != 1L;
+    }
+
+    private static boolean isDigitAt(CharSequence s, int i, int from, int to) {
+        return i >= from && i < to && s.charAt(i) >= '0' && s.charAt(i) <= '9';
+    }
+
+    private static boolean matches(CharSequence s, int i, int to, String token) {
+        if (to - i != token.length()) {
+            return false;
+        }
+        for (int k = 0; k < token.length(); k++) {
+            if (s.charAt(i + k) != token.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double slowParseDouble(CharSequence s, int from, int to, double defaultValue) {
+        StringBuilder sb = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c != '_') {
+                sb.append(c);
+            }
+        }
+        try {
+            return Double.parseDouble(sb.toString());
+        } catch (NumberFormatException e) {
+            // 문법 검증을 통과한 입력이므로 도달하지 않음
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package util;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * OffHeapStorage: 키와 값을 Java 힙 밖(FFM MemorySegment)에 보관하는 ConcurrentMap 구현.
+ * CtxMap의 off-heap 저장 모드({@link CtxMap#offHeap(int)})에서 ConcurrentHashMap 대신 사용됩니다.
+ *
+ * <p>선형 탐사(open addressing) 해시 테이블의 슬롯 하나는 32바이트이며, int/long/double/boolean 값과
+ * UTF-8로 16바이트 이하인 문자열은 슬롯 안에 직접 저장합니다. 키와 긴 문자열은 off-heap 데이터 청크에
+ * 덧붙여 저장하고 슬롯에는 위치만 기록합니다. 그 밖의 객체(List, Map 등)만 힙의 참조 배열에 보관합니다.
+ * 따라서 엔트리 수가 늘어도 힙 사용량은 늘지 않으며, GC가 훑어야 할 객체도 늘지 않습니다.
+ *
+ * <p>조회는 저장된 바이트에서 값을 복원하여 반환하므로(Integer, String 등) 매번 새 객체가 만들어집니다.
+ * 삭제되거나 덮어쓴 키/문자열이 차지하던 데이터 영역은 테이블을 재구성할 때 회수됩니다.
+ * 메모리는 자동 Arena에 할당되어, 저장소에 더 이상 접근할 수 없게 되면 GC가 해제합니다.
+ * 동시성은 읽기/쓰기 잠금으로 보장하며, 순회는 약한 일관성(weakly consistent)을 가집니다.
+ */
+final class OffHeapStorage extends AbstractMap<String, Object> implements ConcurrentMap<String, Object>, DecodingStorage {
+
+    // --- 슬롯 레이아웃 (32바이트) ---
+    private static final long SLOT_BYTES = 32;
+    private static final long HASH = 0;
+    private static final long STATE = 4;
+    private static final long KIND = 5;
+    private static final long INLINE_LENGTH = 6;
+    private static final long KEY = 8;
+    private static final long VALUE = 16;
+
+    // --- 슬롯 상태 ---
+    private static final byte EMPTY = 0;
+    private static final byte FULL = 1;
+    private static final byte DELETED = 2;
+
+    // --- 값 종류 ---
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte SHORT_STRING = 5;
+    private static final byte STRING = 6;
+    private static final byte REF = 7;
+
+    /** 슬롯 안에 직접 저장하는 문자열의 최대 UTF-8 길이 */
+    private static final int INLINE_STRING_MAX = 16;
+
+    /** 데이터 청크의 기본 크기 */
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private static final int MIN_CAPACITY = 16;
+    /** 테이블의 최대 슬롯 수 (2^30 슬롯 = 32GB) */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static final ValueLayout.OfInt INT_LAYOUT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfLong LONG_LAYOUT = ValueLayout.JAVA_LONG_UNALIGNED;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MemorySegment table;
+    private int capacity;
+    private int size;
+    private int deleted;
+
+    /** 키와 긴 문자열을 덧붙여 저장하는 데이터 청크. 위치는 (청크 번호 << 32 | 오프셋)으로 표현합니다. */
+    private List<MemorySegment> chunks;
+    private long chunkUsed;
+    private long liveBytes;
+    private long garbageBytes;
+
+    /** off-heap에 저장할 수 없는 값의 힙 참조 배열과 빈 칸 목록 */
+    private Object[] refs;
+    private int refCount;
+    private int[] freeRefs;
+    private int freeCount;
+
+    OffHeapStorage(int expectedSize) {
+        reset(tableCapacity(expectedSize));
+    }
+
+    private static int tableCapacity(int expectedSize) {
+        // 부하율 0.5 이하를 유지하는 2의 거듭제곱
+        long wanted = Math.max(MIN_CAPACITY, (long) Math.max(expectedSize, 0) * 2);
+        if (wanted > MAX_CAPACITY) {
+            throw new IllegalArgumentException("off-heap 저장소의 최대 크기를 초과했습니다: " + expectedSize);
+        }
+        return (int) (Long.highestOneBit(wanted - 1) << 1);
+    }
+
+    private void reset(int newCapacity) {
+        capacity = newCapacity;
+        table = Arena.ofAuto().allocate(newCapacity * SLOT_BYTES, 8);
+        chunks = new ArrayList<>();
+        chunkUsed = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        size = 0;
+        deleted = 0;
+        refs = new Object[8];
+        refCount = 0;
+        freeRefs = new int[8];
+        freeCount = 0;
+    }
+
+    // --- Map 연산 ---
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String k)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            long index = find(k, hash(k));
+            return (index >= 0) ? readValue(index * SLOT_BYTES) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        lock.writeLock().lock();
+        try {
+            long index = find(key, hash);
+            if (index >= 0) {
+                return swapValue(index * SLOT_BYTES, value);
+            }
+            insert(key, hash, value);
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        lock.writeLock().lock();
+        try {
+            long index = find(key, hash);
+            if (index >= 0) {
+                return readValue(index * SLOT_BYTES);
+            }
+            insert(key, hash, value);
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String k)) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            long index = find(k, hash(k));
+            if (index < 0) {
+                return null;
+            }
+            Object removed = readValue(index * SLOT_BYTES);
+            delete(index * SLOT_BYTES);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof String k) || value == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            long index = find(k, hash(k));
+            if (index < 0 || !value.equals(readValue(index * SLOT_BYTES))) {
+                return false;
+            }
+            delete(index * SLOT_BYTES);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        lock.writeLock().lock();
+        try {
+            long index = find(key, hash(key));
+            if (index < 0 || !oldValue.equals(readValue(index * SLOT_BYTES))) {
+                return false;
+            }
+            swapValue(index * SLOT_BYTES, newValue);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        Objects.requireNonNull(value);
+        lock.writeLock().lock();
+        try {
+            long index = find(key, hash(key));
+            return (index >= 0) ? swapValue(index * SLOT_BYTES, value) : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset(MIN_CAPACITY);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 호출 시점의 모든 엔트리를 순회합니다. 읽기 잠금을 잡은 동안 엔트리를 복사하고 잠금을 푼 뒤 action을 호출하므로,
+     * action 안에서 이 저장소에 써도 교착 상태에 빠지지 않습니다.
+     */
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        String[] keys;
+        Object[] values;
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            keys = new String[size];
+            values = new Object[size];
+            for (long i = 0; i < capacity; i++) {
+                long base = i * SLOT_BYTES;
+                if (table.get(ValueLayout.JAVA_BYTE, base + STATE) == FULL) {
+                    keys[count] = readKey(base);
+                    values[count++] = readValue(base);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < count; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return OffHeapStorage.this.size();
+            }
+        };
+    }
+
+    /**
+     * 슬롯 번호 순으로 한 엔트리씩 잠금을 잡고 읽는 반복자. 순회 중 새 키가 추가되어 테이블이 재구성되면
+     * 일부 엔트리를 건너뛰거나 두 번 방문할 수 있습니다.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private long position;
+        private Entry<String, Object> next = advance();
+        private String lastKey;
+
+        private Entry<String, Object> advance() {
+            lock.readLock().lock();
+            try {
+                for (; position < capacity; position++) {
+                    long base = position * SLOT_BYTES;
+                    if (table.get(ValueLayout.JAVA_BYTE, base + STATE) == FULL) {
+                        position++;
+                        return new SimpleImmutableEntry<>(readKey(base), readValue(base));
+                    }
+                }
+                return null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> current = next;
+            lastKey = current.getKey();
+            next = advance();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            OffHeapStorage.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    // --- 해시 테이블 ---
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /** 키가 들어있는 슬롯 번호를 반환합니다. 없으면 -1을 반환합니다. */
+    private long find(String key, int hash) {
+        long mask = capacity - 1;
+        for (long i = hash & mask;; i = (i + 1) & mask) {
+            long base = i * SLOT_BYTES;
+            byte state = table.get(ValueLayout.JAVA_BYTE, base + STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == FULL && table.get(INT_LAYOUT, base + HASH) == hash
+                    && keyEquals(table.get(LONG_LAYOUT, base + KEY), key)) {
+                return i;
+            }
+        }
+    }
+
+    /** 키가 없음이 확인된 상태에서 새 엔트리를 추가합니다. 삭제 표시된 슬롯을 재사용합니다. */
+    private void insert(String key, int hash, Object value) {
+        if ((size + deleted + 1) * 10L > capacity * 7L) {
+            // 부하율 0.7 초과: 삭제 표시가 많으면 같은 크기로, 아니면 두 배로 재구성
+            rebuild((size + 1) * 10L > capacity * 4L ? grownCapacity() : capacity);
+        } else if (garbageBytes > CHUNK_BYTES && garbageBytes > liveBytes) {
+            // 덮어쓰거나 삭제된 데이터가 살아있는 데이터보다 많아지면 압축
+            rebuild(capacity);
+        }
+        long base = freeSlot(table, capacity, hash) * SLOT_BYTES;
+        if (table.get(ValueLayout.JAVA_BYTE, base + STATE) == DELETED) {
+            deleted--;
+        }
+        table.set(INT_LAYOUT, base + HASH, hash);
+        table.set(LONG_LAYOUT, base + KEY, appendData(key.getBytes(StandardCharsets.UTF_8)));
+        writeValue(base, value);
+        table.set(ValueLayout.JAVA_BYTE, base + STATE, FULL);
+        size++;
+    }
+
+    private int grownCapacity() {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("off-heap 저장소의 최대 크기를 초과했습니다: " + size + "개 엔트리");
+        }
+        return capacity * 2;
+    }
+
+    private static long freeSlot(MemorySegment table, int capacity, int hash) {
+        long mask = capacity - 1;
+        for (long i = hash & mask;; i = (i + 1) & mask) {
+            if (table.get(ValueLayout.JAVA_BYTE, i * SLOT_BYTES + STATE) != FULL) {
+                return i;
+            }
+        }
+    }
+
+    private void delete(long base) {
+        releaseValue(base);
+        releaseData(table.get(LONG_LAYOUT, base + KEY));
+        table.set(ValueLayout.JAVA_BYTE, base + STATE, DELETED);
+        size--;
+        deleted++;
+    }
+
+    /**
+     * 새 테이블과 데이터 청크를 만들어 살아있는 엔트리만 옮깁니다. 슬롯 위치가 바뀌므로 새 키를 추가할 때만 호출하여,
+     * 순회하면서 제거하거나 값을 바꾸는 경우(CtxMap.clear 등)에는 순회 순서가 흔들리지 않도록 합니다. 삭제 표시와 버려진 데이터가 정리되며,
+     * 이전 테이블과 청크는 더 이상 참조되지 않으므로 GC가 off-heap 메모리를 해제합니다.
+     */
+    private void rebuild(int newCapacity) {
+        MemorySegment oldTable = table;
+        int oldCapacity = capacity;
+        List<MemorySegment> oldChunks = chunks;
+        Arena arena = Arena.ofAuto();
+        MemorySegment newTable = arena.allocate(newCapacity * SLOT_BYTES, 8);
+        chunks = new ArrayList<>();
+        chunkUsed = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        for (long i = 0; i < oldCapacity; i++) {
+            long from = i * SLOT_BYTES;
+            if (oldTable.get(ValueLayout.JAVA_BYTE, from + STATE) != FULL) {
+                continue;
+            }
+            int hash = oldTable.get(INT_LAYOUT, from + HASH);
+            long to = freeSlot(newTable, newCapacity, hash) * SLOT_BYTES;
+            MemorySegment.copy(oldTable, from, newTable, to, SLOT_BYTES);
+            newTable.set(LONG_LAYOUT, to + KEY, appendData(readData(oldChunks, oldTable.get(LONG_LAYOUT, from + KEY))));
+            if (oldTable.get(ValueLayout.JAVA_BYTE, from + KIND) == STRING) {
+                newTable.set(LONG_LAYOUT, to + VALUE,
+                        appendData(readData(oldChunks, oldTable.get(LONG_LAYOUT, from + VALUE))));
+            }
+        }
+        table = newTable;
+        capacity = newCapacity;
+        deleted = 0;
+    }
+
+    // --- 값 인코딩 ---
+
+    private Object swapValue(long base, Object value) {
+        Object previous = readValue(base);
+        releaseValue(base);
+        writeValue(base, value);
+        return previous;
+    }
+
+    private void writeValue(long base, Object value) {
+        if (value instanceof CtxSlot slot) {
+            // 원시 슬롯은 비트를 그대로 기록하고, REF 슬롯은 보관 중인 값을 기록
+            switch (slot.kind) {
+                case CtxSlot.INT -> writeBits(base, INT, slot.bits);
+                case CtxSlot.LONG -> writeBits(base, LONG, slot.bits);
+                case CtxSlot.DOUBLE -> writeBits(base, DOUBLE, slot.bits);
+                case CtxSlot.BOOLEAN -> writeBits(base, BOOLEAN, slot.bits);
+                default -> writeValue(base, slot.ref);
+            }
+        } else if (value instanceof CtxParsed parsed) {
+            writeValue(base, parsed.text);
+        } else if (value instanceof Integer i) {
+            writeBits(base, INT, i);
+        } else if (value instanceof Long l) {
+            writeBits(base, LONG, l);
+        } else if (value instanceof Double d) {
+            writeBits(base, DOUBLE, Double.doubleToRawLongBits(d));
+        } else if (value instanceof Boolean b) {
+            writeBits(base, BOOLEAN, b ? 1L : 0L);
+        } else if (value instanceof String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length <= INLINE_STRING_MAX) {
+                table.set(ValueLayout.JAVA_BYTE, base + KIND, SHORT_STRING);
+                table.set(ValueLayout.JAVA_BYTE, base + INLINE_LENGTH, (byte) bytes.length);
+                MemorySegment.copy(bytes, 0, table, ValueLayout.JAVA_BYTE, base + VALUE, bytes.length);
+            } else {
+                writeBits(base, STRING, appendData(bytes));
+            }
+        } else {
+            writeBits(base, REF, addRef(value));
+        }
+    }
+
+    private void writeBits(long base, byte kind, long bits) {
+        table.set(ValueLayout.JAVA_BYTE, base + KIND, kind);
+        table.set(LONG_LAYOUT, base + VALUE, bits);
+    }
+
+    private Object readValue(long base) {
+        long bits = table.get(LONG_LAYOUT, base + VALUE);
+        return switch (table.get(ValueLayout.JAVA_BYTE, base + KIND)) {
+            case INT -> (int) bits;
+            case LONG -> bits;
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            case BOOLEAN -> bits != 0L;
+            case SHORT_STRING -> {
+                byte[] bytes = new byte[table.get(ValueLayout.JAVA_BYTE, base + INLINE_LENGTH)];
+                MemorySegment.copy(table, ValueLayout.JAVA_BYTE, base + VALUE, bytes, 0, bytes.length);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+            case STRING -> new String(readData(chunks, bits), StandardCharsets.UTF_8);
+            default -> refs[(int) bits];
+        };
+    }
+
+    /** 값이 차지하던 데이터 영역이나 참조 칸을 반납합니다. */
+    private void releaseValue(long base) {
+        byte kind = table.get(ValueLayout.JAVA_BYTE, base + KIND);
+        long bits = table.get(LONG_LAYOUT, base + VALUE);
+        if (kind == STRING) {
+            releaseData(bits);
+        } else if (kind == REF) {
+            int index = (int) bits;
+            refs[index] = null;
+            if (freeCount == freeRefs.length) {
+                freeRefs = Arrays.copyOf(freeRefs, freeCount * 2);
+            }
+            freeRefs[freeCount++] = index;
+        }
+    }
+
+    private String readKey(long base) {
+        return new String(readData(chunks, table.get(LONG_LAYOUT, base + KEY)), StandardCharsets.UTF_8);
+    }
+
+    /** 저장된 키와 같은지 문자열 인코딩 없이 비교합니다. ASCII가 아닌 문자가 있을 때만 UTF-8로 인코딩합니다. */
+    private boolean keyEquals(long ref, String key) {
+        MemorySegment chunk = chunks.get((int) (ref >>> 32));
+        long offset = ref & 0xFFFFFFFFL;
+        int length = chunk.get(INT_LAYOUT, offset);
+        int n = key.length();
+        if (length == n) {
+            for (int i = 0; i < n; i++) {
+                char c = key.charAt(i);
+                if (c >= 0x80) {
+                    return Arrays.equals(readData(chunks, ref), key.getBytes(StandardCharsets.UTF_8));
+                }
+                if (chunk.get(ValueLayout.JAVA_BYTE, offset + 4 + i) != (byte) c) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // UTF-8 길이가 문자 수보다 길면 ASCII가 아닌 문자가 있는 키
+        return length > n && Arrays.equals(readData(chunks, ref), key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // --- 데이터 청크 ---
+
+    private long appendData(byte[] bytes) {
+        int needed = 4 + bytes.length;
+        MemorySegment chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.byteSize() - chunkUsed < needed) {
+            chunk = Arena.ofAuto().allocate(Math.max(CHUNK_BYTES, needed), 8);
+            chunks.add(chunk);
+            chunkUsed = 0;
+        }
+        long offset = chunkUsed;
+        chunk.set(INT_LAYOUT, offset, bytes.length);
+        MemorySegment.copy(bytes, 0, chunk, ValueLayout.JAVA_BYTE, offset + 4, bytes.length);
+        chunkUsed += needed;
+        liveBytes += needed;
+        return ((long) (chunks.size() - 1) << 32) | offset;
+    }
+
+    private static byte[] readData(List<MemorySegment> chunks, long ref) {
+        MemorySegment chunk = chunks.get((int) (ref >>> 32));
+        long offset = ref & 0xFFFFFFFFL;
+        byte[] bytes = new byte[chunk.get(INT_LAYOUT, offset)];
+        MemorySegment.copy(chunk, ValueLayout.JAVA_BYTE, offset + 4, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private void releaseData(long ref) {
+        int length = chunks.get((int) (ref >>> 32)).get(INT_LAYOUT, ref & 0xFFFFFFFFL);
+        liveBytes -= 4 + length;
+        garbageBytes += 4 + length;
+    }
+
+    private int addRef(Object value) {
+        int index;
+        if (freeCount > 0) {
+            index = freeRefs[--freeCount];
+        } else {
+            if (refCount == refs.length) {
+                refs = Arrays.copyOf(refs, refCount * 2);
+            }
+            index = refCount++;
+        }
+        refs[index] = value;
+        return index;
+    }
+}
@@ -0,0 +1,326 @@
+package util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * ReadOptimizedStorage: 불변 선형 탐사 테이블을 volatile 참조로 교체하는 copy-on-write ConcurrentMap 구현.
+ * 키와 값을 하나의 Object 배열에 번갈아 저장하므로 조회가 노드 객체를 따라가지 않고 연속된 메모리를 읽으며,
+ * 잠금이나 CAS 없이 volatile 읽기 한 번으로 끝납니다. 대신 쓰기마다 테이블을 복사하므로(O(n)),
+ * 한 번 구성한 뒤 주로 읽기만 하는 설정/전역 컨텍스트에 적합합니다.
+ * CtxMap의 {@link CtxStorage#READ_OPTIMIZED} 저장 전략에서 사용됩니다.
+ */
+final class ReadOptimizedStorage extends AbstractMap<String, Object>
+        implements ConcurrentMap<String, Object>, Serializable {
+
+    private static final long serialVersionUID = 20240114L;
+
+    private static final Table EMPTY = new Table(new Object[2 * 4], 0);
+
+    /** 현재 테이블. 쓰기는 이 객체의 모니터를 잡고 새 테이블을 만든 뒤 참조를 교체합니다. */
+    private volatile Table table = EMPTY;
+
+    ReadOptimizedStorage() {
+    }
+
+    ReadOptimizedStorage(Map<String, ?> initial) {
+        Table t = Table.withCapacity(initial.size());
+        for (Entry<String, ?> e : initial.entrySet()) {
+            t.insert(Objects.requireNonNull(e.getKey()), Objects.requireNonNull(e.getValue()));
+        }
+        table = t;
+    }
+
+    /**
+     * 불변 테이블. slots는 [키0, 값0, 키1, 값1, ...] 순서이며 빈 칸의 키는 null입니다.
+     * 생성 중(insert)에만 수정되고, 저장소에 게시된 뒤에는 수정되지 않습니다.
+     */
+    private static final class Table implements Serializable {
+
+        private static final long serialVersionUID = 20240114L;
+
+        final Object[] slots;
+        int size;
+
+        Table(Object[] slots, int size) {
+            this.slots = slots;
+            this.size = size;
+        }
+
+        static Table withCapacity(int entries) {
+            // 부하율 0.5 이하를 유지하는 2의 거듭제곱
+            int capacity = Integer.highestOneBit(Math.max(4, entries * 2) - 1) << 1;
+            return new Table(new Object[2 * capacity], 0);
+        }
+
+        int mask() {
+            return (slots.length >> 1) - 1;
+        }
+
+        /** 키가 있는 칸 번호를 반환합니다. 없으면 -(삽입할 칸 번호 + 1)을 반환합니다. */
+        int indexOf(Object key) {
+            int mask = mask();
+            for (int i = spread(key.hashCode()) & mask;; i = (i + 1) & mask) {
+                Object k = slots[2 * i];
+                if (k == null) {
+                    return -(i + 1);
+                }
+                if (k == key || k.equals(key)) {
+                    return i;
+                }
+            }
+        }
+
+        Object get(Object key) {
+            int i = indexOf(key);
+            return (i >= 0) ? slots[2 * i + 1] : null;
+        }
+
+        void insert(String key, Object value) {
+            int i = indexOf(key);
+            if (i < 0) {
+                i = -i - 1;
+                slots[2 * i] = key;
+                size++;
+            }
+            slots[2 * i + 1] = value;
+        }
+
+        /** 값만 바꾼 새 테이블. 키 배치는 그대로이므로 배열 복사 한 번으로 끝납니다. */
+        Table withValue(int index, Object value) {
+            Object[] copy = slots.clone();
+            copy[2 * index + 1] = value;
+            return new Table(copy, size);
+        }
+
+        /** 새 키를 추가한 테이블. 부하율을 넘으면 두 배 크기로 다시 구성합니다. */
+        Table withEntry(String key, Object value) {
+            Table next;
+            if ((size + 1) * 2 > (slots.length >> 1)) {
+                next = rebuilt(size + 1, null);
+            } else {
+                next = new Table(slots.clone(), size);
+            }
+            next.insert(key, value);
+            return next;
+        }
+
+        /** 키를 뺀 테이블. 선형 탐사의 연속성을 유지하기 위해 나머지 엔트리로 다시 구성합니다. */
+        Table without(Object key) {
+            return rebuilt(size - 1, key);
+        }
+
+        private Table rebuilt(int entries, Object skip) {
+            Table next = withCapacity(entries);
+            for (int i = 0; i < slots.length; i += 2) {
+                Object k = slots[i];
+                if (k != null && !k.equals(skip)) {
+                    next.insert((String) k, slots[i + 1]);
+                }
+            }
+            return next;
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return (key instanceof String) ? table.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return table.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return table.size == 0;
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Table t = table;
+        int i = t.indexOf(key);
+        if (i >= 0) {
+            table = t.withValue(i, value);
+            return t.slots[2 * i + 1];
+        }
+        table = t.withEntry(key, value);
+        return null;
+    }
+
+    /**
+     * 엔트리마다 테이블을 복사하지 않고, 기존 엔트리와 새 엔트리로 테이블을 한 번만 구성합니다 (O(n + m)).
+     */
+    @Override
+    public void putAll(Map<? extends String, ?> entries) {
+        putAll(entries, displaced -> {
+        });
+    }
+
+    /**
+     * {@link #putAll(Map)}과 같으며, 같은 키로 교체된 이전 값을 displaced에 전달합니다.
+     * null 키나 값이 있으면 저장소를 바꾸지 않고 NullPointerException을 던집니다.
+     */
+    synchronized void putAll(Map<? extends String, ?> entries, Consumer<Object> displaced) {
+        entries.forEach((k, v) -> {
+            Objects.requireNonNull(k);
+            Objects.requireNonNull(v);
+        });
+        Table t = table;
+        Table next = Table.withCapacity(t.size + entries.size());
+        for (int i = 0; i < t.slots.length; i += 2) {
+            if (t.slots[i] != null) {
+                next.insert((String) t.slots[i], t.slots[i + 1]);
+            }
+        }
+        for (Entry<? extends String, ?> e : entries.entrySet()) {
+            int i = next.indexOf(e.getKey());
+            if (i >= 0) {
+                displaced.accept(next.slots[2 * i + 1]);
+            }
+            next.insert(e.getKey(), e.getValue());
+        }
+        table = next;
+    }
+
+    @Override
+    public synchronized Object putIfAbsent(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Table t = table;
+        int i = t.indexOf(key);
+        if (i >= 0) {
+            return t.slots[2 * i + 1];
+        }
+        table = t.withEntry(key, value);
+        return null;
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Table t = table;
+        Object existing = t.get(key);
+        if (existing != null) {
+            table = t.without(key);
+        }
+        return existing;
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        if (!(key instanceof String) || value == null) {
+            return false;
+        }
+        Table t = table;
+        if (!value.equals(t.get(key))) {
+            return false;
+        }
+        table = t.without(key);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean replace(String key, Object oldValue, Object newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        Table t = table;
+        int i = t.indexOf(key);
+        if (i < 0 || !oldValue.equals(t.slots[2 * i + 1])) {
+            return false;
+        }
+        table = t.withValue(i, newValue);
+        return true;
+    }
+
+    @Override
+    public synchronized Object replace(String key, Object value) {
+        Objects.requireNonNull(value);
+        Table t = table;
+        int i = t.indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        table = t.withValue(i, value);
+        return t.slots[2 * i + 1];
+    }
+
+    @Override
+    public synchronized void clear() {
+        table = EMPTY;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        Object[] slots = table.slots;
+        for (int i = 0; i < slots.length; i += 2) {
+            if (slots[i] != null) {
+                action.accept((String) slots[i], slots[i + 1]);
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        // 순회는 호출 시점의 테이블을 기준으로 하므로 동시 수정과 무관하게 일관됨
+        Table t = table;
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < t.slots.length && t.slots[from] == null) {
+                            from += 2;
+                        }
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < t.slots.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, Object> e = new SimpleImmutableEntry<>((String) t.slots[next], t.slots[next + 1]);
+                        next = advance(next + 2);
+                        return e;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return t.size;
+            }
+        };
+    }
+}
@@ -0,0 +1,347 @@
+package util;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * SmallStorage: 엔트리가 적은 컨텍스트를 위한 ConcurrentMap 구현.
+ * 키와 값을 하나의 Object 배열에 [키0, 값0, 키1, 값1, ...] 순서로 저장하고 선형 탐색하므로,
+ * ConcurrentHashMap의 테이블과 엔트리마다의 Node 객체 없이 배열 하나로 끝나며 조회도 연속된 메모리만 읽습니다.
+ * 엔트리가 {@link #THRESHOLD}개를 넘으면 ConcurrentHashMap으로 자동 전환되며, 이후에는 모든 연산을 위임합니다.
+ * CtxMap의 {@link CtxStorage#CONCURRENT} 저장 전략에서 작은 컨텍스트에 사용됩니다.
+ *
+ * 조회는 잠금 없이 수행됩니다. 쓰기는 이 객체의 모니터를 잡고, 새 엔트리는 배열 끝에 값→키 순서로 release 기록하므로
+ * 키를 acquire로 읽은 조회는 항상 완성된 값을 봅니다. 제거는 배열을 복사해서 교체하므로 진행 중인 조회에 영향을 주지 않습니다.
+ */
+final class SmallStorage extends AbstractMap<String, Object>
+        implements ConcurrentMap<String, Object>, Serializable {
+
+    private static final long serialVersionUID = 20240115L;
+
+    /** 배열 표현으로 유지하는 최대 엔트리 수. 이를 넘으면 ConcurrentHashMap으로 전환됩니다. */
+    static final int THRESHOLD = 16;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * 현재 표현. Object[](배열 표현) 또는 ConcurrentHashMap(전환 후)입니다.
+     * 전환은 한 방향으로만 일어나며, 전환 후에는 이전 배열을 더 이상 수정하지 않습니다.
+     */
+    private volatile Object state;
+
+    /** 배열 표현에서의 엔트리 수. 쓰기는 모니터 안에서만 수행됩니다. */
+    private volatile int size;
+
+    SmallStorage() {
+        state = new Object[2 * INITIAL_CAPACITY];
+    }
+
+    SmallStorage(Map<String, ?> initial) {
+        if (initial.size() > THRESHOLD) {
+            state = new ConcurrentHashMap<String, Object>(initial);
+            return;
+        }
+        Object[] slots = new Object[2 * Math.max(INITIAL_CAPACITY, initial.size())];
+        int n = 0;
+        for (Entry<String, ?> e : initial.entrySet()) {
+            slots[2 * n] = Objects.requireNonNull(e.getKey());
+            slots[2 * n + 1] = Objects.requireNonNull(e.getValue());
+            n++;
+        }
+        size = n;
+        state = slots;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentHashMap<String, Object> hashed(Object state) {
+        return (ConcurrentHashMap<String, Object>) state;
+    }
+
+    /** 키가 있는 칸 번호를 반환합니다. 없으면 -1을 반환합니다. */
+    private static int indexOf(Object[] slots, Object key) {
+        int h = key.hashCode();
+        for (int i = 0; i < slots.length; i += 2) {
+            Object k = SLOTS.getAcquire(slots, i);
+            if (k == null) {
+                // 엔트리는 앞에서부터 빈틈없이 채워지므로 첫 빈 칸 이후에는 키가 없음
+                return -1;
+            }
+            if (k == key || (k.hashCode() == h && k.equals(key))) {
+                return i >> 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object s = state;
+        if (s instanceof Object[] slots) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int i = indexOf(slots, key);
+            return (i >= 0) ? SLOTS.getAcquire(slots, 2 * i + 1) : null;
+        }
+        return hashed(s).get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        Object s = state;
+        return (s instanceof Object[]) ? size : hashed(s).size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return write(key, value, false);
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        return write(key, value, true);
+    }
+
+    private Object write(String key, Object value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Object s = state;
+        if (s instanceof Object[]) {
+            synchronized (this) {
+                s = state;
+                if (s instanceof Object[] slots) {
+                    int i = indexOf(slots, key);
+                    if (i >= 0) {
+                        Object old = slots[2 * i + 1];
+                        if (!onlyIfAbsent) {
+                            SLOTS.setRelease(slots, 2 * i + 1, value);
+                        }
+                        return old;
+                    }
+                    append(slots, key, value);
+                    return null;
+                }
+            }
+        }
+        ConcurrentHashMap<String, Object> map = hashed(s);
+        return onlyIfAbsent ? map.putIfAbsent(key, value) : map.put(key, value);
+    }
+
+    /** 새 엔트리를 추가합니다. 모니터를 잡은 상태에서만 호출됩니다. */
+    private void append(Object[] slots, String key, Object value) {
+        int n = size;
+        if (n == THRESHOLD) {
+            ConcurrentHashMap<String, Object> map = new ConcurrentHashMap<>(2 * THRESHOLD);
+            for (int i = 0; i < n; i++) {
+                map.put((String) slots[2 * i], slots[2 * i + 1]);
+            }
+            map.put(key, value);
+            state = map;
+            return;
+        }
+        if (2 * n == slots.length) {
+            Object[] grown = new Object[Math.min(2 * THRESHOLD, 2 * slots.length)];
+            System.arraycopy(slots, 0, grown, 0, slots.length);
+            grown[2 * n] = key;
+            grown[2 * n + 1] = value;
+            size = n + 1;
+            state = grown;
+            return;
+        }
+        // 값을 먼저 기록하여, 키가 보이는 조회는 항상 값도 볼 수 있도록 함
+        SLOTS.setRelease(slots, 2 * n + 1, value);
+        SLOTS.setRelease(slots, 2 * n, key);
+        size = n + 1;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return remove(key, null, true);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return value != null && remove(key, value, false) != null;
+    }
+
+    private Object remove(Object key, Object expected, boolean any) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Object s = state;
+        if (s instanceof Object[]) {
+            synchronized (this) {
+                s = state;
+                if (s instanceof Object[] slots) {
+                    int i = indexOf(slots, key);
+                    if (i < 0) {
+                        return null;
+                    }
+                    Object old = slots[2 * i + 1];
+                    if (!any && !expected.equals(old)) {
+                        return null;
+                    }
+                    // 진행 중인 조회가 엔트리를 놓치지 않도록 제자리에서 당기지 않고 복사본으로 교체
+                    Object[] copy = new Object[slots.length];
+                    System.arraycopy(slots, 0, copy, 0, 2 * i);
+                    System.arraycopy(slots, 2 * i + 2, copy, 2 * i, 2 * (size - i - 1));
+                    size = size - 1;
+                    state = copy;
+                    return old;
+                }
+            }
+        }
+        ConcurrentHashMap<String, Object> map = hashed(s);
+        if (any) {
+            return map.remove(key);
+        }
+        return map.remove(key, expected) ? expected : null;
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        Object s = state;
+        if (s instanceof Object[]) {
+            synchronized (this) {
+                s = state;
+                if (s instanceof Object[] slots) {
+                    int i = indexOf(slots, key);
+                    if (i < 0 || !oldValue.equals(slots[2 * i + 1])) {
+                        return false;
+                    }
+                    SLOTS.setRelease(slots, 2 * i + 1, newValue);
+                    return true;
+                }
+            }
+        }
+        return hashed(s).replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        Objects.requireNonNull(value);
+        Object s = state;
+        if (s instanceof Object[]) {
+            synchronized (this) {
+                s = state;
+                if (s instanceof Object[] slots) {
+                    int i = indexOf(slots, key);
+                    if (i < 0) {
+                        return null;
+                    }
+                    Object old = slots[2 * i + 1];
+                    SLOTS.setRelease(slots, 2 * i + 1, value);
+                    return old;
+                }
+            }
+        }
+        return hashed(s).replace(key, value);
+    }
+
+    @Override
+    public void clear() {
+        Object s = state;
+        if (s instanceof Object[]) {
+            synchronized (this) {
+                s = state;
+                if (s instanceof Object[] slots) {
+                    size = 0;
+                    state = new Object[slots.length];
+                    return;
+                }
+            }
+        }
+        // 전환 후에는 잠금 없이 쓰는 스레드가 있으므로 배열 표현으로 되돌리지 않음
+        hashed(s).clear();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        Object s = state;
+        if (s instanceof Object[] slots) {
+            for (int i = 0; i < slots.length; i += 2) {
+                Object k = SLOTS.getAcquire(slots, i);
+                if (k == null) {
+                    break;
+                }
+                action.accept((String) k, SLOTS.getAcquire(slots, i + 1));
+            }
+            return;
+        }
+        hashed(s).forEach(action);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Object s = state;
+        if (!(s instanceof Object[] slots)) {
+            return hashed(s).entrySet();
+        }
+        // 배열 표현의 순회는 호출 시점의 배열을 기준으로 하는 약한 일관성(weakly consistent)을 가짐
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+                    private Object last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < slots.length && SLOTS.getAcquire(slots, next) != null;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        String k = (String) SLOTS.getAcquire(slots, next);
+                        Entry<String, Object> e = new SimpleImmutableEntry<>(k, SLOTS.getAcquire(slots, next + 1));
+                        last = k;
+                        next += 2;
+                        return e;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        SmallStorage.this.remove(last);
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SmallStorage.this.size();
+            }
+        };
+    }
+}
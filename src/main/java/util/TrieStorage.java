@@ -0,0 +1,175 @@
+package util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * TrieStorage: HashTrie를 AtomicReference로 감싼 스레드-안전 ConcurrentMap 구현.
+ * 쓰기는 경로 복사로 새 트라이를 만든 뒤 CAS로 교체하고, 읽기와 스냅샷은 현재 트라이 참조를 읽기만 합니다.
+ * CtxMap의 persistent 저장 모드에서 ConcurrentHashMap 대신 사용됩니다.
+ */
+final class TrieStorage extends AbstractMap<String, Object> implements ConcurrentMap<String, Object>, Serializable {
+
+    private static final long serialVersionUID = 20240114L;
+
+    private final AtomicReference<HashTrie> root = new AtomicReference<>(HashTrie.EMPTY);
+
+    TrieStorage() {
+    }
+
+    TrieStorage(Map<String, ?> initial) {
+        HashTrie trie = HashTrie.EMPTY;
+        for (Entry<String, ?> e : initial.entrySet()) {
+            trie = trie.put(Objects.requireNonNull(e.getKey()), Objects.requireNonNull(e.getValue()));
+        }
+        root.set(trie);
+    }
+
+    /**
+     * 현재 상태의 불변 트라이를 반환합니다. 이후의 쓰기와 무관한 O(1) 스냅샷입니다.
+     */
+    HashTrie snapshot() {
+        return root.get();
+    }
+
+    @Override
+    public Object get(Object key) {
+        return (key instanceof String k) ? root.get().get(k) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return root.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root.get().size() == 0;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        while (true) {
+            HashTrie current = root.get();
+            if (root.compareAndSet(current, current.put(key, value))) {
+                return current.get(key);
+            }
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        while (true) {
+            HashTrie current = root.get();
+            Object existing = current.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (root.compareAndSet(current, current.put(key, value))) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String k)) {
+            return null;
+        }
+        while (true) {
+            HashTrie current = root.get();
+            Object existing = current.get(k);
+            if (existing == null || root.compareAndSet(current, current.remove(k))) {
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof String k) || value == null) {
+            return false;
+        }
+        while (true) {
+            HashTrie current = root.get();
+            if (!value.equals(current.get(k))) {
+                return false;
+            }
+            if (root.compareAndSet(current, current.remove(k))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        while (true) {
+            HashTrie current = root.get();
+            if (!oldValue.equals(current.get(key))) {
+                return false;
+            }
+            if (root.compareAndSet(current, current.put(key, newValue))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        Objects.requireNonNull(value);
+        while (true) {
+            HashTrie current = root.get();
+            Object existing = current.get(key);
+            if (existing == null || root.compareAndSet(current, current.put(key, value))) {
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        root.set(HashTrie.EMPTY);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        root.get().forEach(action::accept);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        // 순회는 호출 시점의 스냅샷을 기준으로 하므로 동시 수정과 무관하게 일관됨
+        HashTrie trie = root.get();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return trie.iterator(UnaryOperator.identity());
+            }
+
+            @Override
+            public int size() {
+                return trie.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CtxMap의 변경 추적(version, changesSince) 테스트.
+ */
+class CtxChangeTrackingTest {
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void changesSinceListsKeysInChangeOrder(CtxStorage strategy) {
+        CtxMap ctx = CtxMap.create(strategy).put("a", "1").put("b", "2").put("c", "3");
+        // 추적 시작 전에는 무엇이 바뀌었는지 모르므로 모든 키
+        assertEquals(Set.of("a", "b", "c"), ctx.changesSince(0));
+        long start = ctx.version();
+        assertEquals(0, start);
+        assertTrue(ctx.changesSince(start).isEmpty());
+
+        ctx.put("b", "20");
+        long afterB = ctx.version();
+        ctx.putInt("d", 4);
+        ctx.put("a", "10");
+        ctx.put("b", "200");
+
+        assertEquals(4, ctx.version());
+        assertEquals(List.of("d", "a", "b"), new ArrayList<>(ctx.changesSince(start)));
+        assertEquals(List.of("d", "a", "b"), new ArrayList<>(ctx.changesSince(afterB)));
+        assertEquals(List.of("b"), new ArrayList<>(ctx.changesSince(ctx.version() - 1)));
+        assertTrue(ctx.changesSince(ctx.version()).isEmpty());
+        assertEquals(4, ctx.version("b"));
+        assertEquals(3, ctx.version("a"));
+        assertEquals(0, ctx.version("c"));
+        assertEquals(Set.of("a", "b", "c", "d"), ctx.changesSince(-1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void everyKindOfWriteIsRecorded(CtxStorage strategy) {
+        CtxMap ctx = CtxMap.create(strategy).put("gone", "x").put("text", "a").put("keep", "k");
+        long start = ctx.version();
+
+        ctx.increment("counter");
+        ctx.merge("text", "b", (x, y) -> x + (String) y);
+        ctx.putIfAbsent("keep", "ignored");
+        ctx.putIfAbsent("new", "n");
+        ctx.putAll(Map.of("bulk", 1));
+        ctx.remove("gone");
+        ctx.remove("missing");
+
+        assertEquals(List.of("counter", "text", "new", "bulk", "gone"), new ArrayList<>(ctx.changesSince(start)));
+        assertEquals(start + 5, ctx.version(), "변경이 없는 쓰기는 버전을 올리지 않음");
+
+        long beforeClear = ctx.version();
+        ctx.clear();
+        assertEquals(Set.of("counter", "text", "keep", "new", "bulk"), ctx.changesSince(beforeClear));
+    }
+
+    @Test
+    void counterUpdatesAreRecordedEachTime() {
+        CtxMap ctx = new CtxMap();
+        long start = ctx.version();
+        for (int i = 0; i < 5; i++) {
+            ctx.increment("hits");
+        }
+        ctx.add("ratio", 0.5);
+        assertEquals(start + 6, ctx.version());
+        assertEquals(start + 5, ctx.version("hits"));
+        assertEquals(List.of("hits", "ratio"), new ArrayList<>(ctx.changesSince(start)));
+    }
+
+    @Test
+    void childTracksOnlyLocalWrites() {
+        CtxMap parent = new CtxMap().put("a", "1").put("b", "2");
+        CtxMap child = parent.child();
+        long start = child.version();
+
+        parent.put("c", "3");
+        assertTrue(child.changesSince(start).isEmpty());
+        child.put("a", "override");
+        child.remove("b");
+        child.remove("never");
+        assertEquals(List.of("a", "b"), new ArrayList<>(child.changesSince(start)));
+
+        long beforeClear = child.version();
+        child.clear();
+        // 로컬 값이 제거되고 물려받은 키는 툼스톤으로 가려짐 (이미 가려져 있던 b가 함께 보고되어도 동기화에는 무해)
+        assertTrue(child.changesSince(beforeClear).containsAll(Set.of("a", "c")));
+        assertTrue(child.isEmpty());
+    }
+
+    @Test
+    void versionAndReadsSupportCacheSync() {
+        CtxMap ctx = new CtxMap().put("a", "1").put("b", "2");
+        Map<String, Object> cache = new HashMap<>(ctx.asReadOnlyMap());
+        long last = ctx.version();
+
+        ctx.put("a", "3").remove("b");
+        ctx.put("c", "4");
+        long next = ctx.version();
+        for (String key : ctx.changesSince(last)) {
+            Object value = ctx.getObject(key, Object.class);
+            if (value == null) {
+                cache.remove(key);
+            } else {
+                cache.put(key, value);
+            }
+        }
+        assertEquals(ctx.asReadOnlyMap(), cache);
+        assertTrue(ctx.changesSince(next).isEmpty());
+    }
+}
@@ -0,0 +1,283 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CtxCodec의 태그별 인코딩/디코딩 왕복 테스트.
+ */
+class CtxCodecTest {
+
+    record Point(int x, int y) {
+    }
+
+    record Line(Point from, Point to, String label) {
+    }
+
+    /** 직렬화 가능한 레코드 (Java 직렬화 프록시 확인용). 등록하지 않음 */
+    record Money(String currency, long amount) implements Serializable {
+    }
+
+    /** 등록하지 않는 레코드 (디코딩 거부 확인용) */
+    record Unregistered(String value) {
+    }
+
+    private static CtxMap roundTrip(CtxMap ctx) {
+        return CtxCodec.decode(CtxCodec.encode(ctx));
+    }
+
+    @Test
+    void scalarTags() {
+        CtxMap ctx = new CtxMap()
+                .putBoolean("false", false)
+                .putBoolean("true", true)
+                .putInt("int", -42)
+                .putLong("long", Long.MIN_VALUE)
+                .putDouble("double", 3.5)
+                .put("string", "한글 text")
+                .put("byte", (byte) -7)
+                .put("short", (short) 1234)
+                .put("float", 1.25f)
+                .put("boxedInt", Integer.MAX_VALUE);
+
+        CtxMap decoded = roundTrip(ctx);
+
+        assertFalse(decoded.getBoolean("false"));
+        assertTrue(decoded.getBoolean("true"));
+        assertEquals(-42, decoded.getInt("int"));
+        assertEquals(Long.MIN_VALUE, decoded.getLong("long"));
+        assertEquals(3.5, decoded.getDouble("double"));
+        assertEquals("한글 text", decoded.getString("string"));
+        assertEquals(Byte.valueOf((byte) -7), decoded.getObject("byte", Byte.class));
+        assertEquals(Short.valueOf((short) 1234), decoded.getObject("short", Short.class));
+        assertEquals(Float.valueOf(1.25f), decoded.getObject("float", Float.class));
+        assertEquals(Integer.MAX_VALUE, decoded.getInt("boxedInt"));
+        assertEquals(ctx, decoded);
+    }
+
+    @Test
+    void containerTags() {
+        Map<String, Object> nestedMap = new LinkedHashMap<>();
+        nestedMap.put("a", 1);
+        nestedMap.put("none", null);
+        nestedMap.put("list", List.of("x", 2L));
+        CtxMap nestedCtx = new CtxMap().putInt("depth", 2).put("name", "inner");
+        CtxMap ctx = new CtxMap()
+                .put("list", Arrays.asList(1, null, "two", 3.0, List.of(true)))
+                .put("map", nestedMap)
+                .put("ctx", nestedCtx);
+
+        CtxMap decoded = roundTrip(ctx);
+
+        assertEquals(Arrays.asList(1, null, "two", 3.0, List.of(true)), decoded.getObject("list", List.class));
+        assertEquals(nestedMap, decoded.getMap("map"));
+        // 중첩 맵은 순서도 유지
+        assertEquals(List.of("a", "none", "list"), List.copyOf(decoded.getMap("map").keySet()));
+        CtxMap decodedNested = decoded.getObject("ctx", CtxMap.class);
+        assertEquals(2, decodedNested.getInt("depth"));
+        assertEquals("inner", decodedNested.getString("name"));
+    }
+
+    @Test
+    void recordTagRequiresRegistration() {
+        CtxMap ctx = new CtxMap().put("line", new Line(new Point(1, 2), new Point(3, 4), "diagonal"));
+        ByteBuffer encoded = CtxCodec.encode(ctx);
+
+        CtxCodec.registerRecord(Line.class);
+        // 중첩 레코드도 각각 등록해야 함
+        assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(encoded.duplicate()));
+
+        CtxCodec.registerRecord(Point.class);
+        CtxMap decoded = CtxCodec.decode(encoded.duplicate());
+        assertEquals(new Line(new Point(1, 2), new Point(3, 4), "diagonal"), decoded.getObject("line", Line.class));
+    }
+
+    @Test
+    void unregisteredRecordIsRejected() {
+        ByteBuffer encoded = CtxCodec.encode(new CtxMap().put("value", new Unregistered("x")));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(encoded));
+        assertTrue(e.getMessage().contains(Unregistered.class.getName()));
+    }
+
+    @Test
+    void serializedTagRequiresFilter() {
+        CtxMap ctx = new CtxMap().put("date", LocalDate.of(2024, 1, 18));
+        ByteBuffer encoded = CtxCodec.encode(ctx);
+
+        assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(encoded.duplicate()));
+        try {
+            CtxCodec.setSerialFilter(ObjectInputFilter.Config.createFilter("java.util.*"));
+            assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(encoded.duplicate()));
+
+            CtxCodec.setSerialFilter(ObjectInputFilter.Config.createFilter("java.time.*"));
+            assertEquals(LocalDate.of(2024, 1, 18), CtxCodec.decode(encoded.duplicate()).getObject("date", LocalDate.class));
+        } finally {
+            CtxCodec.setSerialFilter(null);
+        }
+    }
+
+    @Test
+    void strategyFlagIsPreserved() {
+        for (CtxStorage strategy : CtxStorage.values()) {
+            CtxMap ctx = CtxMap.create(strategy).putInt("n", 1).put("s", "v");
+            CtxMap decoded = roundTrip(ctx);
+            assertEquals(strategy, decoded.strategy());
+            assertEquals(ctx, decoded);
+        }
+    }
+
+    @Test
+    void repeatedKeysAreReferenced() {
+        CtxMap ctx = new CtxMap()
+                .put("a", Map.of("shared", 1))
+                .put("b", Map.of("shared", 2));
+        CtxMap decoded = roundTrip(ctx);
+        assertEquals(Map.of("shared", 1), decoded.getMap("a"));
+        assertEquals(Map.of("shared", 2), decoded.getMap("b"));
+    }
+
+    @Test
+    void deltaRoundTrip() {
+        CtxDelta delta = CtxDelta.of(Map.of("a", 1, "b", List.of("x")), Set.of("gone"));
+        CtxDelta decoded = CtxCodec.decodeDelta(CtxCodec.encodeDelta(delta));
+        assertEquals(delta, decoded);
+    }
+
+    @Test
+    void streamingRoundTripWithSmallBuffer() throws IOException {
+        CtxMap ctx = new CtxMap();
+        for (int i = 0; i < 200; i++) {
+            ctx.put("key" + i, "value-" + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (WritableByteChannel out = Channels.newChannel(bytes)) {
+            CtxCodec.encode(ctx, out, ByteBuffer.allocate(16));
+        }
+        try (ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(ctx, CtxCodec.decode(in, ByteBuffer.allocate(16).flip()));
+        }
+    }
+
+    @Test
+    void truncatedInputIsRejected() {
+        ByteBuffer encoded = CtxCodec.encode(new CtxMap().put("s", "value"));
+        encoded.limit(encoded.limit() - 2);
+        assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(encoded));
+    }
+
+    @Test
+    void unknownTagIsRejected() {
+        ByteBuffer encoded = CtxCodec.encode(new CtxMap().putInt("n", 1));
+        // 헤더(4) + 새 키 참조(1) + 키 길이(1) + 키(1) 다음이 값 태그
+        encoded.put(7, (byte) 99);
+        assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(encoded));
+    }
+
+    @Test
+    void javaSerializationUsesCodec() throws IOException, ClassNotFoundException {
+        CtxMap ctx = new CtxMap().putInt("n", 7).put("list", List.of("a", "b"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(ctx);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Object restored = in.readObject();
+            assertInstanceOf(CtxMap.class, restored);
+            assertEquals(ctx, restored);
+        }
+    }
+
+    @Test
+    void javaSerializationWritesObjectsToOuterStream() throws IOException, ClassNotFoundException {
+        // 레코드와 직렬화 값을 registerRecord/setSerialFilter 없이 Java 직렬화로 주고받을 수 있어야 함
+        CtxMap nested = new CtxMap().put("date", LocalDate.of(2024, 1, 18));
+        CtxMap ctx = new CtxMap()
+                .put("money", new Money("KRW", 1000))
+                .put("list", List.of(new Money("USD", 5), "plain"))
+                .put("nested", nested);
+        byte[] bytes = serialize(ctx);
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            CtxMap restored = (CtxMap) in.readObject();
+            assertEquals(new Money("KRW", 1000), restored.getObject("money", Money.class));
+            assertEquals(List.of(new Money("USD", 5), "plain"), restored.getObject("list", List.class));
+            assertEquals(LocalDate.of(2024, 1, 18), restored.getObject("nested", CtxMap.class).getObject("date", LocalDate.class));
+        }
+        // 바깥 스트림의 필터가 중첩 값에도 적용됨
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(info -> info.serialClass() == Money.class
+                    ? ObjectInputFilter.Status.REJECTED : ObjectInputFilter.Status.UNDECIDED);
+            assertThrows(InvalidClassException.class, in::readObject);
+        }
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** 헤더와 키 "k" 뒤에 주어진 값 바이트가 이어지는 메시지를 만듭니다. */
+    private static ByteBuffer message(byte... value) {
+        ByteBuffer buf = ByteBuffer.allocate(8 + value.length);
+        buf.put((byte) 'C').put((byte) 'X').put((byte) 1).put((byte) 0);
+        buf.put((byte) 1).put((byte) 1).put((byte) 'k');
+        return buf.put(value).flip();
+    }
+
+    @Test
+    void declaredLengthBeyondInputIsRejectedBeforeAllocating() throws IOException {
+        // STRING 태그 뒤에 약 2GB 길이(가변 길이 0x7FFFFF00)만 있고 데이터는 없음
+        byte[] hugeString = {7, (byte) 0x80, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, 0x07};
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(message(hugeString)));
+        assertTrue(e.getMessage().contains("길이"));
+
+        // 채널 입력은 실제로 도착한 만큼만 읽다가 끝에서 실패
+        byte[] bytes = Arrays.copyOf(message(hugeString).array(), 8 + hugeString.length + 100);
+        try (ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes))) {
+            assertThrows(EOFException.class, () -> CtxCodec.decode(in, ByteBuffer.allocate(16).flip()));
+        }
+    }
+
+    @Test
+    void nestingDepthIsLimited() {
+        List<Object> nested = List.of();
+        for (int i = 1; i < CtxCodec.MAX_DEPTH; i++) {
+            nested = List.of(nested);
+        }
+        CtxMap ctx = new CtxMap().put("deep", nested);
+        assertEquals(nested, roundTrip(ctx).getObject("deep", List.class));
+
+        // 깊이 제한을 넘는 LIST 태그 나열은 스택 넘침 전에 거부됨
+        byte[] lists = new byte[100_000];
+        Arrays.fill(lists, (byte) 8);
+        assertThrows(IllegalArgumentException.class, () -> CtxCodec.decode(message(lists)));
+    }
+}
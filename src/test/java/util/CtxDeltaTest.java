@@ -0,0 +1,130 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CtxMap의 diff, deltaSince, applyDelta와 CtxDelta 인코딩 테스트.
+ */
+class CtxDeltaTest {
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void diffTurnsBaseIntoTarget(CtxStorage strategy) {
+        CtxMap base = CtxMap.create(strategy).put("same", "s").put("changed", "old").putInt("n", 1).put("gone", "x");
+        CtxMap target = CtxMap.create(strategy).put("same", "s").put("changed", "new").putLong("n", 1L).put("added", List.of(1));
+
+        CtxDelta delta = base.diff(target);
+        assertEquals(Map.of("changed", "new", "n", 1L, "added", List.of(1)), delta.upserts());
+        assertEquals(Set.of("gone"), delta.removals());
+        assertEquals(4, delta.size());
+
+        assertEquals(target, base.applyDelta(delta));
+        assertTrue(base.diff(target).isEmpty());
+        assertSame(CtxDelta.empty(), target.diff(target));
+    }
+
+    @Test
+    void diffOfSnapshotAndChildSharesUnchangedSlots() {
+        CtxMap parent = new CtxMap().putInt("n", 1).putDouble("d", 2.5).put("s", "x");
+        CtxMap child = parent.child().putInt("n", 2);
+        child.remove("s");
+
+        CtxDelta delta = parent.diff(child);
+        assertEquals(Map.of("n", 2), delta.upserts());
+        assertEquals(Set.of("s"), delta.removals());
+        assertEquals(CtxDelta.of(Map.of("n", 1, "s", "x"), Set.of()), child.diff(parent));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void deltaSinceReplicatesChanges(CtxStorage strategy) {
+        CtxMap primary = CtxMap.create(strategy).put("a", "1").put("b", "2").putInt("n", 0);
+        CtxMap replica = CtxMap.create(strategy).putAll(primary.asReadOnlyMap());
+        long synced = primary.version();
+
+        primary.put("a", "10").remove("b");
+        primary.increment("n");
+        primary.increment("n");
+        primary.put("c", Map.of("k", "v"));
+        primary.put("tmp", "t").remove("tmp");
+
+        CtxDelta delta = primary.deltaSince(synced);
+        assertEquals(Map.of("a", "10", "n", 2L, "c", Map.of("k", "v")), delta.upserts());
+        assertEquals(Set.of("b", "tmp"), delta.removals());
+        assertEquals(primary, replica.applyDelta(delta));
+
+        // 코덱을 거쳐도 같은 결과
+        CtxMap viaCodec = CtxMap.create(strategy).put("a", "1").put("b", "2").putInt("n", 0);
+        viaCodec.applyDelta(CtxCodec.decodeDelta(CtxCodec.encodeDelta(delta)));
+        assertEquals(primary, viaCodec);
+        assertTrue(primary.deltaSince(primary.version()).isEmpty());
+    }
+
+    @Test
+    void deltaSinceBeforeTrackingContainsEverything() {
+        CtxMap ctx = new CtxMap().put("a", "1").putInt("n", 3);
+        CtxDelta delta = ctx.deltaSince(0);
+        assertEquals(Map.of("a", "1", "n", 3), delta.upserts());
+        assertTrue(delta.removals().isEmpty());
+        assertEquals(ctx, new CtxMap().applyDelta(delta));
+    }
+
+    @Test
+    void applyDeltaRemovesBeforeUpserting() {
+        CtxMap parent = new CtxMap().put("a", "1").put("b", "2");
+        CtxMap child = parent.child();
+        child.applyDelta(CtxDelta.of(Map.of("c", "3"), Set.of("a", "missing")));
+        assertEquals(Map.of("b", "2", "c", "3"), child.asReadOnlyMap());
+        assertEquals(Map.of("a", "1", "b", "2"), parent.asReadOnlyMap());
+    }
+
+    @Test
+    void deltaRejectsInvalidEntries() {
+        assertThrows(IllegalArgumentException.class, () -> CtxDelta.of(Map.of("a", 1), Set.of("a")));
+        Map<String, Object> withNull = new HashMap<>();
+        withNull.put("a", null);
+        assertThrows(NullPointerException.class, () -> CtxDelta.of(withNull, Set.of()));
+        assertSame(CtxDelta.empty(), CtxDelta.of(Map.of(), Set.of()));
+        assertThrows(UnsupportedOperationException.class, () -> CtxDelta.empty().upserts().put("a", 1));
+    }
+
+    @Test
+    void encodedDeltaIsIndependentOfMapSize() {
+        CtxMap ctx = new CtxMap();
+        for (int i = 0; i < 1000; i++) {
+            ctx.put("key" + i, "value" + i);
+        }
+        long version = ctx.version();
+        ctx.put("key7", "changed").remove("key8");
+
+        ByteBuffer encoded = CtxCodec.encodeDelta(ctx.deltaSince(version));
+        assertTrue(encoded.remaining() < 64, "변경분만 기록: " + encoded.remaining());
+
+        ByteBuffer out = ByteBuffer.allocate(256).put((byte) 9);
+        CtxCodec.encodeDelta(ctx.deltaSince(version), out);
+        out.flip().get();
+        CtxDelta decoded = CtxCodec.decodeDelta(out);
+        assertFalse(out.hasRemaining());
+        assertEquals(CtxDelta.of(Map.of("key7", "changed"), Set.of("key8")), decoded);
+
+        // 전체 맵 인코딩은 델타로 읽을 수 없음
+        assertThrows(IllegalArgumentException.class, () -> CtxCodec.decodeDelta(CtxCodec.encode(ctx)));
+        ByteBuffer truncated = CtxCodec.encodeDelta(ctx.deltaSince(version));
+        truncated.limit(truncated.limit() - 2);
+        assertThrows(IllegalArgumentException.class, () -> CtxCodec.decodeDelta(truncated));
+    }
+}
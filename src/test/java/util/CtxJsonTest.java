@@ -0,0 +1,196 @@
+package util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CtxMap.writeJson/parseJson 테스트. 기록 결과는 asReadOnlyMap을 ObjectMapper로 기록한 것과 같은 내용이어야 하고,
+ * 읽은 중첩 값은 처음 조회될 때까지 원본 조각(CtxLazyJson)으로 남아 있어야 합니다.
+ */
+class CtxJsonTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    record Item(String name, int count, List<String> tags) {
+    }
+
+    private static String json(CtxMap ctx) throws IOException {
+        StringWriter out = new StringWriter();
+        ctx.writeJson(out);
+        return out.toString();
+    }
+
+    private static Map<String, Object> read(String json) throws IOException {
+        return MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    /** 저장소에 들어있는 내부 값을 꺼냅니다. */
+    private static Object raw(CtxMap ctx, String key) {
+        Object[] raw = new Object[1];
+        ctx.forEachVisible((k, v) -> {
+            if (k.equals(key)) {
+                raw[0] = v;
+            }
+        });
+        return raw[0];
+    }
+
+    @Test
+    void writesSlotsAndNestedValues() throws IOException {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("k", "v");
+        nested.put("n", List.of(1, 2));
+        CtxMap ctx = new CtxMap()
+                .putInt("int", 7)
+                .putLong("long", 1L << 40)
+                .putDouble("double", 2.5)
+                .putBoolean("flag", true)
+                .put("text", "a \"quoted\" ✓")
+                .put("list", Arrays.asList(1, null, "x"))
+                .put("map", nested)
+                .put("record", new Item("i", 2, List.of("t")));
+        ctx.increment("counter").increment("counter");
+
+        String expected = MAPPER.writeValueAsString(ctx.asReadOnlyMap());
+        assertEquals(read(expected), read(json(ctx)));
+
+        // 중첩 CtxMap은 ObjectMapper와 달리 엔트리를 객체로 기록
+        ctx.put("inner", new CtxMap().putInt("x", 1));
+        Map<String, Object> back = read(json(ctx));
+        assertEquals(7, back.get("int"));
+        assertEquals(1L << 40, back.get("long"));
+        assertEquals(2, back.get("counter"));
+        assertEquals(Arrays.asList(1, null, "x"), back.get("list"));
+        assertEquals(Map.of("name", "i", "count", 2, "tags", List.of("t")), back.get("record"));
+        assertEquals(Map.of("x", 1), back.get("inner"));
+    }
+
+    @Test
+    void childWritesVisibleEntriesOnly() throws IOException {
+        CtxMap parent = new CtxMap().put("a", "1").put("b", "2");
+        CtxMap child = parent.child().put("c", "3");
+        child.remove("a");
+        assertEquals(Map.of("b", "2", "c", "3"), read(json(child)));
+        assertEquals("{}", json(new CtxMap()));
+    }
+
+    @Test
+    void outputTargetsProduceSameBytes() throws IOException {
+        CtxMap ctx = new CtxMap().put("name", "김철수").putInt("n", 1).put("list", List.of("a"));
+        String viaWriter = json(ctx);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ctx.writeJson(stream);
+        assertEquals(viaWriter, stream.toString(StandardCharsets.UTF_8));
+
+        ByteBuffer buffer = ByteBuffer.allocate(256).put((byte) '#');
+        ctx.writeJson(buffer);
+        buffer.flip();
+        assertEquals('#', buffer.get());
+        assertEquals(viaWriter, StandardCharsets.UTF_8.decode(buffer).toString());
+
+        assertThrows(BufferOverflowException.class, () -> ctx.writeJson(ByteBuffer.allocate(4)));
+    }
+
+    @Test
+    void writtenJsonParsesBackToEqualMap() throws IOException {
+        CtxMap ctx = new CtxMap().put("s", "x").putInt("i", 1).putDouble("d", 0.5).putBoolean("b", false)
+                .put("list", new ArrayList<>(List.of("a", "b")))
+                .put("map", Map.of("k", 1));
+        assertEquals(ctx, CtxMap.parseJson(json(ctx)));
+    }
+
+    @Test
+    void parsesScalarsAndSkipsNullFields() {
+        CtxMap ctx = CtxMap.parseJson("""
+                {"s": "text", "i": 42, "l": 9000000000, "big": 123456789012345678901234567890,
+                 "d": 1.5, "t": true, "f": false, "n": null, "dup": 1, "dup": "last", "gone": 1, "gone": null}
+                """);
+        assertEquals("text", ctx.getString("s"));
+        assertEquals(42, ctx.getInt("i"));
+        assertEquals(9_000_000_000L, ctx.getLong("l"));
+        assertEquals(new BigInteger("123456789012345678901234567890"), ctx.getObject("big", BigInteger.class));
+        assertEquals(1.5, ctx.getDouble("d"));
+        assertTrue(ctx.getBoolean("t"));
+        assertFalse(ctx.getBoolean("f"));
+        assertEquals("last", ctx.getString("dup"));
+        assertFalse(ctx.containsKey("n"));
+        assertFalse(ctx.containsKey("gone"));
+        assertEquals(8, ctx.size());
+    }
+
+    @Test
+    void nestedValuesAreDecodedOnFirstRead() {
+        CtxMap ctx = CtxMap.parseJson("""
+                {"이름": "값", "obj": {"a": [1, {"b": null}], "c": "✓"}, "arr": [1, "two", null, 3.5], "untouched": [[]]}
+                """.getBytes(StandardCharsets.UTF_8));
+        CtxLazyJson obj = assertInstanceOf(CtxLazyJson.class, raw(ctx, "obj"));
+        CtxLazyJson arr = assertInstanceOf(CtxLazyJson.class, raw(ctx, "arr"));
+        CtxLazyJson untouched = assertInstanceOf(CtxLazyJson.class, raw(ctx, "untouched"));
+        assertNull(obj.decodedOrNull());
+        // 앞에 있는 멀티바이트 문자와 무관하게 조각의 위치가 정확해야 함
+        assertEquals("{\"a\": [1, {\"b\": null}], \"c\": \"✓\"}", obj.text());
+
+        Map<String, Object> map = ctx.getMap("obj");
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("b", null);
+        assertEquals(List.of(1, inner), map.get("a"));
+        assertEquals("✓", map.get("c"));
+        assertEquals(Arrays.asList(1, "two", null, 3.5), ctx.getObject("arr", List.class));
+        assertEquals(List.of(1), ctx.getList("arr", Integer.class));
+        assertSame(obj.decodedOrNull(), obj.value(), "한 번만 디코딩");
+        assertNull(untouched.decodedOrNull());
+        assertEquals("값", ctx.getString("이름"));
+    }
+
+    @Test
+    void unreadSlicesAreWrittenVerbatim() throws IOException {
+        String source = "{\"keep\":{\"x\":[1,2,{\"y\":null}]},\"read\":[true,null],\"n\":1}";
+        CtxMap ctx = CtxMap.parseJson(source);
+        ctx.getList("read", Boolean.class);
+        assertEquals(source, json(ctx));
+        assertNull(((CtxLazyJson) raw(ctx, "keep")).decodedOrNull());
+        assertEquals(read(source), read(json(ctx)));
+    }
+
+    @Test
+    void parsedMapEqualsEagerlyBuiltMap() throws IOException {
+        String source = "{\"a\": {\"k\": [1, 2]}, \"b\": [\"x\"], \"c\": 3}";
+        CtxMap lazy = CtxMap.parseJson(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+        CtxMap eager = new CtxMap(read(source));
+        assertEquals(eager.hashCode(), lazy.hashCode());
+        assertEquals(eager, lazy);
+        assertEquals(eager.asReadOnlyMap(), lazy.asReadOnlyMap());
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        for (String bad : new String[] {"[1, 2]", "\"text\"", "", "{\"a\": }", "{\"a\": [1, 2}", "{} {}", "{\"a\": 1"}) {
+            assertThrows(IllegalArgumentException.class, () -> CtxMap.parseJson(bad), bad);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 하위 스코프(오버레이)의 툼스톤 동작 테스트. 부모는 하위 스코프의 제거에 영향을 받지 않아야 합니다.
+ */
+class CtxMapChildTest {
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void removeHidesInheritedKey(CtxStorage strategy) {
+        CtxMap parent = CtxMap.create(strategy).put("a", "1").putInt("n", 5);
+        CtxMap child = parent.child().put("local", "x");
+
+        assertEquals(5, child.remove("n"));
+        assertNull(child.remove("n"), "이미 가려진 키");
+        assertEquals("x", child.remove("local"));
+        assertNull(child.remove("missing"));
+
+        assertFalse(child.containsKey("n"));
+        assertEquals(-1, child.getInt("n", -1));
+        assertEquals(Map.of("a", "1"), child.asReadOnlyMap());
+        assertEquals(1, child.size());
+        assertEquals(5, parent.getInt("n"));
+        assertEquals(2, parent.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void clearHidesAllInheritedKeys(CtxStorage strategy) {
+        CtxMap parent = CtxMap.create(strategy).put("a", "1").put("b", "2");
+        CtxMap child = parent.child().put("a", "override").put("c", "3");
+
+        child.clear();
+        assertEquals(0, child.size());
+        assertTrue(child.isEmpty());
+        assertTrue(child.asReadOnlyMap().isEmpty());
+        assertNull(child.getString("a", null));
+        assertEquals(Map.of("a", "1", "b", "2"), parent.asReadOnlyMap());
+
+        // 툼스톤은 clear 시점의 키만 가리므로 부모에 새로 추가된 키는 보임
+        parent.put("d", "4");
+        assertEquals(Map.of("d", "4"), child.asReadOnlyMap());
+        // 가려진 키를 부모에서 바꿔도 하위 스코프에는 보이지 않음
+        parent.put("a", "changed");
+        assertFalse(child.containsKey("a"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void writesAfterRemoveReplaceTombstone(CtxStorage strategy) {
+        CtxMap parent = CtxMap.create(strategy).put("a", "1").put("b", "2").putInt("n", 1);
+        CtxMap child = parent.child();
+        child.remove("a");
+        child.remove("b");
+        child.remove("n");
+
+        child.put("a", "again");
+        assertNull(child.putIfAbsent("b", "fresh"), "툼스톤 자리는 비어 있는 것으로 취급");
+        assertEquals("fresh", child.putIfAbsent("b", "ignored"));
+        assertEquals(10, child.merge("n", 10, (x, y) -> (Integer) x + (Integer) y));
+
+        assertEquals(Map.of("a", "again", "b", "fresh", "n", 10), child.asReadOnlyMap());
+        assertEquals(Map.of("a", "1", "b", "2", "n", 1), parent.asReadOnlyMap());
+
+        // 다시 제거하면 로컬 값 대신 툼스톤이 남아 부모 값이 되살아나지 않음
+        assertEquals("again", child.remove("a"));
+        assertFalse(child.containsKey("a"));
+        assertEquals("1", parent.getString("a"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void inheritedValuesFollowParent(CtxStorage strategy) {
+        CtxMap parent = CtxMap.create(strategy).put("a", "1");
+        CtxMap child = parent.child();
+        assertNull(child.putIfAbsent("b", "local"));
+        assertEquals("1", child.putIfAbsent("a", "ignored"));
+        assertEquals("1!", child.merge("a", "!", (x, y) -> x + (String) y));
+
+        parent.put("c", "3").remove("b");
+        assertEquals("3", child.getString("c"));
+        assertEquals("local", child.getString("b"));
+        assertEquals("1!", child.getString("a"));
+        assertEquals("1", parent.getString("a"));
+
+        CtxMap grandchild = child.child();
+        grandchild.remove("a");
+        grandchild.remove("c");
+        assertEquals(Map.of("b", "local"), grandchild.asReadOnlyMap());
+        assertEquals(Map.of("a", "1!", "b", "local", "c", "3"), child.asReadOnlyMap());
+    }
+}
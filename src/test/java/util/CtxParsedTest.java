@@ -0,0 +1,84 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 문자열 값의 숫자 파싱 메모이제이션(CtxParsed) 테스트.
+ */
+class CtxParsedTest {
+
+    /** 저장소에 들어있는 내부 값에서 메모이제이션된 파싱 결과를 꺼냅니다. 없으면 null. */
+    private static CtxParsed memoized(CtxMap ctx, String key) {
+        Object[] raw = new Object[1];
+        ctx.forEachVisible((k, v) -> {
+            if (k.equals(key)) {
+                raw[0] = v;
+            }
+        });
+        if (raw[0] instanceof CtxSlot slot) {
+            return slot.parsed();
+        }
+        return (raw[0] instanceof CtxParsed parsed) ? parsed : null;
+    }
+
+    @Test
+    void secondNumericReadMemoizes() {
+        CtxMap ctx = new CtxMap().put("n", "42");
+        assertEquals(42, ctx.getInt("n"));
+        assertNull(memoized(ctx, "n"), "한 번만 읽힌 키는 메모이제이션하지 않음");
+        assertEquals(42, ctx.getInt("n"));
+        assertNotNull(memoized(ctx, "n"));
+        assertEquals("42", ctx.getString("n"));
+        assertEquals("42", ctx.getObject("n", String.class));
+    }
+
+    @Test
+    void getOptionalKeepsMemoizedParse() {
+        CtxMap ctx = new CtxMap().put("n", "42");
+        ctx.getInt("n");
+        ctx.getInt("n");
+        CtxParsed parsed = memoized(ctx, "n");
+        assertNotNull(parsed);
+
+        // getOptional이 값을 슬롯으로 승격해도 파싱 결과는 슬롯으로 옮겨짐
+        assertEquals(Optional.of("42"), ctx.getOptional("n", String.class));
+        assertSame(parsed, memoized(ctx, "n"));
+        assertEquals(42, ctx.getInt("n"));
+        assertEquals(42L, ctx.getLong("n"));
+        assertSame(parsed, memoized(ctx, "n"));
+    }
+
+    @Test
+    void stringPromotedBeforeNumericReadIsMemoizedInSlot() {
+        CtxMap ctx = new CtxMap().put("n", "7");
+        assertEquals(Optional.of("7"), ctx.getOptional("n", String.class));
+        ctx.getInt("n");
+        ctx.getInt("n");
+        CtxParsed parsed = memoized(ctx, "n");
+        assertNotNull(parsed);
+        assertEquals(7, ctx.getInt("n"));
+        assertSame(parsed, memoized(ctx, "n"));
+        assertEquals(Optional.of("7"), ctx.getOptional("n", String.class));
+        assertInstanceOf(String.class, ctx.getObject("n", Object.class));
+    }
+
+    @Test
+    void overwriteDropsMemoizedParse() {
+        CtxMap ctx = new CtxMap().put("n", "1");
+        ctx.getInt("n");
+        ctx.getInt("n");
+        ctx.getOptional("n", String.class);
+        ctx.put("n", "2");
+        assertEquals(2, ctx.getInt("n"));
+        assertEquals(2, ctx.getInt("n"));
+        assertEquals("2", ctx.getString("n"));
+    }
+}
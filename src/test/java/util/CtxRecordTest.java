@@ -0,0 +1,101 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CtxMap.toRecord와 fromRecord의 컴포넌트 변환 테스트.
+ */
+class CtxRecordTest {
+
+    record Settings(String name, int port, long size, double ratio, boolean enabled, byte level, short shortValue,
+            float weight, Integer boxed, List<String> tags) {
+    }
+
+    record Range(int from, int to) {
+        Range {
+            if (from > to) {
+                throw new IllegalArgumentException("from > to");
+            }
+        }
+    }
+
+    record Wrapper(String label, Range range) {
+    }
+
+    record Keyed(String ctxRecordTestName, int ctxRecordTestLimit) {
+    }
+
+    private static final CtxKey<String> NAME = CtxKey.of("ctxRecordTestName", String.class);
+    private static final CtxKey<Integer> LIMIT = CtxKey.of("ctxRecordTestLimit", Integer.class);
+
+    @Test
+    void componentsAreReadWithTypedAccessors() {
+        CtxMap ctx = new CtxMap()
+                .put("name", "api")
+                .put("port", "8080")
+                .putLong("size", 1L << 40)
+                .put("ratio", "0.25")
+                .put("enabled", "yes")
+                .putInt("level", 3)
+                .putInt("shortValue", 300)
+                .putDouble("weight", 1.5)
+                .put("boxed", 7)
+                .put("tags", List.of("a", "b"))
+                .put("unused", "x");
+
+        Settings s = ctx.toRecord(Settings.class);
+        assertEquals(new Settings("api", 8080, 1L << 40, 0.25, true, (byte) 3, (short) 300, 1.5f, 7, List.of("a", "b")), s);
+    }
+
+    @Test
+    void missingOrMismatchedValuesUseDefaults() {
+        CtxMap ctx = new CtxMap().putInt("name", 1).put("port", "N/A").put("boxed", "7").put("tags", "not a list");
+        Settings s = ctx.toRecord(Settings.class);
+        assertEquals(new Settings(null, 0, 0L, 0.0, false, (byte) 0, (short) 0, 0f, null, null), s);
+    }
+
+    @Test
+    void compactConstructorExceptionsPropagate() {
+        assertEquals(new Range(1, 2), new CtxMap().putInt("from", 1).putInt("to", 2).toRecord(Range.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CtxMap().putInt("from", 3).putInt("to", 2).toRecord(Range.class));
+    }
+
+    @Test
+    void nestedRecordValuesAreKept() {
+        Range range = new Range(0, 9);
+        Wrapper w = new CtxMap().put("label", "r").put("range", range).toRecord(Wrapper.class);
+        assertEquals(new Wrapper("r", range), w);
+        assertNull(new CtxMap().put("range", Map.of("from", 0, "to", 9)).toRecord(Wrapper.class).range(),
+                "CtxMap은 중첩 맵을 레코드로 변환하지 않음");
+    }
+
+    @Test
+    void registeredKeysAreUsed() {
+        CtxMap ctx = new CtxMap().put(NAME, "kim").put(LIMIT, 5);
+        assertEquals(new Keyed("kim", 5), ctx.toRecord(Keyed.class));
+        ctx.put(LIMIT, 6);
+        assertEquals(new Keyed("kim", 6), ctx.toRecord(Keyed.class));
+    }
+
+    @Test
+    void childAndRecordRoundTrip() {
+        CtxMap parent = new CtxMap().putInt("from", 1).putInt("to", 5);
+        CtxMap child = parent.child().putInt("to", 8);
+        assertEquals(new Range(1, 8), child.toRecord(Range.class));
+        child.remove("from");
+        assertEquals(new Range(0, 8), child.toRecord(Range.class));
+
+        Range range = new Range(2, 4);
+        CtxMap ctx = CtxMap.fromRecord(range);
+        assertEquals(Map.of("from", 2, "to", 4), ctx.asReadOnlyMap());
+        assertEquals(range, ctx.toRecord(Range.class));
+    }
+}
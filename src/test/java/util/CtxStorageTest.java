@@ -0,0 +1,148 @@
+package util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 저장소 전략과 무관하게 CtxMap의 공개 접근자가 같은 결과를 내는지 확인합니다.
+ * 각 전략의 결과를 기본 전략(CONCURRENT)의 결과와 비교합니다.
+ */
+class CtxStorageTest {
+
+    private static final CtxKey<String> NAME = CtxKey.of("ctxStorageTest.name", String.class);
+    private static final CtxKey<Integer> LIMIT = CtxKey.of("ctxStorageTest.limit", Integer.class);
+
+    /** 같은 작업을 수행하고 공개 접근자로 관찰한 값을 순서대로 모읍니다. */
+    private static List<Object> observe(CtxStorage strategy) {
+        CtxMap ctx = CtxMap.create(strategy);
+        ctx.putInt("int", 7)
+                .putLong("long", 1L << 40)
+                .putDouble("double", 2.5)
+                .putBoolean("flag", true)
+                .put("text", "hello")
+                .put("number", "42")
+                .put("list", List.of(1, "two", 3))
+                .put("map", Map.of("k", "v"))
+                .put(NAME, "kim")
+                .put(LIMIT, 10);
+        ctx.putInt("int", 8);
+        ctx.put("text", "world");
+        ctx.increment("counter").add("counter", 4L);
+        ctx.merge("text", "!", (a, b) -> a + (String) b);
+        ctx.putIfAbsent("text", "ignored");
+        ctx.remove("flag");
+
+        Map<String, Object> bulk = new LinkedHashMap<>();
+        bulk.put("bulk1", 1);
+        bulk.put("bulk2", "b");
+        bulk.put("int", 9);
+        ctx.putAll(bulk);
+
+        return List.of(
+                ctx.size(),
+                ctx.getInt("int"),
+                ctx.getLong("long"),
+                ctx.getDouble("double"),
+                ctx.getBoolean("flag"),
+                ctx.containsKey("flag"),
+                ctx.getString("text"),
+                ctx.getInt("number"),
+                ctx.getInt("number"),
+                ctx.getLong("number"),
+                ctx.getString("number"),
+                ctx.getList("list", Integer.class),
+                ctx.getMap("map"),
+                ctx.get(NAME),
+                ctx.getInt(LIMIT, 0),
+                ctx.sum("counter"),
+                ctx.getOptional("bulk2", String.class),
+                ctx.getOptional("missing", String.class),
+                ctx.getInt("missing", -1),
+                ctx.hasText("text"),
+                Map.copyOf(ctx.asReadOnlyMap()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void accessorsMatchDefaultStrategy(CtxStorage strategy) {
+        assertEquals(observe(CtxStorage.CONCURRENT), observe(strategy));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void accessorContract(CtxStorage strategy) {
+        List<Object> observed = observe(strategy);
+        assertEquals(12, observed.get(0));
+        assertEquals(9, observed.get(1));
+        assertEquals(false, observed.get(4));
+        assertEquals("world!", observed.get(6));
+        assertEquals(42, observed.get(7));
+        assertEquals(List.of(1, 3), observed.get(11));
+        assertEquals(5L, observed.get(15));
+        assertEquals(Optional.of("b"), observed.get(16));
+        assertEquals(Optional.empty(), observed.get(17));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void equalsAcrossStrategies(CtxStorage strategy) {
+        Map<String, Object> initial = Map.of("a", 1, "b", "two", "c", List.of(3));
+        CtxMap ctx = CtxMap.of(initial, strategy);
+        CtxMap reference = CtxMap.of(initial, CtxStorage.CONCURRENT);
+        assertEquals(reference, ctx);
+        assertEquals(reference.hashCode(), ctx.hashCode());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void childOverlay(CtxStorage strategy) {
+        CtxMap parent = CtxMap.create(strategy).put("shared", "parent").putInt("n", 1);
+        CtxMap child = parent.child().put("shared", "child");
+        child.remove("n");
+
+        assertEquals("child", child.getString("shared"));
+        assertFalse(child.containsKey("n"));
+        assertEquals("parent", parent.getString("shared"));
+        assertEquals(1, parent.getInt("n"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void nullValuesAreRejected(CtxStorage strategy) {
+        CtxMap ctx = CtxMap.create(strategy);
+        assertThrows(NullPointerException.class, () -> ctx.put("k", null));
+        Map<String, Object> withNull = new LinkedHashMap<>();
+        withNull.put("a", 1);
+        withNull.put("b", null);
+        assertThrows(NullPointerException.class, () -> ctx.putAll(withNull));
+        assertNull(ctx.getObject("b", Object.class));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CtxStorage.class)
+    void clearAndDelta(CtxStorage strategy) {
+        CtxMap ctx = CtxMap.create(strategy).put("a", "1").put("b", "2");
+        long version = ctx.version();
+        ctx.put("a", "3");
+        ctx.remove("b");
+        CtxDelta delta = ctx.deltaSince(version);
+
+        CtxMap replica = CtxMap.create(strategy).put("a", "1").put("b", "2").applyDelta(delta);
+        assertEquals(ctx, replica);
+
+        ctx.clear();
+        assertEquals(0, ctx.size());
+        assertTrue(ctx.asReadOnlyMap().isEmpty());
+    }
+}
@@ -0,0 +1,253 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CtxStore의 재시작(reopen) 복원, 손상된 꼬리 잘라내기, 압축 테스트.
+ */
+class CtxStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenReplaysEmptyKeyRemove() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        try (CtxStore store = CtxStore.open(file)) {
+            store.ctx().put("", "x");
+            store.ctx().remove("");
+            store.ctx().put("after", "y");
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            // 빈 키의 REMOVE 본문은 머리 5바이트뿐이므로, 재생이 이를 손상으로 보고 잘라내면 뒤의 쓰기가 사라짐
+            assertFalse(store.ctx().containsKey(""));
+            assertEquals("y", store.ctx().getString("after"));
+            assertEquals(1, store.ctx().size());
+        }
+    }
+
+    @Test
+    void readsDoNotAppendToFile() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        CtxKey<String> name = CtxKey.of("name", String.class);
+        try (CtxStore store = CtxStore.open(file)) {
+            store.ctx().put("name", "kim");
+            store.ctx().put("count", "42");
+            store.sync();
+            long size = Files.size(file);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("kim", store.ctx().getOptional("name", String.class).orElseThrow());
+                assertEquals("kim", store.ctx().get(name));
+                assertEquals(42, store.ctx().getInt("count"));
+            }
+            store.sync();
+            assertEquals(size, Files.size(file));
+        }
+    }
+
+    @Test
+    void reopenRestoresValues() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        try (CtxStore store = CtxStore.open(file)) {
+            store.ctx().putInt("int", 7)
+                    .putLong("long", 1L << 40)
+                    .putDouble("double", 2.5)
+                    .putBoolean("flag", true)
+                    .put("text", "한글")
+                    .put("list", List.of(1, "two"))
+                    .put("map", Map.of("k", "v"));
+            store.ctx().put("text", "updated");
+            store.ctx().remove("flag");
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            CtxMap ctx = store.ctx();
+            assertEquals(6, ctx.size());
+            assertEquals(7, ctx.getInt("int"));
+            assertEquals(1L << 40, ctx.getLong("long"));
+            assertEquals(2.5, ctx.getDouble("double"));
+            assertFalse(ctx.containsKey("flag"));
+            assertEquals("updated", ctx.getString("text"));
+            assertEquals(List.of(1, "two"), ctx.getList("list", Object.class));
+            assertEquals(Map.of("k", "v"), ctx.getMap("map"));
+        }
+    }
+
+    @Test
+    void truncatedTailIsCutOff() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        long intact;
+        try (CtxStore store = CtxStore.open(file)) {
+            store.ctx().put("kept", "a");
+            store.sync();
+            intact = Files.size(file);
+            store.ctx().put("lost", "b");
+        }
+        // 마지막 레코드의 중간에서 끊긴 쓰기를 흉내냄
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            assertEquals("a", store.ctx().getString("kept"));
+            assertFalse(store.ctx().containsKey("lost"));
+            assertEquals(intact, Files.size(file));
+            store.ctx().put("after", "c");
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            assertEquals("c", store.ctx().getString("after"));
+            assertEquals(2, store.ctx().size());
+        }
+    }
+
+    @Test
+    void largeValueAfterCutOffIsReadFromChannel() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        String medium = "m".repeat(100);
+        String large = "L".repeat(300);
+        try (CtxStore store = CtxStore.open(file)) {
+            store.ctx().put("first", medium);
+            store.ctx().put("second", medium);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 20);
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            // 잘라낸 위치에 추가된 레코드는 처음 매핑한 길이를 넘어서므로 매핑이 아닌 채널에서 읽어야 함
+            store.ctx().put("large", large);
+            assertEquals(large, store.ctx().getString("large"));
+            store.compact();
+            assertEquals(large, store.ctx().getString("large"));
+            assertEquals(medium, store.ctx().getString("first"));
+            assertFalse(store.ctx().containsKey("second"));
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            assertEquals(large, store.ctx().getString("large"));
+            assertEquals(2, store.ctx().size());
+        }
+    }
+
+    @Test
+    void corruptedRecordIsCutOff() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        long intact;
+        try (CtxStore store = CtxStore.open(file)) {
+            store.ctx().put("kept", "a");
+            store.sync();
+            intact = Files.size(file);
+            store.ctx().put("lost", "b");
+        }
+        // 마지막 레코드 본문의 한 바이트를 바꿔 체크섬이 맞지 않게 함
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            long position = channel.size() - 1;
+            channel.read(last, position);
+            last.put(0, (byte) (last.get(0) ^ 0x5A)).clear();
+            channel.write(last, position);
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            assertEquals("a", store.ctx().getString("kept"));
+            assertFalse(store.ctx().containsKey("lost"));
+            assertEquals(intact, Files.size(file));
+        }
+    }
+
+    @Test
+    void compactionKeepsLiveEntries() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        long before;
+        try (CtxStore store = CtxStore.open(file)) {
+            for (int i = 0; i < 500; i++) {
+                store.ctx().putInt("counter", i);
+                store.ctx().put("key" + (i % 10), "value-" + i);
+            }
+            store.ctx().put("removed", "x");
+            store.ctx().remove("removed");
+            before = Files.size(file);
+            store.compact();
+            assertTrue(Files.size(file) < before);
+            assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".compact")));
+            // 압축 직후에도 같은 핸들로 읽고 쓸 수 있음
+            assertEquals(499, store.ctx().getInt("counter"));
+            store.ctx().put("afterCompaction", "y");
+        }
+        try (CtxStore store = CtxStore.open(file)) {
+            CtxMap ctx = store.ctx();
+            assertEquals(12, ctx.size());
+            assertEquals(499, ctx.getInt("counter"));
+            for (int k = 0; k < 10; k++) {
+                assertEquals("value-" + (490 + k), ctx.getString("key" + k));
+            }
+            assertFalse(ctx.containsKey("removed"));
+            assertEquals("y", ctx.getString("afterCompaction"));
+        }
+    }
+
+    @Test
+    void backgroundCompactionKeepsConcurrentWrites() throws IOException {
+        Path file = dir.resolve("ctx.store");
+        String payload = "p".repeat(4096);
+        try (CtxStore store = CtxStore.open(file)) {
+            // 추가 영역이 자동 압축 임계값(8MB)을 넘도록 같은 키들을 덮어씀. 압축이 진행되는 동안에도 쓰기가 이어짐
+            for (int i = 0; i < 3000; i++) {
+                store.ctx().put("key" + (i % 50), payload + i);
+                store.ctx().putInt("last", i);
+            }
+            assertEquals(2999, store.ctx().getInt("last"));
+        }
+        // close는 백그라운드 압축이 끝나기를 기다리므로, 압축된 파일에는 덮어쓴 레코드가 남지 않음
+        assertTrue(Files.size(file) < (8L << 20));
+        try (CtxStore store = CtxStore.open(file)) {
+            CtxMap ctx = store.ctx();
+            assertEquals(51, ctx.size());
+            assertEquals(2999, ctx.getInt("last"));
+            for (int k = 0; k < 50; k++) {
+                assertEquals(payload + (2950 + k), ctx.getString("key" + k));
+            }
+        }
+    }
+
+    @Test
+    void forEachCallbackMayWrite() throws IOException {
+        try (CtxStore store = CtxStore.open(dir.resolve("ctx.store"))) {
+            CtxMap ctx = store.ctx().put("a", "1").put("b", "2");
+            // 순회 중 읽기 잠금을 잡은 채로 콜백을 호출하면 쓰기 잠금을 기다리며 멈춤
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> ctx.forEachVisible((k, v) -> ctx.remove(k)));
+            assertEquals(0, ctx.size());
+        }
+    }
+
+    @Test
+    void closedStoreRejectsWrites() throws IOException {
+        CtxStore store = CtxStore.open(dir.resolve("ctx.store"));
+        CtxMap ctx = store.ctx();
+        store.close();
+        assertThrows(IllegalStateException.class, () -> ctx.put("k", "v"));
+    }
+
+    @Test
+    void unreadableValuesAreRejectedOnWrite() throws IOException {
+        record Local(int value) {
+        }
+        try (CtxStore store = CtxStore.open(dir.resolve("ctx.store"))) {
+            // 등록되지 않은 레코드는 다시 읽을 수 없으므로 쓰는 시점에 거부
+            assertThrows(IllegalArgumentException.class, () -> store.ctx().put("record", new Local(1)));
+            assertFalse(store.ctx().containsKey("record"));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CtxMap.getList/getMap이 반환하는 타입 필터링 뷰 테스트.
+ */
+class CtxViewsTest {
+
+    /** iterator() 호출 횟수를 세는 RandomAccess 리스트 */
+    private static final class CountingList extends AbstractList<Object> implements RandomAccess {
+
+        private final List<Object> elements;
+        int scans;
+
+        CountingList(Object... elements) {
+            this.elements = new ArrayList<>(Arrays.asList(elements));
+        }
+
+        @Override
+        public Object get(int index) {
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            scans++;
+            return super.iterator();
+        }
+    }
+
+    @Test
+    void listViewFiltersByElementType() {
+        CtxMap ctx = new CtxMap().put("list", Arrays.asList(1, "two", null, 3L, 4));
+        List<Integer> ints = ctx.getList("list", Integer.class);
+
+        assertEquals(List.of(1, 4), ints);
+        assertEquals(2, ints.size());
+        assertEquals(4, ints.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.get(-1));
+        assertThrows(UnsupportedOperationException.class, () -> ints.add(5));
+        assertEquals(List.of("two"), ctx.getList("list", String.class));
+        assertNull(ctx.getList("missing", Integer.class));
+    }
+
+    @Test
+    void randomAccessFollowsSource() {
+        CtxMap ctx = new CtxMap()
+                .put("array", new ArrayList<>(List.of(1, 2)))
+                .put("immutable", List.of(1, 2))
+                .put("linked", new LinkedList<>(List.of(1, 2)));
+        assertInstanceOf(RandomAccess.class, ctx.getList("array", Integer.class));
+        assertInstanceOf(RandomAccess.class, ctx.getList("immutable", Integer.class));
+        assertFalse(ctx.getList("linked", Integer.class) instanceof RandomAccess);
+        assertEquals(List.of(1, 2), ctx.getList("linked", Integer.class));
+    }
+
+    @Test
+    void indexedLoopScansSourceOnce() {
+        CountingList source = new CountingList(1, "x", 2, "y", 3);
+        CtxMap ctx = new CtxMap().put("list", source);
+        int scansAfterPut = source.scans;
+
+        List<Integer> ints = ctx.getList("list", Integer.class);
+        assertEquals(scansAfterPut, source.scans, "뷰를 만들 때는 원본을 훑지 않음");
+        int sum = 0;
+        for (int i = 0; i < ints.size(); i++) {
+            sum += ints.get(i);
+        }
+        assertEquals(6, sum);
+        assertEquals(scansAfterPut + 1, source.scans, "위치는 처음 한 번만 계산");
+    }
+
+    @Test
+    void listViewSeesSourceChanges() {
+        List<Object> source = new ArrayList<>(List.of(1, "a", 2));
+        List<Integer> ints = new CtxMap().put("list", source).getList("list", Integer.class);
+        assertEquals(2, ints.size());
+
+        source.add(3);
+        assertEquals(List.of(1, 2, 3), ints);
+        // 크기는 그대로이고 기록한 위치의 요소 타입이 바뀐 경우
+        source.set(0, "b");
+        assertEquals(2, ints.get(0));
+        assertEquals(List.of(2, 3), ints);
+    }
+
+    @Test
+    void mapViewHidesNonStringKeys() {
+        Map<Object, Object> source = new HashMap<>();
+        source.put("a", 1);
+        source.put(2, "two");
+        source.put("c", 3);
+        Map<String, Object> view = new CtxMap().put("map", source).getMap("map");
+
+        assertEquals(Map.of("a", 1, "c", 3), view);
+        assertEquals(2, view.size());
+        assertNull(view.get(2));
+        assertFalse(view.containsKey(2));
+        assertThrows(UnsupportedOperationException.class, () -> view.put("d", 4));
+
+        source.put("d", 4);
+        assertEquals(3, view.size());
+    }
+
+    @Test
+    void unmodifiableMapWithStringKeysDelegatesToSource() {
+        Map<String, Object> source = Map.of("a", 1, "b", 2);
+        Map<String, Object> view = new CtxMap().put("map", source).getMap("map");
+        assertEquals(source, view);
+        assertEquals(2, view.size());
+        assertTrue(view.entrySet().containsAll(source.entrySet()));
+
+        Map<Object, Object> mixed = Map.of("a", 1, 2, "two");
+        assertEquals(Map.of("a", 1), new CtxMap().put("map", mixed).getMap("map"));
+    }
+}
@@ -0,0 +1,144 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * HashTrie의 구조 공유, 해시 충돌, 제거 테스트.
+ */
+class HashTrieTest {
+
+    /** "Aa"와 "BB"는 hashCode가 같으므로, 이를 이어 붙인 문자열들은 모두 같은 해시를 가집니다. */
+    private static List<String> collidingKeys(int pairs) {
+        List<String> keys = new ArrayList<>(List.of(""));
+        for (int i = 0; i < pairs; i++) {
+            List<String> next = new ArrayList<>();
+            for (String k : keys) {
+                next.add(k + "Aa");
+                next.add(k + "BB");
+            }
+            keys = next;
+        }
+        return keys;
+    }
+
+    private static Map<String, Object> contents(HashTrie trie) {
+        Map<String, Object> visited = new HashMap<>();
+        trie.forEach(visited::put);
+        Map<String, Object> iterated = new HashMap<>();
+        for (Iterator<Map.Entry<String, Object>> it = trie.iterator(UnaryOperator.identity()); it.hasNext();) {
+            Map.Entry<String, Object> e = it.next();
+            iterated.put(e.getKey(), e.getValue());
+        }
+        assertEquals(visited, iterated);
+        assertEquals(trie.size(), visited.size());
+        return visited;
+    }
+
+    @Test
+    void updatesLeaveEarlierVersionsIntact() {
+        HashTrie v1 = HashTrie.EMPTY.put("a", 1).put("b", 2);
+        HashTrie v2 = v1.put("a", 10).remove("b").put("c", 3);
+
+        assertEquals(Map.of("a", 1, "b", 2), contents(v1));
+        assertEquals(Map.of("a", 10, "c", 3), contents(v2));
+        assertEquals(0, HashTrie.EMPTY.size());
+    }
+
+    @Test
+    void noOpUpdatesReturnSameInstance() {
+        Integer one = 1;
+        HashTrie trie = HashTrie.EMPTY.put("a", one);
+        assertSame(trie, trie.put("a", one));
+        assertSame(trie, trie.remove("missing"));
+        assertSame(HashTrie.EMPTY, HashTrie.EMPTY.remove("a"));
+    }
+
+    @Test
+    void collidingKeysAreStoredAndRemoved() {
+        List<String> keys = collidingKeys(4);
+        assertEquals(16, keys.size());
+        assertEquals(1, keys.stream().mapToInt(String::hashCode).distinct().count());
+
+        HashTrie trie = HashTrie.EMPTY.put("other", -1);
+        for (int i = 0; i < keys.size(); i++) {
+            trie = trie.put(keys.get(i), i);
+        }
+        assertEquals(17, trie.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, trie.get(keys.get(i)));
+        }
+        // 같은 해시의 다른 키는 찾지 못해야 함
+        assertNull(trie.get("AaAaAaAaAa"));
+
+        HashTrie full = trie;
+        for (int i = 0; i < keys.size(); i += 2) {
+            trie = trie.remove(keys.get(i));
+        }
+        assertEquals(9, trie.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i % 2 == 0 ? null : (Object) i, trie.get(keys.get(i)));
+        }
+        // 충돌 노드에 키가 하나만 남을 때까지 제거
+        for (int i = 1; i < keys.size() - 2; i += 2) {
+            trie = trie.remove(keys.get(i));
+        }
+        assertEquals(Map.of(keys.get(15), 15, "other", -1), contents(trie));
+        trie = trie.remove(keys.get(15));
+        assertEquals(Map.of("other", -1), contents(trie));
+        assertEquals(17, contents(full).size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        List<String> pool = new ArrayList<>(collidingKeys(3));
+        for (int i = 0; i < 200; i++) {
+            pool.add("key" + i);
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        Map<String, Object> model = new HashMap<>();
+        HashTrie trie = HashTrie.EMPTY;
+        for (int step = 0; step < 20_000; step++) {
+            String key = pool.get(random.nextInt(pool.size()));
+            if (random.nextInt(3) == 0) {
+                model.remove(key);
+                trie = trie.remove(key);
+            } else {
+                model.put(key, step);
+                trie = trie.put(key, step);
+            }
+            assertEquals(model.size(), trie.size());
+            assertEquals(model.get(key), trie.get(key));
+        }
+        assertEquals(model, contents(trie));
+    }
+
+    @Test
+    void snapshotViewIgnoresLaterWrites() {
+        CtxMap ctx = CtxMap.persistent().put("a", "1");
+        for (String key : collidingKeys(2)) {
+            ctx.put(key, key.length());
+        }
+        Map<String, Object> snapshot = ctx.asReadOnlyMap();
+        ctx.put("a", "2").remove("AaAa");
+        ctx.put("b", "3");
+
+        assertEquals("1", snapshot.get("a"));
+        assertEquals(4, snapshot.get("AaAa"));
+        assertNull(snapshot.get("b"));
+        assertEquals(5, snapshot.size());
+        assertEquals("2", ctx.getString("a"));
+        assertEquals(5, ctx.size());
+    }
+}
@@ -0,0 +1,81 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * MapUtils.fromMap의 레코드 변환 테스트. 변환 규칙은 CtxMap.toRecord와 같아야 합니다.
+ */
+class MapUtilsTest {
+
+    record Person(String name, int age, long id, double score, boolean active, float weight, List<String> tags) {
+    }
+
+    record Point(int x, int y) {
+        Point {
+            if (x < 0) {
+                throw new IllegalArgumentException("x < 0");
+            }
+        }
+    }
+
+    record Line(String label, Point from, Point to) {
+    }
+
+    @Test
+    void valuesAreConvertedByComponentType() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "Jang");
+        map.put("age", 45);
+        map.put("id", "9000000000");
+        map.put("score", 1.5f);
+        map.put("active", " Yes ");
+        map.put("weight", "72.5");
+        map.put("tags", List.of("a"));
+        map.put("extra", "ignored");
+
+        assertEquals(new Person("Jang", 45, 9_000_000_000L, 1.5, true, 72.5f, List.of("a")),
+                MapUtils.fromMap(map, Person.class));
+    }
+
+    @Test
+    void missingAndMismatchedValuesUseDefaults() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", 1);
+        map.put("age", "N/A");
+        map.put("active", 1);
+        map.put("tags", null);
+
+        assertEquals(new Person(null, 0, 0L, 0.0, false, 0f, null), MapUtils.fromMap(map, Person.class));
+        assertEquals(new Person(null, 0, 0L, 0.0, false, 0f, null), MapUtils.fromMap(Map.of(), Person.class));
+        assertNull(MapUtils.fromMap(null, Person.class));
+    }
+
+    @Test
+    void nestedMapsBecomeRecords() {
+        Map<String, Object> map = Map.of("label", "l", "from", Map.of("x", 1, "y", "2"), "to", new Point(3, 4));
+        assertEquals(new Line("l", new Point(1, 2), new Point(3, 4)), MapUtils.fromMap(map, Line.class));
+        assertNull(MapUtils.fromMap(Map.of("from", "1,2"), Line.class).from());
+        assertThrows(IllegalArgumentException.class,
+                () -> MapUtils.fromMap(Map.of("from", Map.of("x", -1)), Line.class));
+    }
+
+    @Test
+    void agreesWithToRecordAndToMap() {
+        Person person = new Person("Kim", 30, 7L, 0.5, true, 60f, List.of("x", "y"));
+        Map<String, Object> map = MapUtils.toMap(person);
+        assertEquals(person, MapUtils.fromMap(map, Person.class));
+        assertEquals(person, CtxMap.of(map).toRecord(Person.class));
+
+        Map<String, Object> strings = Map.of("name", "Lee", "age", "41", "id", "12", "score", "2.5", "active", "on",
+                "weight", "55");
+        assertEquals(CtxMap.of(strings).toRecord(Person.class), MapUtils.fromMap(strings, Person.class));
+    }
+}
@@ -0,0 +1,119 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * NumberParser의 경계값과 잘못된 형식 처리 테스트. 실패는 예외가 아니라 기본값으로 드러나야 합니다.
+ */
+class NumberParserTest {
+
+    private static final int NO_INT = -999;
+    private static final long NO_LONG = -999L;
+    private static final double NO_DOUBLE = -999.0;
+
+    @Test
+    void integers() {
+        assertEquals(42, NumberParser.parseInt("42", NO_INT));
+        assertEquals(42, NumberParser.parseInt(" \t42 \n", NO_INT));
+        assertEquals(7, NumberParser.parseInt("+7", NO_INT));
+        assertEquals(0, NumberParser.parseInt("-0", NO_INT));
+        assertEquals(1_000_000, NumberParser.parseInt("1_000_000", NO_INT));
+        assertEquals(31, NumberParser.parseInt("0x1F", NO_INT));
+        assertEquals(-255, NumberParser.parseInt("-0XfF", NO_INT));
+        assertEquals(Integer.MAX_VALUE, NumberParser.parseInt("2147483647", NO_INT));
+        assertEquals(Integer.MIN_VALUE, NumberParser.parseInt("-2147483648", NO_INT));
+        assertEquals(123, NumberParser.parseInt("ab123cd", 2, 5, NO_INT));
+    }
+
+    @Test
+    void malformedIntegersReturnDefault() {
+        for (String s : new String[] {"", " ", "-", "+", "1_", "_1", "1__0", "12a", "1.0", "0x", "0xG",
+                "--1", "+-1", "1 2", "N/A", "１２", "0x_1"}) {
+            assertEquals(NO_INT, NumberParser.parseInt(s, NO_INT), s);
+            assertEquals(NO_LONG, NumberParser.parseLong(s, NO_LONG), s);
+        }
+    }
+
+    @Test
+    void integerOverflowReturnsDefault() {
+        assertEquals(NO_INT, NumberParser.parseInt("2147483648", NO_INT));
+        assertEquals(NO_INT, NumberParser.parseInt("-2147483649", NO_INT));
+        assertEquals(Long.MAX_VALUE, NumberParser.parseLong("9223372036854775807", NO_LONG));
+        assertEquals(Long.MIN_VALUE, NumberParser.parseLong("-9223372036854775808", NO_LONG));
+        assertEquals(NO_LONG, NumberParser.parseLong("9223372036854775808", NO_LONG));
+        assertEquals(NO_LONG, NumberParser.parseLong("-9223372036854775809", NO_LONG));
+        assertEquals(NO_LONG, NumberParser.parseLong("0x10000000000000000", NO_LONG));
+        assertEquals(NO_LONG, NumberParser.parseLong("99999999999999999999999", NO_LONG));
+    }
+
+    @Test
+    void doubles() {
+        assertEquals(3.5, NumberParser.parseDouble("3.5", NO_DOUBLE));
+        assertEquals(0.5, NumberParser.parseDouble(".5", NO_DOUBLE));
+        assertEquals(5.0, NumberParser.parseDouble("5.", NO_DOUBLE));
+        assertEquals(1000.0, NumberParser.parseDouble("1e3", NO_DOUBLE));
+        assertEquals(0.001, NumberParser.parseDouble("1E-3", NO_DOUBLE));
+        assertEquals(2.5, NumberParser.parseDouble("2.5f", NO_DOUBLE));
+        assertEquals(1000.5, NumberParser.parseDouble(" 1_000.5 ", NO_DOUBLE));
+        assertEquals(16.0, NumberParser.parseDouble("0x10", NO_DOUBLE));
+        assertEquals(-0.0, NumberParser.parseDouble("-0", NO_DOUBLE));
+        assertEquals(Double.NaN, NumberParser.parseDouble("NaN", NO_DOUBLE));
+        assertEquals(Double.NEGATIVE_INFINITY, NumberParser.parseDouble("-Infinity", NO_DOUBLE));
+        assertEquals(Double.POSITIVE_INFINITY, NumberParser.parseDouble("1e400", NO_DOUBLE));
+        assertEquals(0.0, NumberParser.parseDouble("1e-400", NO_DOUBLE));
+    }
+
+    @Test
+    void malformedDoublesReturnDefault() {
+        for (String s : new String[] {"", ".", "-", "e3", "1e", "1e+", "1.2.3", "1_.5", "1._5", "0x1.8p1",
+                "nan", "Inf", "1.5x", "1,5", "N/A"}) {
+            assertEquals(NO_DOUBLE, NumberParser.parseDouble(s, NO_DOUBLE), s);
+        }
+    }
+
+    @Test
+    void doublesAgreeWithJdk() {
+        String[] tricky = {"0.1", "0.30000000000000004", "9007199254740993", "123456789012345678901234567890",
+                "0.1000000000000000055511151231257827", "2.2250738585072014E-308", "4.9e-324", "1.7976931348623157e308",
+                "1e22", "1e23", "8.41e21"};
+        for (String s : tricky) {
+            assertEquals(Double.parseDouble(s), NumberParser.parseDouble(s, NO_DOUBLE), s);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isFinite(value)) {
+                String s = Double.toString(value);
+                assertEquals(value, NumberParser.parseDouble(s, NO_DOUBLE), s);
+            }
+            double small = random.nextInt(1_000_000) / 1000.0;
+            assertEquals(small, NumberParser.parseDouble(Double.toString(small), NO_DOUBLE));
+        }
+    }
+
+    @Test
+    void classify() {
+        assertEquals(NumberParser.INTEGRAL, NumberParser.classify("12", 0, 2));
+        assertEquals(NumberParser.INTEGRAL, NumberParser.classify(" -0x7f ", 0, 7));
+        assertEquals(NumberParser.DECIMAL, NumberParser.classify("1.5", 0, 3));
+        assertEquals(NumberParser.DECIMAL, NumberParser.classify("99999999999999999999", 0, 20));
+        assertEquals(NumberParser.DECIMAL, NumberParser.classify("NaN", 0, 3));
+        assertEquals(NumberParser.NOT_A_NUMBER, NumberParser.classify("abc", 0, 3));
+        assertEquals(NumberParser.NOT_A_NUMBER, NumberParser.classify("", 0, 0));
+    }
+
+    @Test
+    void ctxMapCoercionUsesDefaults() {
+        CtxMap ctx = new CtxMap().put("n", " 12 ").put("bad", "N/A").put("d", "2.5").put("big", "3000000000");
+        assertEquals(12, ctx.getInt("n"));
+        assertEquals(-1, ctx.getInt("bad", -1));
+        assertEquals(2.5, ctx.getDouble("d"));
+        assertEquals(-1, ctx.getInt("d", -1));
+        assertEquals(-1, ctx.getInt("big", -1));
+        assertEquals(3_000_000_000L, ctx.getLong("big"));
+    }
+}
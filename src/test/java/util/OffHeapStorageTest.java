@@ -0,0 +1,66 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * OffHeapStorage의 크기 제한과 순회 테스트.
+ */
+class OffHeapStorageTest {
+
+    @Test
+    void valuesSurviveRebuilds() {
+        OffHeapStorage storage = new OffHeapStorage(0);
+        for (int i = 0; i < 10_000; i++) {
+            storage.put("key" + i, i % 2 == 0 ? i : "value-" + "x".repeat(i % 40) + i);
+        }
+        for (int i = 0; i < 10_000; i += 3) {
+            storage.remove("key" + i);
+        }
+        storage.put("list", List.of(1, 2));
+        assertEquals(10_000 - 3334 + 1, storage.size());
+        assertEquals(2, storage.get("key2"));
+        assertEquals("value-" + "x".repeat(5) + 5, storage.get("key5"));
+        assertEquals(List.of(1, 2), storage.get("list"));
+        assertNull(storage.get("key3"));
+    }
+
+    @Test
+    void expectedSizeBeyondMaximumIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStorage(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStorage((1 << 29) + 1));
+    }
+
+    @Test
+    void forEachCallbackMayWrite() {
+        OffHeapStorage storage = new OffHeapStorage(0);
+        for (int i = 0; i < 100; i++) {
+            storage.put("key" + i, i);
+        }
+        Map<String, Object> seen = new HashMap<>();
+        // 순회 중 읽기 잠금을 잡은 채로 콜백을 호출하면 쓰기 잠금을 기다리며 멈춤
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> storage.forEach((k, v) -> {
+            seen.put(k, v);
+            storage.put(k + "!", v);
+        }));
+        assertEquals(100, seen.size());
+        assertEquals(200, storage.size());
+        assertEquals(7, storage.get("key7!"));
+    }
+
+    @Test
+    void ctxMapForEachVisibleMayWrite() {
+        CtxMap ctx = CtxMap.offHeap().putInt("a", 1).put("b", "two");
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> ctx.forEachVisible((k, v) -> ctx.remove(k)));
+        assertEquals(0, ctx.size());
+    }
+}